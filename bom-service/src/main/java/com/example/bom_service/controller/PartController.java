@@ -158,6 +158,11 @@ public class PartController {
         return ResponseEntity.ok(documentIds);
     }
 
+    @GetMapping("/{id}/tree/documents")
+    public ResponseEntity<List<String>> getDocumentsForPartTree(@PathVariable String id) {
+        return ResponseEntity.ok(partService.getDocumentsForPartTree(id));
+    }
+
     @GetMapping("/document/{documentId}/parts")
     public ResponseEntity<List<String>> getPartsForDocument(@PathVariable String documentId) {
         List<String> partIds = partService.getPartsForDocument(documentId);
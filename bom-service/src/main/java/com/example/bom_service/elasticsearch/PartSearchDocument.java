@@ -4,9 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.time.LocalDateTime;
 
@@ -49,6 +51,10 @@ public class PartSearchDocument {
     @Field(type = FieldType.Boolean)
     private Boolean deleted;
     
+    // Type-ahead input for the search-service suggest endpoint
+    @CompletionField(analyzer = "standard", searchAnalyzer = "standard", maxInputLength = 100)
+    private Completion suggest;
+    
     /**
      * Utility method to map from Part entity to search document
      */
@@ -64,6 +70,9 @@ public class PartSearchDocument {
         searchDoc.setCreateTime(part.getCreateTime());
         searchDoc.setUpdateTime(part.getUpdateTime());
         searchDoc.setDeleted(part.isDeleted());
+        if (part.getTitle() != null) {
+            searchDoc.setSuggest(new Completion(new String[]{part.getTitle()}));
+        }
         return searchDoc;
     }
 }
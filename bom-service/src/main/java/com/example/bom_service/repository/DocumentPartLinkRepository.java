@@ -1,8 +1,10 @@
 package com.example.bom_service.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import com.example.bom_service.model.DocumentPartLink;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DocumentPartLinkRepository extends JpaRepository<DocumentPartLink, String> {
@@ -11,5 +13,8 @@ public interface DocumentPartLinkRepository extends JpaRepository<DocumentPartLi
     
     List<DocumentPartLink> findByDocumentId(String documentId);
     
+    @Query("SELECT DISTINCT l.documentId FROM DocumentPartLink l WHERE l.part.id IN ?1")
+    List<String> findDocumentIdsByPartIds(Collection<String> partIds);
+    
     void deleteByPartIdAndDocumentId(String partId, String documentId);
 }
@@ -1,11 +1,15 @@
 package com.example.bom_service.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import com.example.bom_service.model.Part;
 import com.example.plm.common.model.Stage;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface PartRepository extends JpaRepository<Part, String> {
     
@@ -26,4 +30,15 @@ public interface PartRepository extends JpaRepository<Part, String> {
     
     @Query("SELECT DISTINCT pu.parent FROM PartUsage pu WHERE pu.child.id = ?1 AND pu.parent.deleted = false")
     List<Part> findParentsOf(String childId);
+    
+    /**
+     * Cursor over every part (deleted ones included) for bulk reindexing.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Part p")
+    Stream<Part> streamAll();
 }
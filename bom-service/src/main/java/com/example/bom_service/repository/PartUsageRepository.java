@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import com.example.bom_service.model.PartUsage;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PartUsageRepository extends JpaRepository<PartUsage, String> {
@@ -17,6 +18,10 @@ public interface PartUsageRepository extends JpaRepository<PartUsage, String> {
     @Query("SELECT pu FROM PartUsage pu WHERE pu.parent.id = ?1 AND pu.child.id = ?2")
     PartUsage findByParentAndChild(String parentId, String childId);
     
+    // One BOM level for many parents at once
+    @Query("SELECT DISTINCT pu.child.id FROM PartUsage pu WHERE pu.parent.id IN ?1 AND pu.parent.deleted = false AND pu.child.deleted = false")
+    List<String> findChildIdsOf(Collection<String> parentIds);
+    
     @Query("SELECT pu FROM PartUsage pu WHERE pu.parent.id = ?1 AND pu.child.deleted = false ORDER BY pu.child.title")
     List<PartUsage> findByParentIdOrderByChildTitle(String parentId);
 }
@@ -1,24 +1,60 @@
 package com.example.bom_service.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import com.example.bom_service.elasticsearch.PartSearchDocument;
-import com.example.bom_service.elasticsearch.PartSearchRepository;
 import com.example.bom_service.model.Part;
-import lombok.RequiredArgsConstructor;
+import com.example.plm.common.search.AliasReindexer;
+import com.example.plm.common.search.BulkIndexBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PartSearchService {
 
-    private final PartSearchRepository partSearchRepository;
+    private final AliasReindexer reindexer;
+    private final BulkIndexBuffer<PartSearchDocument> indexBuffer;
+
+    public PartSearchService(ElasticsearchOperations elasticsearchOperations,
+                             ElasticsearchClient elasticsearchClient,
+                             @Value("${plm.search.reindex.batch-size:1000}") int reindexBatchSize,
+                             @Value("${plm.search.reindex.concurrency:2}") int reindexConcurrency,
+                             @Value("${plm.search.bulk.max-batch-size:500}") int bulkMaxBatchSize,
+                             @Value("${plm.search.bulk.flush-interval:1s}") Duration bulkFlushInterval) {
+        this.reindexer = new AliasReindexer(elasticsearchOperations, reindexBatchSize, reindexConcurrency);
+        this.indexBuffer = new BulkIndexBuffer<>(elasticsearchOperations, elasticsearchClient,
+            PartSearchDocument.class, PartSearchDocument::getId, bulkMaxBatchSize, bulkFlushInterval);
+    }
+
+    /**
+     * Bring an existing parts index up to the current mapping, copying it if the change can't be
+     * made in place
+     */
+    @PostConstruct
+    public void updateMapping() {
+        try {
+            reindexer.applyMapping(PartSearchDocument.class);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not update parts index mapping: {}", e.getMessage());
+        }
+    }
 
+    /**
+     * Queue the part for indexing; the buffer sends it with the next _bulk flush
+     */
     public void indexPart(Part part) {
         try {
             PartSearchDocument searchDocument = PartSearchDocument.fromPart(part);
-            partSearchRepository.save(searchDocument);
-            log.info("✅ Part {} indexed to Elasticsearch", part.getId());
+            indexBuffer.index(searchDocument);
+            log.debug("Part {} queued for Elasticsearch indexing", part.getId());
         } catch (Exception e) {
             log.error("❌ Failed to index Part {} to Elasticsearch: {}", part.getId(), e.getMessage());
             // Don't throw - ES indexing shouldn't break the main flow
@@ -27,12 +63,31 @@ public class PartSearchService {
 
     public void deletePart(String partId) {
         try {
-            partSearchRepository.deleteById(partId);
-            log.info("✅ Part {} deleted from Elasticsearch", partId);
+            indexBuffer.delete(partId);
+            log.debug("Part {} queued for Elasticsearch deletion", partId);
         } catch (Exception e) {
             log.error("❌ Failed to delete Part {} from Elasticsearch: {}", partId, e.getMessage());
         }
     }
+
+    /**
+     * Rebuild the parts index into a fresh versioned index and swap the "parts" alias to it.
+     * Search keeps serving from the current index until the swap, which only happens if every
+     * part was indexed.
+     *
+     * @param parts opens the parts to index; called once writes also reach the new index
+     * @return number of parts indexed
+     */
+    public int reindexAll(Supplier<Stream<Part>> parts) {
+        AliasReindexer.Result result = reindexer.reindex(
+            PartSearchDocument.class, parts, PartSearchDocument::fromPart, PartSearchDocument::getId);
+        return result.indexed();
+    }
+
+    @PreDestroy
+    public void flushPendingIndexing() {
+        indexBuffer.close();
+    }
 }
 
 
@@ -36,5 +36,6 @@ public interface PartService {
     DocumentPartLink linkPartToDocument(LinkPartToDocumentRequest request);
     void unlinkPartFromDocument(String partId, String documentId);
     List<String> getDocumentsForPart(String partId);
+    List<String> getDocumentsForPartTree(String partId);
     List<String> getPartsForDocument(String documentId);
 }
@@ -21,12 +21,16 @@ import com.example.bom_service.client.PartSyncDto;
 import com.example.bom_service.client.PartUsageDto;
 import com.example.bom_service.client.PartDocumentLinkDto;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -44,6 +48,9 @@ public class PartServiceImpl implements PartService {
     private final PartSearchService partSearchService;
     private final Executor graphSyncExecutor = Executors.newFixedThreadPool(5);
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public PartServiceImpl(PartRepository partRepository, 
                           PartUsageRepository partUsageRepository,
                           DocumentPartLinkRepository documentPartLinkRepository,
@@ -154,24 +161,12 @@ public class PartServiceImpl implements PartService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public int reindexAllParts() {
         log.info("🔄 Starting re-indexing of all parts to Elasticsearch...");
-        List<Part> allParts = partRepository.findAll();
-        int successCount = 0;
-        int failureCount = 0;
-        
-        for (Part part : allParts) {
-            try {
-                partSearchService.indexPart(part);
-                successCount++;
-            } catch (Exception e) {
-                log.error("❌ Failed to index Part {} to Elasticsearch: {}", part.getId(), e.getMessage());
-                failureCount++;
-            }
-        }
-        
-        log.info("✅ Re-indexing complete: {} parts indexed successfully, {} failures", successCount, failureCount);
+        // Stream rows off a cursor and detach each one so the persistence context stays small
+        int successCount = partSearchService.reindexAll(() -> partRepository.streamAll().peek(entityManager::detach));
+        log.info("✅ Re-indexing complete: {} parts indexed", successCount);
         return successCount;
     }
 
@@ -282,6 +277,24 @@ public class PartServiceImpl implements PartService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Documents linked to a part or to any part below it, walked one BOM level per query.
+     * Parts used in several places (and accidental cycles) are visited once.
+     */
+    @Override
+    public List<String> getDocumentsForPartTree(String partId) {
+        getPartById(partId);
+        Set<String> visited = new LinkedHashSet<>();
+        List<String> level = List.of(partId);
+        while (!level.isEmpty()) {
+            visited.addAll(level);
+            level = partUsageRepository.findChildIdsOf(level).stream()
+                    .filter(id -> !visited.contains(id))
+                    .collect(Collectors.toList());
+        }
+        return documentPartLinkRepository.findDocumentIdsByPartIds(visited);
+    }
+
     @Override
     public List<String> getPartsForDocument(String documentId) {
         return documentPartLinkRepository.findByDocumentId(documentId)
@@ -1,9 +1,11 @@
 package com.example.change_service.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -43,13 +45,17 @@ public class ChangeSearchDocument {
     @Field(type = FieldType.Keyword)
     private List<String> affectedPartIds;
 
+    // Type-ahead input for the search-service suggest endpoint, kept in step with title
+    @CompletionField(analyzer = "standard", searchAnalyzer = "standard", maxInputLength = 100)
+    private Completion suggest;
+
     public ChangeSearchDocument() {}
 
     public ChangeSearchDocument(String id, String title, String stage, String changeClass, String product,
                                String status, String creator, LocalDateTime createTime, String changeReason,
                                List<String> affectedDocumentIds, List<String> affectedPartIds) {
         this.id = id;
-        this.title = title;
+        setTitle(title);
         this.stage = stage;
         this.changeClass = changeClass;
         this.product = product;
@@ -65,7 +71,10 @@ public class ChangeSearchDocument {
     public void setId(String id) { this.id = id; }
 
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) {
+        this.title = title;
+        this.suggest = title != null ? new Completion(new String[]{title}) : null;
+    }
 
     public String getStage() { return stage; }
     public void setStage(String stage) { this.stage = stage; }
@@ -93,6 +102,9 @@ public class ChangeSearchDocument {
 
     public List<String> getAffectedPartIds() { return affectedPartIds; }
     public void setAffectedPartIds(List<String> affectedPartIds) { this.affectedPartIds = affectedPartIds; }
+
+    public Completion getSuggest() { return suggest; }
+    public void setSuggest(Completion suggest) { this.suggest = suggest; }
 }
 
 
@@ -2,12 +2,16 @@ package com.example.change_service.repository.mysql;
 
 import com.example.change_service.model.Changes;
 import com.example.plm.common.model.Status;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ChangeRepository extends JpaRepository<Changes, String> {
@@ -28,5 +32,15 @@ public interface ChangeRepository extends JpaRepository<Changes, String> {
     @Query("SELECT c FROM Changes c WHERE c.status = :status AND c.creator = :creator")
     List<Changes> findByStatusAndCreator(@Param("status") Status status,
                                        @Param("creator") String creator);
+
+    /**
+     * Cursor over every change for bulk reindexing; consume and close inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Changes c")
+    Stream<Changes> streamAll();
 }
 
@@ -14,9 +14,18 @@ import com.example.change_service.repository.mysql.ChangePartRepository;
 import com.example.change_service.repository.neo4j.ChangeNodeRepository;
 import com.example.change_service.client.WorkflowOrchestratorClient;
 import com.example.plm.common.model.Status;
+import com.example.plm.common.search.AliasReindexer;
+import com.example.plm.common.search.BulkIndexBuffer;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
@@ -26,6 +35,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +62,51 @@ public class ChangeService {
     @Autowired(required = false)
     private ChangeSearchRepository changeSearchRepository;
 
+    @Autowired(required = false)
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired(required = false)
+    private ElasticsearchClient elasticsearchClient;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${plm.search.reindex.batch-size:1000}")
+    private int reindexBatchSize;
+
+    @Value("${plm.search.reindex.concurrency:2}")
+    private int reindexConcurrency;
+
+    @Value("${plm.search.bulk.max-batch-size:500}")
+    private int bulkMaxBatchSize;
+
+    @Value("${plm.search.bulk.flush-interval:1s}")
+    private Duration bulkFlushInterval;
+
+    // Write-behind _bulk buffer for the changes index; null when Elasticsearch is not configured
+    private BulkIndexBuffer<ChangeSearchDocument> changeIndexBuffer;
+
+    @PostConstruct
+    void initSearchIndexBuffer() {
+        if (changeSearchRepository != null && elasticsearchOperations != null && elasticsearchClient != null) {
+            try {
+                // Existing indexes pick up mapping changes, copied into a new index when ES refuses them in place
+                new AliasReindexer(elasticsearchOperations).applyMapping(ChangeSearchDocument.class);
+            } catch (Exception e) {
+                System.err.println("⚠️ Could not update changes index mapping: " + e.getMessage());
+            }
+            changeIndexBuffer = new BulkIndexBuffer<>(elasticsearchOperations, elasticsearchClient,
+                ChangeSearchDocument.class, ChangeSearchDocument::getId, bulkMaxBatchSize, bulkFlushInterval);
+        }
+    }
+
+    @PreDestroy
+    void flushSearchIndexBuffer() {
+        if (changeIndexBuffer != null) {
+            changeIndexBuffer.close();
+        }
+    }
+
     @Autowired(required = false)
     private DocumentServiceClient documentServiceClient;
 
@@ -141,7 +196,7 @@ public class ChangeService {
             });
         }
 
-        if (changeSearchRepository != null) {
+        if (changeIndexBuffer != null) {
             ChangeSearchDocument searchDoc = new ChangeSearchDocument(
                 changeId,
                 request.getTitle(),
@@ -155,7 +210,7 @@ public class ChangeService {
                 List.of(request.getChangeDocument()),
                 List.of()
             );
-            changeSearchRepository.save(searchDoc);
+            changeIndexBuffer.index(searchDoc);
         }
 
         return mapToResponse(change);
@@ -197,14 +252,10 @@ public class ChangeService {
             });
         }
 
-        if (changeSearchRepository != null) {
+        // Re-index from the saved entity instead of reading the document back from Elasticsearch
+        if (changeIndexBuffer != null) {
             try {
-                Optional<ChangeSearchDocument> searchDoc = changeSearchRepository.findById(changeId);
-                if (searchDoc.isPresent()) {
-                    ChangeSearchDocument doc = searchDoc.get();
-                    doc.setStatus(Status.IN_REVIEW.toString());
-                    changeSearchRepository.save(doc);
-                }
+                changeIndexBuffer.index(toSearchDocument(change));
             } catch (Exception e) {
                 System.err.println("⚠️ Failed to update change in Elasticsearch (non-critical): " + e.getMessage());
             }
@@ -288,13 +339,8 @@ public class ChangeService {
             });
         }
 
-        if (changeSearchRepository != null) {
-            Optional<ChangeSearchDocument> searchDoc = changeSearchRepository.findById(changeId);
-            if (searchDoc.isPresent()) {
-                ChangeSearchDocument doc = searchDoc.get();
-                doc.setStatus(Status.RELEASED.toString());
-                changeSearchRepository.save(doc);
-            }
+        if (changeIndexBuffer != null) {
+            changeIndexBuffer.index(toSearchDocument(change));
         }
 
         return mapToResponse(change);
@@ -364,14 +410,9 @@ public class ChangeService {
             });
         }
 
-        if (changeSearchRepository != null) {
+        if (changeIndexBuffer != null) {
             try {
-                Optional<ChangeSearchDocument> searchDoc = changeSearchRepository.findById(changeId);
-                if (searchDoc.isPresent()) {
-                    ChangeSearchDocument doc = searchDoc.get();
-                    doc.setStatus(newStatus.toString());
-                    changeSearchRepository.save(doc);
-                }
+                changeIndexBuffer.index(toSearchDocument(change));
             } catch (Exception e) {
                 System.err.println("⚠️ Failed to update change in Elasticsearch: " + e.getMessage());
             }
@@ -390,9 +431,9 @@ public class ChangeService {
         changePartRepository.findByChangeId(changeId).forEach(cp -> changePartRepository.delete(cp));
         
         // Delete from Elasticsearch
-        if (changeSearchRepository != null) {
+        if (changeIndexBuffer != null) {
             try {
-                changeSearchRepository.deleteById(changeId);
+                changeIndexBuffer.delete(changeId);
             } catch (Exception e) {
                 // Log but don't fail if ES delete fails
                 System.err.println("Failed to delete change from Elasticsearch: " + e.getMessage());
@@ -413,46 +454,45 @@ public class ChangeService {
         changeRepository.delete(change);
     }
 
+    /**
+     * Rebuild the changes index into a new versioned index behind the "changes" alias.
+     * Search keeps serving from the current index until the alias is swapped, which only happens
+     * if every change was indexed; changes saved meanwhile reach the new index as well.
+     */
     @Transactional(readOnly = true)
     public int reindexAllChanges() {
-        if (changeSearchRepository == null) {
+        if (changeSearchRepository == null || elasticsearchOperations == null) {
             System.err.println("⚠️ Elasticsearch repository not available, skipping reindex");
             return 0;
         }
 
         System.out.println("🔄 Starting reindex of all changes...");
-        
-        // Clear existing data in Elasticsearch
-        changeSearchRepository.deleteAll();
-        System.out.println("   Cleared existing Elasticsearch data");
-        
-        // Get all changes from MySQL
-        List<Changes> allChanges = changeRepository.findAll();
-        System.out.println("   Found " + allChanges.size() + " changes in MySQL");
-        
-        int count = 0;
-        for (Changes change : allChanges) {
-            try {
-                ChangeSearchDocument doc = new ChangeSearchDocument();
-                doc.setId(change.getId());
-                doc.setTitle(change.getTitle());
-                doc.setStage(change.getStage() != null ? change.getStage().toString() : null);
-                doc.setChangeClass(change.getChangeClass());
-                doc.setProduct(change.getProduct());
-                doc.setStatus(change.getStatus() != null ? change.getStatus().toString() : null);
-                doc.setCreator(change.getCreator());
-                doc.setCreateTime(change.getCreateTime());
-                doc.setChangeReason(change.getChangeReason());
-                
-                changeSearchRepository.save(doc);
-                count++;
-            } catch (Exception e) {
-                System.err.println("   ⚠️ Failed to index change " + change.getId() + ": " + e.getMessage());
-            }
-        }
-        
-        System.out.println("✅ Reindexed " + count + " changes successfully");
-        return count;
+
+        AliasReindexer reindexer = new AliasReindexer(elasticsearchOperations, reindexBatchSize, reindexConcurrency);
+        AliasReindexer.Result result = reindexer.reindex(
+            ChangeSearchDocument.class,
+            () -> changeRepository.streamAll().peek(entityManager::detach),
+            this::toSearchDocument,
+            ChangeSearchDocument::getId
+        );
+        System.out.println("✅ Reindexed " + result.indexed() + " changes successfully into " + result.indexName());
+        return result.indexed();
+    }
+
+    private ChangeSearchDocument toSearchDocument(Changes change) {
+        ChangeSearchDocument doc = new ChangeSearchDocument();
+        doc.setId(change.getId());
+        doc.setTitle(change.getTitle());
+        doc.setStage(change.getStage() != null ? change.getStage().toString() : null);
+        doc.setChangeClass(change.getChangeClass());
+        doc.setProduct(change.getProduct());
+        doc.setStatus(change.getStatus() != null ? change.getStatus().toString() : null);
+        doc.setCreator(change.getCreator());
+        doc.setCreateTime(change.getCreateTime());
+        doc.setChangeReason(change.getChangeReason());
+        doc.setAffectedDocumentIds(change.getChangeDocument() != null ? List.of(change.getChangeDocument()) : List.of());
+        doc.setAffectedPartIds(List.of());
+        return doc;
     }
 
     private ChangeResponse mapToResponse(Changes change) {
@@ -0,0 +1,20 @@
+package com.example.document_service.client;
+
+import java.util.List;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+/**
+ * Feign client for reading part structure from BOM Service
+ */
+@FeignClient(name = "bom-service")
+public interface BomServiceClient {
+
+    /**
+     * Ids of the documents linked to a part or to any part below it in the BOM
+     */
+    @GetMapping("/api/v1/parts/{partId}/tree/documents")
+    List<String> getDocumentsForPartTree(@PathVariable("partId") String partId);
+}
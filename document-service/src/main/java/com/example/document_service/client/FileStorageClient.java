@@ -1,17 +1,24 @@
 package com.example.document_service.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import feign.Response;
+
 @FeignClient(name = "file-storage-service", configuration = com.example.document_service.config.FeignMultipartSupportConfig.class)
 public interface FileStorageClient {
 
     @PostMapping(value = "/files/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     String uploadFile(@RequestPart("file") MultipartFile file, @RequestParam("filename") String filename);
 
+    /**
+     * Raw Feign response so the body can be read as a stream; the caller must close it.
+     * A {@code Range} header (or null for the whole file) is passed through as-is.
+     */
     @GetMapping("/files/download/{filename}")
-    ResponseEntity<byte[]> downloadFile(@PathVariable("filename") String filename);
+    Response downloadFile(@PathVariable("filename") String filename,
+                          @RequestHeader(value = HttpHeaders.RANGE, required = false) String range);
 }
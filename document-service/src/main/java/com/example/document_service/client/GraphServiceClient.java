@@ -13,6 +13,9 @@ public interface GraphServiceClient {
     @PostMapping("/api/graph/sync/document")
     ResponseEntity<String> syncDocument(@RequestBody DocumentSyncDto document);
 
+    @PostMapping("/api/graph/sync/documents")
+    ResponseEntity<String> syncDocuments(@RequestBody java.util.List<DocumentSyncDto> documents);
+
     @PostMapping("/api/graph/sync/part-document-link")
     ResponseEntity<String> syncPartDocumentLink(@RequestBody PartDocumentLinkDto link);
 
@@ -17,6 +17,12 @@ public class GraphServiceClientFallback implements GraphServiceClient {
         return ResponseEntity.ok("Graph sync skipped (service unavailable)");
     }
 
+    @Override
+    public ResponseEntity<String> syncDocuments(java.util.List<DocumentSyncDto> documents) {
+        log.warn("Graph Service unavailable - could not sync {} documents", documents.size());
+        return ResponseEntity.ok("Graph sync skipped (service unavailable)");
+    }
+
     @Override
     public ResponseEntity<String> syncPartDocumentLink(PartDocumentLinkDto link) {
         log.warn("Graph Service unavailable - could not sync part-document link");
@@ -0,0 +1,38 @@
+package com.example.document_service.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// In-process caches (Caffeine); declared here so Redis on the classpath isn't picked up as the cache store
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PREVIEWS = "previews";
+    public static final String PENDING_REVIEWS = "pendingReviews";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${plm.preview.cache.max-bytes:67108864}") long previewCacheBytes,
+                                     @Value("${plm.review.inbox-cache-ttl:15s}") Duration inboxTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Preview images, bounded by total bytes rather than entry count
+        cacheManager.registerCustomCache(PREVIEWS, Caffeine.newBuilder()
+                .maximumWeight(previewCacheBytes)
+                .weigher((Object key, Object value) -> value instanceof byte[] bytes ? bytes.length : 1)
+                .build());
+        // Reviewer inbox pages; short-lived so polling dashboards share one query per reviewer,
+        // and cleared whenever a review starts or ends
+        cacheManager.registerCustomCache(PENDING_REVIEWS, Caffeine.newBuilder()
+                .expireAfterWrite(inboxTtl)
+                .maximumSize(10_000)
+                .build());
+        return cacheManager;
+    }
+}
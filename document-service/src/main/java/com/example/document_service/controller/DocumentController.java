@@ -1,43 +1,72 @@
 package com.example.document_service.controller;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.example.plm.common.model.Stage;
+import com.example.plm.common.web.ByteRanges;
 
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.document_service.dto.request.ApproveRejectRequest;
+import com.example.document_service.dto.request.ArchiveRequest;
+import com.example.document_service.dto.request.BulkIngestRequest;
 import com.example.document_service.dto.request.CreateDocumentRequest;
 import com.example.document_service.dto.request.SearchRequest;
 import com.example.document_service.dto.request.SubmitForReviewRequest;
 import com.example.document_service.dto.request.UpdateDocumentRequest;
 import com.example.document_service.dto.request.UpdateStageRequest;
+import com.example.document_service.exception.ValidationException;
+import com.example.document_service.dto.response.BulkIngestResponse;
 import com.example.document_service.dto.response.DocumentHistoryResponse;
+import com.example.document_service.dto.response.DirectUploadResponse;
 import com.example.document_service.dto.response.DocumentResponse;
 import com.example.document_service.mapper.DocumentHistoryMapper;
 import com.example.document_service.mapper.DocumentMapper;
 import com.example.document_service.model.Document;
 import com.example.document_service.model.DocumentHistory;
+import com.example.document_service.model.StoredFile;
 
+import com.example.document_service.service.BulkIngestService;
+import com.example.document_service.service.DocumentArchiveService;
 import com.example.document_service.service.DocumentService;
+import com.example.document_service.service.PreviewService;
+import com.example.document_service.service.StoredFileService;
+import com.example.document_service.service.gateway.FileDownload;
 import com.example.document_service.service.gateway.FileStorageGateway;
+import com.example.document_service.service.gateway.PresignedUrl;
 import com.example.document_service.service.gateway.SearchGateway;
 import com.example.document_service.client.SearchServiceClient;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/v1/documents")
 public class DocumentController {
@@ -45,11 +74,19 @@ public class DocumentController {
     private final DocumentService documentService;
     private final FileStorageGateway fileStorageGateway;
     private final SearchGateway searchGateway;
+    private final StoredFileService storedFileService;
+    private final PreviewService previewService;
+    private final BulkIngestService bulkIngestService;
+    private final DocumentArchiveService archiveService;
     private final com.example.document_service.service.impl.MinIOFileStorageService minioService;
 
     public DocumentController(DocumentService documentService,
                               FileStorageGateway fileStorageGateway,
                               SearchGateway searchGateway,
+                              StoredFileService storedFileService,
+                              PreviewService previewService,
+                              BulkIngestService bulkIngestService,
+                              DocumentArchiveService archiveService,
                               com.example.document_service.service.impl.MinIOFileStorageService minioService) {
         if (documentService == null) {
             throw new IllegalArgumentException("DocumentService cannot be null");
@@ -57,6 +94,10 @@ public class DocumentController {
         this.documentService = documentService;
         this.fileStorageGateway = fileStorageGateway;
         this.searchGateway = searchGateway;
+        this.storedFileService = storedFileService;
+        this.previewService = previewService;
+        this.bulkIngestService = bulkIngestService;
+        this.archiveService = archiveService;
         this.minioService = minioService;
     }
 
@@ -141,9 +182,15 @@ public class DocumentController {
         return DocumentMapper.toResponse(d);
     }
 
+    /**
+     * History newest-first, one page at a time; pass the id of the last entry
+     * received as {@code before} to get the next page
+     */
     @GetMapping("/{id}/history")
-    public List<DocumentHistoryResponse> history(@PathVariable String id) {
-        List<DocumentHistory> list = documentService.history(id);
+    public List<DocumentHistoryResponse> history(@PathVariable String id,
+                                                 @RequestParam(required = false) Long before,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        List<DocumentHistory> list = documentService.history(id, before, size);
         return list.stream()
                    .map(DocumentHistoryMapper::toResponse)
                    .collect(Collectors.toList());
@@ -161,28 +208,95 @@ public class DocumentController {
     public String upload(@PathVariable String id,
                          @RequestPart MultipartFile file,
                          @RequestParam String user) {
-        String objectKey = fileStorageGateway.upload(id, file);
-        
+        // Fail before anything is stored if the document doesn't exist
+        documentService.getById(id);
+
+        // Stored once per distinct content; an unchanged file is only linked
+        StoredFile stored = storedFileService.store(file);
+        String objectKey = stored.getFileKey();
+
         // Save file metadata to document
-        documentService.attachFileWithMetadata(id, objectKey, file, user);
-        
+        try {
+            documentService.attachFileWithMetadata(id, objectKey, file, user);
+        } catch (RuntimeException e) {
+            storedFileService.release(objectKey);
+            throw e;
+        }
+
         return objectKey;
     }
 
+    /**
+     * Direct upload, step 1: a short-lived URL the client PUTs the file to, bypassing the services.
+     * 503 if direct transfer isn't available; use {@code /upload} then.
+     */
+    @PostMapping("/{id}/upload-url")
+    public ResponseEntity<DirectUploadResponse> uploadUrl(@PathVariable String id) {
+        documentService.getById(id);
+
+        String fileKey = storedFileService.newDirectUploadKey(id);
+        PresignedUrl presigned = fileStorageGateway.presignUpload(fileKey);
+        if (presigned == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(new DirectUploadResponse(fileKey, presigned.url(), presigned.method(),
+                presigned.expiresAt()));
+    }
+
+    /**
+     * Direct upload, step 2: attach the file the client PUT to the presigned URL
+     */
+    @PostMapping("/{id}/upload-complete")
+    public String uploadComplete(@PathVariable String id,
+                                 @RequestParam String fileKey,
+                                 @RequestParam String filename,
+                                 @RequestParam(required = false) String contentType,
+                                 @RequestParam String user) {
+        if (!storedFileService.isDirectUploadKey(id, fileKey)) {
+            throw new ValidationException("Not an upload key of document " + id + ": " + fileKey);
+        }
+        long size = fileStorageGateway.getFileSize(fileKey);
+        if (size < 0) {
+            throw new ValidationException("Nothing was uploaded for " + fileKey);
+        }
+        String type = contentType != null && !contentType.isBlank()
+                ? contentType
+                : getContentTypeByFilename(filename).toString();
+        documentService.attachStoredFile(id, fileKey, filename, type, size, user);
+        return fileKey;
+    }
+
+    /**
+     * Create many documents with their files in one call. The manifest part is JSON;
+     * files come as "files" parts and/or one "archive" zip, matched to items by name.
+     * Each item reports its own status.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public BulkIngestResponse bulkIngest(@RequestPart("manifest") BulkIngestRequest manifest,
+                                         @RequestPart(value = "files", required = false) List<MultipartFile> files,
+                                         @RequestPart(value = "archive", required = false) MultipartFile archive) {
+        return bulkIngestService.ingest(manifest, files, archive);
+    }
+
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> download(@PathVariable String id) {
+    public ResponseEntity<Resource> download(@PathVariable String id,
+                                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                             @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                             HttpServletRequest request)
+            throws IOException {
         Document document = documentService.getById(id);
         if (document.getFileKey() == null || document.getFileKey().isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        String fileKey = document.getFileKey();
 
-        byte[] data = fileStorageGateway.download(document.getFileKey());
-
-        // Extract original filename from fileKey (format: documentId_originalFilename)
+        // Content-addressed keys carry no name; legacy keys are documentId_originalFilename
         String filename;
-        if (document.getFileKey() != null && document.getFileKey().contains("_")) {
+        if (document.getOriginalFilename() != null && !document.getOriginalFilename().isBlank()) {
+            filename = document.getOriginalFilename();
+        } else if (fileKey.contains("_")) {
             // Extract the part after the first underscore (original filename with extension)
-            filename = document.getFileKey().substring(document.getFileKey().indexOf("_") + 1);
+            filename = fileKey.substring(fileKey.indexOf("_") + 1);
         } else {
             // Fallback to document title or ID if fileKey format is unexpected
             filename = document.getTitle() != null ? document.getTitle() : id;
@@ -201,10 +315,179 @@ public class DocumentController {
         // Determine the correct content type based on file extension
         MediaType contentType = getContentTypeByFilename(filename);
 
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + encodedFilename);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String etag = fileETag(document);
+        headers.setETag(etag);
+        Instant lastModified = document.getFileUploadedAt() != null
+                ? document.getFileUploadedAt().atZone(ZoneId.systemDefault()).toInstant()
+                : null;
+        if (lastModified != null) {
+            headers.setLastModified(lastModified);
+        }
+
+        // Byte ranges: each range is read from storage at its offset, never by skipping
+        if (range != null) {
+            long total = fileStorageGateway.getFileSize(fileKey);
+            List<ByteRanges.Span> spans = total >= 0
+                    ? ByteRanges.resolve(range, ifRange, etag, lastModified, total)
+                    : null;
+            if (spans != null && spans.size() == 1) {
+                ByteRanges.Span span = spans.get(0);
+                FileDownload download = fileStorageGateway.download(fileKey, span.start(), span.length());
+                if (download == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                headers.set(HttpHeaders.CONTENT_RANGE, span.contentRange(total));
+                return fileResponse(HttpStatus.PARTIAL_CONTENT, headers, contentType, download, span.start(), request);
+            }
+            if (spans != null) {
+                return ByteRanges.partial(spans, total, contentType, headers,
+                        (offset, length) -> openRange(fileKey, offset, length));
+            }
+        }
+
+        FileDownload download = fileStorageGateway.download(fileKey);
+        if (download == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return fileResponse(HttpStatus.OK, headers, contentType, download, 0, request);
+    }
+
+    /**
+     * A short-lived URL the client downloads the file from directly; 503 if direct transfer
+     * isn't available, in which case {@code /download} still works
+     */
+    @GetMapping("/{id}/download-url")
+    public ResponseEntity<PresignedUrl> downloadUrl(@PathVariable String id) {
+        Document document = documentService.getById(id);
+        if (document.getFileKey() == null || document.getFileKey().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String filename = document.getOriginalFilename() != null && !document.getOriginalFilename().isBlank()
+                ? document.getOriginalFilename()
+                : document.getTitle();
+        String contentType = document.getContentType() != null
+                ? document.getContentType()
+                : getContentTypeByFilename(filename).toString();
+        PresignedUrl presigned = fileStorageGateway.presignDownload(document.getFileKey(), filename, contentType);
+        if (presigned == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(presigned);
+    }
+
+    /**
+     * Download the files of many documents as one zip, streamed as it is assembled.
+     * GET is for links ({@code ?partId=} for a whole BOM tree); POST takes long id lists.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<StreamingResponseBody> archive(@RequestParam(required = false) String partId,
+                                                         @RequestParam(required = false) List<String> ids,
+                                                         @RequestParam(required = false) String filename) {
+        ArchiveRequest request = new ArchiveRequest();
+        request.setPartId(partId);
+        request.setDocumentIds(ids);
+        request.setFilename(filename);
+        return archive(request);
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<StreamingResponseBody> archive(@RequestBody ArchiveRequest request) {
+        List<Document> documents = archiveService.resolve(request);
+
+        String filename = request.getFilename() != null && !request.getFilename().isBlank()
+                ? request.getFilename()
+                : (request.getPartId() != null ? request.getPartId() : "documents");
+        if (!filename.toLowerCase().endsWith(".zip")) {
+            filename += ".zip";
+        }
+        String encodedFilename = java.net.URLEncoder.encode(filename, StandardCharsets.UTF_8).replace("+", "%20");
+
+        // No Content-Length: the size is only known once the last entry is written
+        StreamingResponseBody body = out -> archiveService.write(documents, out);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + encodedFilename)
-                .contentType(contentType)
-                .body(data);
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Send an opened file (or file range starting at {@code start}). Local files go out through
+     * the container's sendfile when available; everything else is streamed by the converter in
+     * small chunks, which also closes the stream.
+     */
+    private ResponseEntity<Resource> fileResponse(HttpStatus status, HttpHeaders headers, MediaType contentType,
+                                                  FileDownload download, long start, HttpServletRequest request)
+            throws IOException {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(contentType);
+        if (download.getContentLength() >= 0) {
+            response.contentLength(download.getContentLength());
+        }
+
+        if (download.getLocalPath() != null && download.getContentLength() >= 0
+                && TomcatSendfile.isAvailable(request)) {
+            download.close();
+            TomcatSendfile.send(request, download.getLocalPath(), start, download.getContentLength());
+            return response.build();
+        }
+        return response.body(new InputStreamResource(download.getStream()));
+    }
+
+    private InputStream openRange(String fileKey, long offset, long length) throws IOException {
+        FileDownload download = fileStorageGateway.download(fileKey, offset, length);
+        if (download == null) {
+            throw new FileNotFoundException("File not found in any storage: " + fileKey);
+        }
+        return download.getStream();
+    }
+
+    /**
+     * Strong validator for the stored file: changes whenever a new file is attached
+     */
+    private String fileETag(Document document) {
+        String version = document.getFileKey() + ":" + document.getFileSize() + ":" + document.getFileUploadedAt();
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Small thumbnail image of the document's file (PDF first page or image)
+     */
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<byte[]> thumbnail(@PathVariable String id) {
+        Document document = documentService.getById(id);
+        if (document.getFileKey() == null || document.getFileKey().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return previewResponse(previewService.getThumbnail(document.getFileKey()));
+    }
+
+    /**
+     * Larger first-page preview image of the document's file
+     */
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<byte[]> preview(@PathVariable String id) {
+        Document document = documentService.getById(id);
+        if (document.getFileKey() == null || document.getFileKey().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return previewResponse(previewService.getPreview(document.getFileKey()));
+    }
+
+    private ResponseEntity<byte[]> previewResponse(byte[] image) {
+        if (image == null) {
+            // Not previewable, or still being generated
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)))
+                .body(image);
     }
 
     @PostMapping("/search")
@@ -219,12 +502,14 @@ public class DocumentController {
         return searchResult;
     }
 
+    /**
+     * Documents waiting for this reviewer, newest assignment first
+     */
     @GetMapping("/pending-reviews/{reviewerId}")
-    public List<DocumentResponse> getPendingReviewsForUser(@PathVariable String reviewerId) {
-        List<Document> documents = documentService.getAllDocuments();
-        List<Document> pendingReviews = documents.stream()
-                .filter(doc -> "IN_REVIEW".equals(doc.getStatus().name()))
-                .collect(Collectors.toList());
+    public List<DocumentResponse> getPendingReviewsForUser(@PathVariable String reviewerId,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "50") int size) {
+        List<Document> pendingReviews = documentService.getPendingReviews(reviewerId, page, size);
 
         return pendingReviews.stream()
                         .map(DocumentMapper::toResponse)
@@ -255,14 +540,10 @@ public class DocumentController {
             return ResponseEntity.notFound().build();
         }
 
-        boolean deleted = fileStorageGateway.delete(document.getFileKey());
-        if (deleted) {
-            // Clear file metadata in document
-            documentService.clearFileMetadata(id);
-            return ResponseEntity.ok("File deleted successfully");
-        } else {
-            return ResponseEntity.status(500).body("Failed to delete file");
-        }
+        // Clearing the metadata releases the file; storage is cleaned up once
+        // no other document version references it
+        documentService.clearFileMetadata(id);
+        return ResponseEntity.ok("File deleted successfully");
     }
 
     /**
@@ -281,7 +562,9 @@ public class DocumentController {
         fileInfo.put("originalFilename", document.getOriginalFilename());
         fileInfo.put("contentType", document.getContentType());
         fileInfo.put("fileSize", document.getFileSize());
-        fileInfo.put("storageLocation", document.getStorageLocation());
+        // Current tier from the location index; the document column records where it was first written
+        String location = fileStorageGateway.locate(document.getFileKey());
+        fileInfo.put("storageLocation", location != null ? location : document.getStorageLocation());
         fileInfo.put("uploadedAt", document.getFileUploadedAt());
         
         // Check if file actually exists in storage
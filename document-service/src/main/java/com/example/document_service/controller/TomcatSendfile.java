@@ -0,0 +1,45 @@
+package com.example.document_service.controller;
+
+import java.nio.file.Path;
+
+import org.springframework.http.HttpHeaders;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Zero-copy serving of local files through Tomcat's sendfile support.
+ *
+ * When the connector supports it, setting these request attributes makes Tomcat send the
+ * file region straight from the page cache to the socket after the controller returns
+ * (the same mechanism its DefaultServlet uses for static files). The controller only
+ * writes headers; no file bytes pass through the JVM heap.
+ */
+final class TomcatSendfile {
+
+    private static final String SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private TomcatSendfile() {
+    }
+
+    /**
+     * Whether this request can be answered with sendfile. Conditional GETs are excluded,
+     * because Spring may turn them into a 304 after the file region has been registered.
+     */
+    static boolean isAvailable(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SUPPORT_ATTR))
+                && request.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null;
+    }
+
+    /**
+     * Register {@code length} bytes of {@code file} starting at {@code start} as the response body
+     */
+    static void send(HttpServletRequest request, Path file, long start, long length) {
+        request.setAttribute(FILENAME_ATTR, file.toAbsolutePath().toString());
+        request.setAttribute(START_ATTR, Long.valueOf(start));
+        request.setAttribute(END_ATTR, Long.valueOf(start + length));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.document_service.dto.request;
+
+import java.util.List;
+
+/**
+ * Documents to download as one zip: explicit ids, every document of a part's BOM tree, or both
+ */
+public class ArchiveRequest {
+    private List<String> documentIds;
+    private String partId;
+    private String filename;
+
+    public ArchiveRequest() {
+    }
+
+    public List<String> getDocumentIds() {
+        return documentIds;
+    }
+
+    public void setDocumentIds(List<String> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public String getPartId() {
+        return partId;
+    }
+
+    public void setPartId(String partId) {
+        this.partId = partId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.document_service.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifest of a bulk ingest: one entry per document to create
+ */
+public class BulkIngestRequest {
+    private String user;
+    private List<Item> items = new ArrayList<>();
+
+    public BulkIngestRequest() {
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * A document to create, optionally with the name of its file among the uploaded
+     * parts or the entries of the uploaded zip
+     */
+    public static class Item extends CreateDocumentRequest {
+        private String file;
+
+        public Item() {
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.document_service.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResponse {
+    private int total;
+    private int created;
+    private int failed;
+    private List<ItemResult> items = new ArrayList<>();
+
+    public BulkIngestResponse() {
+    }
+
+    public BulkIngestResponse(List<ItemResult> items) {
+        this.items = items;
+        this.total = items.size();
+        this.created = (int) items.stream().filter(ItemResult::succeeded).count();
+        this.failed = total - created;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ItemResult> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ItemResult> items) {
+        this.items = items;
+    }
+
+    /**
+     * Outcome of one manifest entry, in manifest order
+     */
+    public static class ItemResult {
+        public static final String CREATED = "CREATED";
+        public static final String FAILED = "FAILED";
+
+        private int index;
+        private String title;
+        private String file;
+        private String status;
+        private String documentId;
+        private String masterId;
+        private String fileKey;
+        private String error;
+
+        public ItemResult() {
+        }
+
+        public ItemResult(int index, String title, String file) {
+            this.index = index;
+            this.title = title;
+            this.file = file;
+        }
+
+        public boolean succeeded() {
+            return CREATED.equals(status);
+        }
+
+        public void fail(String error) {
+            this.status = FAILED;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        public void setDocumentId(String documentId) {
+            this.documentId = documentId;
+        }
+
+        public String getMasterId() {
+            return masterId;
+        }
+
+        public void setMasterId(String masterId) {
+            this.masterId = masterId;
+        }
+
+        public String getFileKey() {
+            return fileKey;
+        }
+
+        public void setFileKey(String fileKey) {
+            this.fileKey = fileKey;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.document_service.dto.response;
+
+import java.time.Instant;
+
+/**
+ * Where to PUT a file directly; the client reports {@code fileKey} back once the PUT succeeded
+ */
+public class DirectUploadResponse {
+    private String fileKey;
+    private String url;
+    private String method;
+    private Instant expiresAt;
+
+    public DirectUploadResponse() {
+    }
+
+    public DirectUploadResponse(String fileKey, String url, String method, Instant expiresAt) {
+        this.fileKey = fileKey;
+        this.url = url;
+        this.method = method;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public void setFileKey(String fileKey) {
+        this.fileKey = fileKey;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.document_service.elasticsearch;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 import org.springframework.data.elasticsearch.annotations.DateFormat;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Elasticsearch document model for searching documents
@@ -20,6 +25,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Document(indexName = "documents")
 public class DocumentSearchDocument {
+
+    public static final String CONTENT = "content";
+    public static final String CONTENT_FILE_KEY = "contentFileKey";
     
     @Id
     private String id;
@@ -66,6 +74,20 @@ public class DocumentSearchDocument {
     @Field(type = FieldType.Boolean)
     private Boolean isActive;
     
+    // Text extracted from the attached file, as size-bounded chunks; written separately
+    // by DocumentContentService and left untouched when the metadata is re-indexed
+    @Field(type = FieldType.Text, analyzer = "standard")
+    private List<String> content;
+    
+    // File key the content was extracted from
+    @Field(type = FieldType.Keyword)
+    private String contentFileKey;
+    
+    // Type-ahead input (title and document number) for the search-service suggest endpoint;
+    // standard analysis keeps the digits of numbers like "DOC-10005"
+    @CompletionField(analyzer = "standard", searchAnalyzer = "standard", maxInputLength = 100)
+    private Completion suggest;
+    
     /**
      * Utility method to map from Document entity to search document
      */
@@ -88,6 +110,12 @@ public class DocumentSearchDocument {
         // Use fileUploadedAt as updateTime (or could use createTime)
         searchDoc.setUpdateTime(doc.getFileUploadedAt() != null ? doc.getFileUploadedAt() : doc.getCreateTime());
         searchDoc.setIsActive(doc.isActive());
+        String[] suggestInput = Stream.of(searchDoc.getTitle(), searchDoc.getDocumentNumber())
+            .filter(Objects::nonNull)
+            .toArray(String[]::new);
+        if (suggestInput.length > 0) {
+            searchDoc.setSuggest(new Completion(suggestInput));
+        }
         return searchDoc;
     }
 }
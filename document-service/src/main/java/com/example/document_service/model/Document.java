@@ -11,13 +11,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
 @Entity
-@Table(name = "Document")
+@Table(name = "Document", indexes = {
+        @Index(name = "idx_document_file_key", columnList = "fileKey")
+})
 public class Document {
     @Id
     private String id;
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "DocumentHistory")
+@Table(name = "DocumentHistory", indexes = {
+        // History is always read newest-first per document; id breaks timestamp ties for keyset paging
+        @Index(name = "idx_history_document_time", columnList = "documentId, timestamp, id")
+})
 public class DocumentHistory {
 
     @Id
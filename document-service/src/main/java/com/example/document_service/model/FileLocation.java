@@ -0,0 +1,53 @@
+package com.example.document_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Which storage backend currently holds a file key. Reads resolve through this row instead of
+ * probing every backend; the tier mover rewrites it when a file moves between backends.
+ * {@code lastAccessedAt} is refreshed at most once per touch interval, not on every read.
+ */
+@Entity
+@Table(name = "FileLocation", indexes = {
+        @Index(name = "idx_location_backend_access", columnList = "backend, lastAccessedAt")
+})
+public class FileLocation {
+
+    @Id
+    private String fileKey;
+
+    @Column(nullable = false, length = 32)
+    private String backend;
+
+    private long size;
+    private LocalDateTime storedAt = LocalDateTime.now();
+    private LocalDateTime lastAccessedAt = LocalDateTime.now();
+
+    public FileLocation() {}
+
+    public FileLocation(String fileKey, String backend, long size) {
+        this.fileKey = fileKey;
+        this.backend = backend;
+        this.size = size;
+    }
+
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+
+    public String getBackend() { return backend; }
+    public void setBackend(String backend) { this.backend = backend; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public LocalDateTime getStoredAt() { return storedAt; }
+    public void setStoredAt(LocalDateTime storedAt) { this.storedAt = storedAt; }
+
+    public LocalDateTime getLastAccessedAt() { return lastAccessedAt; }
+    public void setLastAccessedAt(LocalDateTime lastAccessedAt) { this.lastAccessedAt = lastAccessedAt; }
+}
@@ -0,0 +1,74 @@
+package com.example.document_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * How far the orphaned-file sweep of one storage backend has got. {@code position} is the
+ * listing position to continue after; it is null before the first page of a pass. The lease
+ * ({@code leaseOwner} until {@code leaseUntil}) keeps two instances from sweeping the same
+ * backend at once.
+ */
+@Entity
+@Table(name = "FileSweepCheckpoint")
+public class FileSweepCheckpoint {
+
+    @Id
+    @Column(length = 32)
+    private String backend;
+
+    @Column(length = 1024)
+    private String position;
+
+    private LocalDateTime passStartedAt;
+    private LocalDateTime lastPassCompletedAt;
+    private long scannedInPass;
+    private long deletedInPass;
+    private long deletedTotal;
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+
+    public FileSweepCheckpoint() {}
+
+    public FileSweepCheckpoint(String backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Whether a pass has started and not finished yet
+     */
+    public boolean inPass() {
+        return passStartedAt != null
+                && (lastPassCompletedAt == null || passStartedAt.isAfter(lastPassCompletedAt));
+    }
+
+    public String getBackend() { return backend; }
+    public void setBackend(String backend) { this.backend = backend; }
+
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; }
+
+    public LocalDateTime getPassStartedAt() { return passStartedAt; }
+    public void setPassStartedAt(LocalDateTime passStartedAt) { this.passStartedAt = passStartedAt; }
+
+    public LocalDateTime getLastPassCompletedAt() { return lastPassCompletedAt; }
+    public void setLastPassCompletedAt(LocalDateTime lastPassCompletedAt) { this.lastPassCompletedAt = lastPassCompletedAt; }
+
+    public long getScannedInPass() { return scannedInPass; }
+    public void setScannedInPass(long scannedInPass) { this.scannedInPass = scannedInPass; }
+
+    public long getDeletedInPass() { return deletedInPass; }
+    public void setDeletedInPass(long deletedInPass) { this.deletedInPass = deletedInPass; }
+
+    public long getDeletedTotal() { return deletedTotal; }
+    public void setDeletedTotal(long deletedTotal) { this.deletedTotal = deletedTotal; }
+
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+}
@@ -0,0 +1,31 @@
+package com.example.document_service.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A named counter from which instances reserve blocks of numbers.
+ * {@code nextValue} is the first number not yet handed out to any instance.
+ */
+@Entity
+@Table(name = "IdSequence")
+public class IdSequence {
+
+    @Id
+    private String name;
+    private long nextValue;
+
+    public IdSequence() {}
+
+    public IdSequence(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+}
@@ -0,0 +1,61 @@
+package com.example.document_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+/**
+ * A reviewer's open review of a document. Rows are written when the document is submitted
+ * for review and removed when the review completes, so a reviewer's rows are their inbox.
+ * A reviewer has at most one row per document, whatever roles they review it in.
+ */
+@Entity
+@Table(name = "ReviewAssignment", indexes = {
+        @Index(name = "idx_review_reviewer_time", columnList = "reviewerId, assignedAt"),
+        @Index(name = "idx_review_document", columnList = "documentId")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_review_document_reviewer",
+        columnNames = {"documentId", "reviewerId"}))
+public class ReviewAssignment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String documentId;
+
+    @Column(nullable = false)
+    private String reviewerId;
+
+    private String role;  // REVIEWER, INITIAL or TECHNICAL; the first one if several
+    private LocalDateTime assignedAt = LocalDateTime.now();
+
+    public ReviewAssignment() {}
+
+    public ReviewAssignment(String documentId, String reviewerId, String role) {
+        this.documentId = documentId;
+        this.reviewerId = reviewerId;
+        this.role = role;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDocumentId() { return documentId; }
+    public void setDocumentId(String documentId) { this.documentId = documentId; }
+
+    public String getReviewerId() { return reviewerId; }
+    public void setReviewerId(String reviewerId) { this.reviewerId = reviewerId; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public LocalDateTime getAssignedAt() { return assignedAt; }
+    public void setAssignedAt(LocalDateTime assignedAt) { this.assignedAt = assignedAt; }
+}
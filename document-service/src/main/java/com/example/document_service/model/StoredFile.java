@@ -0,0 +1,48 @@
+package com.example.document_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A file stored once under its content hash and shared by every document version
+ * that points at it. {@code refCount} is the number of document rows holding its key;
+ * the object is removed from storage when it drops to zero.
+ */
+@Entity
+@Table(name = "StoredFile")
+public class StoredFile {
+
+    @Id
+    private String fileKey;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    private long size;
+    private String contentType;
+    private int refCount;
+    private LocalDateTime createTime = LocalDateTime.now();
+
+    public StoredFile() {}
+
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+
+    public LocalDateTime getCreateTime() { return createTime; }
+    public void setCreateTime(LocalDateTime createTime) { this.createTime = createTime; }
+}
@@ -1,10 +1,40 @@
 package com.example.document_service.repository;
 
 import com.example.document_service.model.DocumentHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * History pages are read with keyset pagination on (documentId, timestamp, id), so deep
+ * pages cost the same as the first one instead of scanning past an OFFSET.
+ */
 @org.springframework.stereotype.Repository
 public interface DocumentHistoryRepository extends JpaRepository<DocumentHistory, Long> {
-    List<DocumentHistory> findByDocumentIdOrderByTimestampDesc(String documentId);
+
+    @Query("select h from DocumentHistory h where h.documentId = :documentId " +
+           "order by h.timestamp desc, h.id desc")
+    List<DocumentHistory> findFirstPage(@Param("documentId") String documentId, Limit limit);
+
+    @Query("select h from DocumentHistory h where h.documentId = :documentId " +
+           "and (h.timestamp < :timestamp or (h.timestamp = :timestamp and h.id < :id)) " +
+           "order by h.timestamp desc, h.id desc")
+    List<DocumentHistory> findPageBefore(@Param("documentId") String documentId,
+                                         @Param("timestamp") LocalDateTime timestamp,
+                                         @Param("id") Long id,
+                                         Limit limit);
+
+    DocumentHistory findFirstByDocumentIdAndActionOrderByTimestampDescIdDesc(String documentId, String action);
+
+    // Single DELETE statement; rows are never loaded into the persistence context
+    @Transactional
+    @Modifying
+    @Query("delete from DocumentHistory h where h.documentId = :documentId")
+    int deleteAllByDocumentIdInBulk(@Param("documentId") String documentId);
 }
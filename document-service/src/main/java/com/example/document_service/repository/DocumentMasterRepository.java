@@ -2,6 +2,15 @@ package com.example.document_service.repository;
 
 import com.example.document_service.model.DocumentMaster;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 @org.springframework.stereotype.Repository
-public interface DocumentMasterRepository extends JpaRepository<DocumentMaster, String> {}
+public interface DocumentMasterRepository extends JpaRepository<DocumentMaster, String> {
+
+    @Query("select m.id from DocumentMaster m where m.id in :ids")
+    List<String> findIdsIn(@Param("ids") Collection<String> ids);
+}
@@ -1,7 +1,11 @@
 package com.example.document_service.repository;
 
 import com.example.document_service.model.Document;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 @org.springframework.stereotype.Repository
@@ -10,4 +14,15 @@ public interface DocumentRepository extends JpaRepository<Document, String> {
     List<Document> findByMaster_IdOrderByRevisionDescVersionDesc(String masterId);
     List<Document> findByIsActiveTrue();
     Document findByMaster_IdAndIsActiveTrue(String masterId);
+    long countByFileKey(String fileKey);
+
+    // Keyset page of all documents in id order
+    List<Document> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Whether this document still points at this file
+    boolean existsByIdAndFileKey(String id, String fileKey);
+
+    // Which of these keys any document version still points at
+    @Query("select distinct d.fileKey from Document d where d.fileKey in :fileKeys")
+    List<String> findFileKeysIn(@Param("fileKeys") Collection<String> fileKeys);
 }
@@ -0,0 +1,56 @@
+package com.example.document_service.repository;
+
+import com.example.document_service.model.FileLocation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Location changes are conditional single-row UPDATEs, so a mover and a concurrent
+ * read or re-upload never overwrite each other's view of where a file is.
+ */
+@org.springframework.stereotype.Repository
+public interface FileLocationRepository extends JpaRepository<FileLocation, String> {
+
+    /**
+     * Least recently read files on a backend, oldest first; served by (backend, lastAccessedAt)
+     */
+    List<FileLocation> findByBackendAndLastAccessedAtBeforeOrderByLastAccessedAtAsc(String backend,
+                                                                                     LocalDateTime before,
+                                                                                     Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update FileLocation l set l.lastAccessedAt = :now where l.fileKey = :fileKey and l.lastAccessedAt < :staleBefore")
+    int touch(@Param("fileKey") String fileKey, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Move to {@code to} only if the file is still on {@code from} and hasn't been read since {@code notReadSince}
+     */
+    @Transactional
+    @Modifying
+    @Query("update FileLocation l set l.backend = :to where l.fileKey = :fileKey and l.backend = :from " +
+           "and l.lastAccessedAt < :notReadSince")
+    int moveIfIdle(@Param("fileKey") String fileKey, @Param("from") String from, @Param("to") String to,
+                   @Param("notReadSince") LocalDateTime notReadSince);
+
+    @Transactional
+    @Modifying
+    @Query("update FileLocation l set l.backend = :to where l.fileKey = :fileKey and l.backend = :from")
+    int move(@Param("fileKey") String fileKey, @Param("from") String from, @Param("to") String to);
+
+    /**
+     * Forget the location only if it still points at {@code backend}
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from FileLocation l where l.fileKey = :fileKey and l.backend = :backend")
+    int deleteIfOn(@Param("fileKey") String fileKey, @Param("backend") String backend);
+}
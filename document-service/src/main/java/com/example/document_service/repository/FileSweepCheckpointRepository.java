@@ -0,0 +1,33 @@
+package com.example.document_service.repository;
+
+import com.example.document_service.model.FileSweepCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * The sweep lease is taken and given back with conditional UPDATEs, so only one
+ * instance at a time holds it.
+ */
+@org.springframework.stereotype.Repository
+public interface FileSweepCheckpointRepository extends JpaRepository<FileSweepCheckpoint, String> {
+
+    /**
+     * Take the lease if it is free, expired or already ours; returns 1 if we hold it now
+     */
+    @Transactional
+    @Modifying
+    @Query("update FileSweepCheckpoint c set c.leaseOwner = :owner, c.leaseUntil = :until " +
+           "where c.backend = :backend and (c.leaseUntil is null or c.leaseUntil < :now or c.leaseOwner = :owner)")
+    int claim(@Param("backend") String backend, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("update FileSweepCheckpoint c set c.leaseUntil = null where c.backend = :backend and c.leaseOwner = :owner")
+    int release(@Param("backend") String backend, @Param("owner") String owner);
+}
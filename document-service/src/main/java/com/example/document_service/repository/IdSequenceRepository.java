@@ -0,0 +1,19 @@
+package com.example.document_service.repository;
+
+import com.example.document_service.model.IdSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+@org.springframework.stereotype.Repository
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    // SELECT ... FOR UPDATE: instances reserving from the same sequence queue up on the row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from IdSequence s where s.name = :name")
+    Optional<IdSequence> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,38 @@
+package com.example.document_service.repository;
+
+import com.example.document_service.model.ReviewAssignment;
+import com.example.plm.common.model.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@org.springframework.stereotype.Repository
+public interface ReviewAssignmentRepository extends JpaRepository<ReviewAssignment, Long> {
+
+    /**
+     * Ids of a reviewer's inbox documents, newest assignment first, each document once even
+     * if rows from before the unique constraint repeat it. Driven by the (reviewerId,
+     * assignedAt) index, so the cost follows the inbox size rather than the number of documents.
+     */
+    @Query("select d.id from ReviewAssignment a join Document d on d.id = a.documentId " +
+           "where a.reviewerId = :reviewerId and d.status = :status " +
+           "group by d.id order by max(a.assignedAt) desc, max(a.id) desc")
+    List<String> findDocumentIdsForReviewer(@Param("reviewerId") String reviewerId,
+                                            @Param("status") Status status,
+                                            Pageable pageable);
+
+    // Documents in this status that no reviewer has an assignment for
+    @Query("select d.id from Document d where d.status = :status and not exists " +
+           "(select a.id from ReviewAssignment a where a.documentId = d.id)")
+    List<String> findUnassignedDocumentIds(@Param("status") Status status);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ReviewAssignment a where a.documentId = :documentId")
+    int deleteByDocumentIdInBulk(@Param("documentId") String documentId);
+}
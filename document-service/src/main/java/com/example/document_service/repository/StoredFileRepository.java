@@ -0,0 +1,48 @@
+package com.example.document_service.repository;
+
+import com.example.document_service.model.StoredFile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference counts are changed with single UPDATE statements so concurrent
+ * uploads and deletes never lose an increment.
+ */
+@org.springframework.stereotype.Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update StoredFile f set f.refCount = f.refCount + 1 where f.fileKey = :fileKey")
+    int incrementRefCount(@Param("fileKey") String fileKey);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredFile f set f.refCount = f.refCount - 1 where f.fileKey = :fileKey and f.refCount > 0")
+    int decrementRefCount(@Param("fileKey") String fileKey);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StoredFile f where f.fileKey = :fileKey and f.refCount = 0")
+    int deleteIfUnreferenced(@Param("fileKey") String fileKey);
+
+    @Query("select count(f) > 0 from StoredFile f where f.fileKey = :fileKey and f.refCount = 0")
+    boolean isUnreferenced(@Param("fileKey") String fileKey);
+
+    // SELECT ... FOR UPDATE: reference count changes on the row wait until the lock is released
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from StoredFile f where f.fileKey = :fileKey")
+    Optional<StoredFile> findForUpdate(@Param("fileKey") String fileKey);
+
+    @Query("select f.fileKey from StoredFile f where f.fileKey in :fileKeys")
+    List<String> findFileKeysIn(@Param("fileKeys") Collection<String> fileKeys);
+}
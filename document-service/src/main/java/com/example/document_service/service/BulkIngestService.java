@@ -0,0 +1,354 @@
+package com.example.document_service.service;
+
+import com.example.document_service.dto.request.BulkIngestRequest;
+import com.example.document_service.dto.response.BulkIngestResponse;
+import com.example.document_service.dto.response.BulkIngestResponse.ItemResult;
+import com.example.document_service.exception.ValidationException;
+import com.example.document_service.model.Document;
+import com.example.document_service.model.DocumentMaster;
+import com.example.document_service.model.StoredFile;
+import com.example.document_service.repository.DocumentMasterRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Creates many documents with their files in one request (supplier data packages).
+ *
+ * Files arrive as multipart parts or as entries of one zip and are matched to manifest
+ * items by name. They are stored in parallel on a fixed-size pool while the zip is still
+ * being read; a zip entry is spooled to disk only when a worker is about to need it, so at
+ * most a few entries sit on disk at once. The documents are then inserted in JDBC batches
+ * in a single transaction and synced to the graph and search index in bulk.
+ *
+ * Items that fail validation or whose file can't be stored are reported individually and
+ * do not stop the others.
+ */
+@Service
+@Slf4j
+public class BulkIngestService {
+
+    private final DocumentService documentService;
+    private final StoredFileService storedFileService;
+    private final PreviewService previewService;
+    private final DocumentMasterRepository masterRepo;
+    private final ExecutorService uploadPool;
+    private final int uploadConcurrency;
+    private final int maxItems;
+
+    public BulkIngestService(DocumentService documentService,
+                             StoredFileService storedFileService,
+                             PreviewService previewService,
+                             DocumentMasterRepository masterRepo,
+                             @Value("${plm.bulk.upload-concurrency:4}") int uploadConcurrency,
+                             @Value("${plm.bulk.max-items:1000}") int maxItems) {
+        this.documentService = documentService;
+        this.storedFileService = storedFileService;
+        this.previewService = previewService;
+        this.masterRepo = masterRepo;
+        this.uploadConcurrency = Math.max(1, uploadConcurrency);
+        this.maxItems = maxItems;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.uploadPool = Executors.newFixedThreadPool(this.uploadConcurrency, r -> {
+            Thread thread = new Thread(r, "bulk-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkIngestResponse ingest(BulkIngestRequest manifest, List<MultipartFile> files, MultipartFile archive) {
+        List<BulkIngestRequest.Item> items = manifest != null ? manifest.getItems() : null;
+        if (items == null || items.isEmpty()) {
+            throw new ValidationException("Manifest must contain at least one item");
+        }
+        if (items.size() > maxItems) {
+            throw new ValidationException("Manifest has " + items.size() + " items; the limit is " + maxItems);
+        }
+        String user = manifest.getUser() != null ? manifest.getUser() : "SYSTEM";
+        long startTime = System.currentTimeMillis();
+
+        List<ItemResult> results = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            results.add(new ItemResult(i, items.get(i).getTitle(), items.get(i).getFile()));
+        }
+        validate(items, results);
+
+        // File name -> manifest items that want it; a file shared by several items is stored once
+        Map<String, List<Integer>> wanted = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String file = items.get(i).getFile();
+            if (results.get(i).getStatus() == null && file != null && !file.isBlank()) {
+                wanted.computeIfAbsent(file, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, CompletableFuture<StoredFile>> uploads = new HashMap<>();
+        Path spoolDir = null;
+        try {
+            if (files != null) {
+                for (MultipartFile file : files) {
+                    String name = file.getOriginalFilename();
+                    if (name != null && wanted.containsKey(name) && !uploads.containsKey(name)) {
+                        uploads.put(name, CompletableFuture.supplyAsync(() -> storedFileService.store(file), uploadPool));
+                    }
+                }
+            }
+            if (archive != null && !archive.isEmpty()) {
+                spoolDir = Files.createTempDirectory("bulk-ingest-");
+                readArchive(archive, wanted, uploads, spoolDir);
+            }
+
+            Map<Integer, StoredFile> storedByItem = collectUploads(wanted, uploads, results);
+            createDocuments(items, results, storedByItem, user);
+        } catch (IOException e) {
+            abandon(uploads);
+            throw new ValidationException("Failed to read uploaded archive: " + e.getMessage());
+        } finally {
+            deleteQuietly(spoolDir);
+        }
+
+        BulkIngestResponse response = new BulkIngestResponse(results);
+        log.info("📦 Bulk ingest: {} created, {} failed in {}ms",
+                response.getCreated(), response.getFailed(), System.currentTimeMillis() - startTime);
+        return response;
+    }
+
+    private void validate(List<BulkIngestRequest.Item> items, List<ItemResult> results) {
+        Set<String> masterIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkIngestRequest.Item item = items.get(i);
+            if (item.getTitle() == null || item.getTitle().trim().isEmpty()) {
+                results.get(i).fail("Title is required");
+            } else if (item.getCreator() == null || item.getCreator().trim().isEmpty()) {
+                results.get(i).fail("Creator is required");
+            } else if (item.getStage() == null) {
+                results.get(i).fail("Stage is required");
+            } else if (item.getMasterId() != null && !item.getMasterId().isBlank()
+                    && !masterIds.add(item.getMasterId().trim())) {
+                results.get(i).fail("Master ID '" + item.getMasterId().trim() + "' appears more than once in the manifest");
+            }
+        }
+
+        // One query for all requested master ids instead of one per item
+        Set<String> taken = new HashSet<>();
+        masterRepo.findAllById(masterIds).forEach(m -> taken.add(m.getId()));
+        for (int i = 0; i < items.size(); i++) {
+            String masterId = items.get(i).getMasterId();
+            if (results.get(i).getStatus() == null && masterId != null && taken.contains(masterId.trim())) {
+                results.get(i).fail("Master ID '" + masterId.trim() + "' is already in use");
+            }
+        }
+    }
+
+    /**
+     * Stream through the zip once; each wanted entry is spooled to disk and handed to the
+     * upload pool. The semaphore caps how many spooled entries wait for a worker.
+     */
+    private void readArchive(MultipartFile archive, Map<String, List<Integer>> wanted,
+                             Map<String, CompletableFuture<StoredFile>> uploads, Path spoolDir) throws IOException {
+        Semaphore inFlight = new Semaphore(uploadConcurrency * 2);
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = matchEntry(entry, wanted);
+                if (name == null || uploads.containsKey(name)) {
+                    continue;
+                }
+                inFlight.acquireUninterruptibly();
+                Path spooled = Files.createTempFile(spoolDir, "entry-", ".bin");
+                // Hash while spooling so the upload doesn't need another pass over the entry
+                DigestInputStream hashing = new DigestInputStream(zip, sha256Digest());
+                Files.copy(hashing, spooled, StandardCopyOption.REPLACE_EXISTING);
+                String sha256 = HexFormat.of().formatHex(hashing.getMessageDigest().digest());
+                PathMultipartFile file = new PathMultipartFile(spooled, name.substring(name.lastIndexOf('/') + 1));
+                uploads.put(name, CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return storedFileService.store(file, sha256);
+                    } finally {
+                        inFlight.release();
+                        deleteQuietly(spooled);
+                    }
+                }, uploadPool));
+            }
+        }
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Manifest names may be the full path inside the zip or just the file name
+    private String matchEntry(ZipEntry entry, Map<String, List<Integer>> wanted) {
+        if (entry.isDirectory()) {
+            return null;
+        }
+        String path = entry.getName();
+        if (wanted.containsKey(path)) {
+            return path;
+        }
+        String baseName = path.substring(path.lastIndexOf('/') + 1);
+        return wanted.containsKey(baseName) ? baseName : null;
+    }
+
+    /**
+     * Wait for all uploads. The first item using a file owns the reference taken when it was
+     * stored; every further item sharing it takes its own.
+     */
+    private Map<Integer, StoredFile> collectUploads(Map<String, List<Integer>> wanted,
+                                                    Map<String, CompletableFuture<StoredFile>> uploads,
+                                                    List<ItemResult> results) {
+        Map<Integer, StoredFile> storedByItem = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : wanted.entrySet()) {
+            CompletableFuture<StoredFile> upload = uploads.get(entry.getKey());
+            if (upload == null) {
+                entry.getValue().forEach(i -> results.get(i).fail("File not found in upload: " + entry.getKey()));
+                continue;
+            }
+            StoredFile stored;
+            try {
+                stored = upload.join();
+            } catch (CompletionException e) {
+                String error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                log.warn("⚠️ Bulk upload of {} failed: {}", entry.getKey(), error);
+                entry.getValue().forEach(i -> results.get(i).fail("File upload failed: " + error));
+                continue;
+            }
+            for (int n = 0; n < entry.getValue().size(); n++) {
+                if (n > 0) {
+                    storedFileService.retain(stored.getFileKey());
+                }
+                storedByItem.put(entry.getValue().get(n), stored);
+            }
+        }
+        return storedByItem;
+    }
+
+    // Let started uploads finish and give back the references they took
+    private void abandon(Map<String, CompletableFuture<StoredFile>> uploads) {
+        for (CompletableFuture<StoredFile> upload : uploads.values()) {
+            try {
+                storedFileService.release(upload.join().getFileKey());
+            } catch (CompletionException e) {
+                // nothing was stored
+            }
+        }
+    }
+
+    private void createDocuments(List<BulkIngestRequest.Item> items, List<ItemResult> results,
+                                 Map<Integer, StoredFile> storedByItem, String user) {
+        List<Integer> indexes = new ArrayList<>();
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results.get(i).getStatus() == null) {
+                indexes.add(i);
+                documents.add(toDocument(items.get(i), storedByItem.get(i)));
+            }
+        }
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        try {
+            documentService.createAll(documents, user);
+        } catch (RuntimeException e) {
+            // The whole batch rolled back; give back the file references it would have owned
+            log.error("❌ Bulk create of {} documents failed: {}", documents.size(), e.getMessage());
+            for (int i : indexes) {
+                results.get(i).fail("Document creation failed: " + e.getMessage());
+                StoredFile stored = storedByItem.get(i);
+                if (stored != null) {
+                    storedFileService.release(stored.getFileKey());
+                }
+            }
+            return;
+        }
+
+        for (int n = 0; n < indexes.size(); n++) {
+            Document d = documents.get(n);
+            ItemResult result = results.get(indexes.get(n));
+            result.setStatus(ItemResult.CREATED);
+            result.setDocumentId(d.getId());
+            result.setMasterId(d.getMaster().getId());
+            result.setFileKey(d.getFileKey());
+            if (d.getFileKey() != null) {
+                previewService.schedule(d.getFileKey(), d.getContentType(), d.getOriginalFilename());
+            }
+        }
+    }
+
+    private Document toDocument(BulkIngestRequest.Item item, StoredFile stored) {
+        DocumentMaster master = new DocumentMaster();
+        master.setId(item.getMasterId() != null && !item.getMasterId().isBlank() ? item.getMasterId().trim() : null);
+        master.setTitle(item.getTitle());
+        master.setCreator(item.getCreator());
+        master.setCategory(item.getCategory());
+
+        Document d = new Document();
+        d.setMaster(master);
+        d.setTitle(item.getTitle());
+        d.setDescription(item.getDescription());
+        d.setCreator(item.getCreator());
+        d.setStage(item.getStage());
+        d.setPartId(item.getPartId());
+        if (stored != null) {
+            String file = item.getFile();
+            d.setFileKey(stored.getFileKey());
+            d.setOriginalFilename(file.substring(file.lastIndexOf('/') + 1));
+            d.setContentType(stored.getContentType());
+            d.setFileSize(stored.getSize());
+            d.setFileUploadedAt(LocalDateTime.now());
+            d.setStorageLocation(storedFileService.locate(stored.getFileKey()));
+        }
+        return d;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            // best effort; temp files are cleaned up by the OS eventually
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadPool.shutdownNow();
+    }
+}
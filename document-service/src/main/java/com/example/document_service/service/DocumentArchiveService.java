@@ -0,0 +1,319 @@
+package com.example.document_service.service;
+
+import com.example.document_service.client.BomServiceClient;
+import com.example.document_service.dto.request.ArchiveRequest;
+import com.example.document_service.exception.NotFoundException;
+import com.example.document_service.exception.ValidationException;
+import com.example.document_service.model.Document;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.service.gateway.FileDownload;
+import com.example.document_service.service.gateway.FileStorageGateway;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the files of many documents (a list, or everything linked to a part's BOM tree)
+ * as one zip assembled on the fly.
+ *
+ * Entries are written in order straight from storage to the response; nothing is buffered
+ * beyond the copy buffer. While one entry is being copied, the next {@code prefetch} files are
+ * already being opened on a shared worker pool, so storage latency overlaps with the transfer.
+ * Files that can't be read are listed in a trailing {@code MISSING_FILES.txt}, because the
+ * response status is long gone by the time they are reached. The fetch timeout counts from
+ * when a worker starts the fetch, so time spent queued behind other archives doesn't count,
+ * and a fetch that finishes after it was given up closes its own stream.
+ */
+@Service
+@Slf4j
+public class DocumentArchiveService {
+
+    public static final String MISSING_FILES_ENTRY = "MISSING_FILES.txt";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final long QUEUED_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final DocumentRepository docRepo;
+    private final FileStorageGateway fileStorageGateway;
+    private final BomServiceClient bomServiceClient;
+    private final ThreadPoolExecutor fetchers;
+    private final int prefetch;
+    private final int maxDocuments;
+    private final int compressionLevel;
+    private final Duration fetchTimeout;
+
+    public DocumentArchiveService(DocumentRepository docRepo,
+                                  FileStorageGateway fileStorageGateway,
+                                  BomServiceClient bomServiceClient,
+                                  @Value("${plm.archive.fetch-threads:8}") int fetchThreads,
+                                  @Value("${plm.archive.prefetch:4}") int prefetch,
+                                  @Value("${plm.archive.max-documents:2000}") int maxDocuments,
+                                  @Value("${plm.archive.compression-level:1}") int compressionLevel,
+                                  @Value("${plm.archive.fetch-timeout:60s}") Duration fetchTimeout) {
+        this.docRepo = docRepo;
+        this.fileStorageGateway = fileStorageGateway;
+        this.bomServiceClient = bomServiceClient;
+        this.prefetch = Math.max(1, prefetch);
+        this.maxDocuments = maxDocuments;
+        this.compressionLevel = compressionLevel;
+        this.fetchTimeout = fetchTimeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchers = new ThreadPoolExecutor(fetchThreads, fetchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "archive-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.fetchers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Resolve and check the documents up front, so a bad request fails before any byte is sent.
+     * Documents without a file are skipped.
+     */
+    public List<Document> resolve(ArchiveRequest request) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (request.getDocumentIds() != null) {
+            ids.addAll(request.getDocumentIds());
+        }
+        if (request.getPartId() != null && !request.getPartId().isBlank()) {
+            ids.addAll(bomServiceClient.getDocumentsForPartTree(request.getPartId()));
+        }
+        if (ids.isEmpty()) {
+            throw new ValidationException("No documents to archive");
+        }
+        if (ids.size() > maxDocuments) {
+            throw new ValidationException("Too many documents for one archive: " + ids.size() + " (max " + maxDocuments + ")");
+        }
+
+        Map<String, Document> found = docRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        List<Document> documents = new ArrayList<>(found.size());
+        for (String id : ids) {
+            Document document = found.get(id);
+            if (document == null) {
+                // Explicitly requested ids must exist; BOM links to deleted documents are tolerated
+                if (request.getDocumentIds() != null && request.getDocumentIds().contains(id)) {
+                    throw new NotFoundException("Document not found: " + id);
+                }
+                continue;
+            }
+            if (document.getFileKey() != null && !document.getFileKey().isEmpty()) {
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Write the zip to {@code out}. A client that disconnects ends the write with an IOException;
+     * outstanding fetches are abandoned and their streams closed, now or when they complete.
+     */
+    public void write(List<Document> documents, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Map<String, Integer> usedNames = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        Deque<Fetch> window = new ArrayDeque<>();
+        Iterator<Document> pending = documents.iterator();
+        Deque<Document> inWindow = new ArrayDeque<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(compressionLevel);
+        try {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            while (pending.hasNext() || !window.isEmpty()) {
+                while (window.size() < prefetch && pending.hasNext()) {
+                    Document next = pending.next();
+                    Fetch fetch = new Fetch(next.getFileKey());
+                    fetchers.execute(fetch);
+                    window.add(fetch);
+                    inWindow.add(next);
+                }
+
+                Document document = inWindow.poll();
+                FileDownload download = await(window.poll(), document);
+                if (download == null) {
+                    missing.add(entryName(document, usedNames) + " (document " + document.getId() + ")");
+                    continue;
+                }
+                try (FileDownload file = download; InputStream in = file.getStream()) {
+                    ZipEntry entry = new ZipEntry(entryName(document, usedNames));
+                    if (document.getFileUploadedAt() != null) {
+                        entry.setTimeLocal(document.getFileUploadedAt());
+                    }
+                    zip.putNextEntry(entry);
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, n);
+                    }
+                    zip.closeEntry();
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(MISSING_FILES_ENTRY));
+                zip.write(("Files that could not be read from storage:\n" + String.join("\n", missing) + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            log.info("📦 Archive of {} documents streamed in {}ms ({} missing)",
+                    documents.size(), System.currentTimeMillis() - startTime, missing.size());
+        } finally {
+            // Aborted mid-way: don't leave prefetched streams (and their connections) open
+            window.forEach(Fetch::abandon);
+        }
+    }
+
+    /**
+     * Wait for a fetch: as long as it is queued, then up to the fetch timeout once it runs
+     */
+    private FileDownload await(Fetch fetch, Document document) {
+        long timeoutNanos = fetchTimeout.toNanos();
+        try {
+            while (true) {
+                long startedAt = fetch.startedAt;
+                long waitNanos = startedAt == 0
+                        ? QUEUED_POLL_NANOS
+                        : startedAt + timeoutNanos - System.nanoTime();
+                if (waitNanos <= 0) {
+                    throw new TimeoutException("no response within " + fetchTimeout);
+                }
+                try {
+                    return fetch.result.get(waitNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Check again: still queued, or started and now over time
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fetch.abandon();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            fetch.abandon();
+            String reason = e instanceof ExecutionException ? e.getCause().getMessage() : e.getMessage();
+            log.warn("⚠️ Archive entry for document {} not readable: {}", document.getId(), reason);
+            return null;
+        }
+    }
+
+    /**
+     * One prefetched download. Once abandoned, it is skipped if still queued, and a download
+     * that completes afterwards is closed instead of handed over.
+     */
+    private final class Fetch implements Runnable {
+
+        private final String fileKey;
+        private final CompletableFuture<FileDownload> result = new CompletableFuture<>();
+        // System.nanoTime() when a worker picked it up; 0 while queued
+        private volatile long startedAt;
+        private boolean abandoned;  // guarded by this
+
+        Fetch(String fileKey) {
+            this.fileKey = fileKey;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (abandoned) {
+                    return;
+                }
+            }
+            startedAt = System.nanoTime();
+            FileDownload download;
+            try {
+                download = fileStorageGateway.download(fileKey);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            synchronized (this) {
+                if (abandoned) {
+                    closeQuietly(download);
+                } else {
+                    result.complete(download);
+                }
+            }
+        }
+
+        synchronized void abandon() {
+            abandoned = true;
+            if (result.isDone() && !result.isCompletedExceptionally()) {
+                closeQuietly(result.getNow(null));
+            }
+        }
+    }
+
+    private static void closeQuietly(FileDownload download) {
+        if (download == null) {
+            return;
+        }
+        try {
+            download.close();
+        } catch (Exception e) {
+            // nothing more to release
+        }
+    }
+
+    /**
+     * The original filename, made unique within the archive ("a.pdf", "a (2).pdf", ...)
+     */
+    private String entryName(Document document, Map<String, Integer> usedNames) {
+        String name = document.getOriginalFilename();
+        if (name == null || name.isBlank()) {
+            name = document.getTitle() != null && !document.getTitle().isBlank() ? document.getTitle() : document.getId();
+        }
+        name = name.replace('\\', '_').replace('/', '_');
+
+        // Per name in use: the last number tried for it, so repeats don't start over at (2)
+        Integer count = usedNames.putIfAbsent(name.toLowerCase(), 1);
+        if (count == null) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String unique;
+        do {
+            count++;
+            unique = dot > 0
+                    ? name.substring(0, dot) + " (" + count + ")" + name.substring(dot)
+                    : name + " (" + count + ")";
+        } while (usedNames.containsKey(unique.toLowerCase()));  // e.g. a file really named "a (2).pdf"
+        usedNames.put(name.toLowerCase(), count);
+        usedNames.put(unique.toLowerCase(), 1);
+        return unique;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchers.shutdownNow();
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.Document;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.service.gateway.FileDownload;
+import com.example.document_service.service.gateway.FileStorageGateway;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full-text extraction of attached files into the {@code documents} search index.
+ *
+ * Extraction runs on a small worker pool fed from a bounded queue, after the transaction that
+ * attached the file commits. When the queue is full a single attach waits up to
+ * {@code enqueue-timeout} for room (backpressure); batches never wait. A job that doesn't fit
+ * is left to the catch-up sweep, which walks all documents every {@code sweep-interval} and
+ * schedules those whose indexed content didn't come from their current file.
+ *
+ * Jobs are per (document, file key), so a file replaced while the old one is still queued gets
+ * its own job, and a job only writes to the index if the document still points at its key.
+ * Work is incremental per file key: a document whose indexed content already came from its
+ * current key is skipped, and the extracted text is stored next to the file as
+ * {@code <fileKey>.content.txt}, so other versions sharing the file are indexed without
+ * parsing it again. Text is indexed as chunks of at most {@code chunk-chars} characters, up
+ * to {@code max-chunks} per document.
+ */
+@Service
+@Slf4j
+public class DocumentContentService {
+
+    private static final String TEXT_TYPE = "text/plain";
+
+    private final FileStorageGateway fileStorageGateway;
+    private final DocumentSearchService documentSearchService;
+    private final DocumentRepository docRepo;
+    private final ThreadPoolExecutor workers;
+    private final long enqueueTimeoutMs;
+    private final int sweepBatchSize;
+    private final int chunkChars;
+    private final int maxChunks;
+    private final long maxSourceBytes;
+
+    // Jobs queued or being extracted
+    private final Set<Job> pending = ConcurrentHashMap.newKeySet();
+    // Last document id the catch-up sweep got through; "" starts a new pass. Sweep thread only
+    private String sweptUpTo = "";
+
+    public DocumentContentService(FileStorageGateway fileStorageGateway,
+                                  DocumentSearchService documentSearchService,
+                                  DocumentRepository docRepo,
+                                  @Value("${plm.content.workers:2}") int workerCount,
+                                  @Value("${plm.content.queue-capacity:500}") int queueCapacity,
+                                  @Value("${plm.content.enqueue-timeout-ms:2000}") long enqueueTimeoutMs,
+                                  @Value("${plm.content.chunk-chars:8000}") int chunkChars,
+                                  @Value("${plm.content.max-chunks:64}") int maxChunks,
+                                  @Value("${plm.content.max-source-bytes:104857600}") long maxSourceBytes,
+                                  @Value("${plm.content.sweep-batch-size:500}") int sweepBatchSize) {
+        this.fileStorageGateway = fileStorageGateway;
+        this.documentSearchService = documentSearchService;
+        this.docRepo = docRepo;
+        this.chunkChars = Math.max(100, chunkChars);
+        this.maxChunks = Math.max(1, maxChunks);
+        this.maxSourceBytes = maxSourceBytes;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.sweepBatchSize = Math.max(1, sweepBatchSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread thread = new Thread(r, "content-extract-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    public static String textKey(String fileKey) {
+        return fileKey + ".content.txt";
+    }
+
+    /**
+     * Bring the indexed content of a document in line with its current file, once the
+     * surrounding transaction (if any) has committed
+     */
+    public void schedule(Document document) {
+        scheduleAll(List.of(document), true);
+    }
+
+    /**
+     * {@link #schedule} for a batch, e.g. a bulk ingest. Never waits for room in the queue:
+     * documents that don't fit are picked up by the catch-up sweep.
+     */
+    public void scheduleAll(List<Document> documents) {
+        scheduleAll(documents, false);
+    }
+
+    private void scheduleAll(List<Document> documents, boolean wait) {
+        List<Job> jobs = documents.stream().map(Job::of).toList();
+        afterCommit(() -> {
+            int skipped = 0;
+            for (Job job : jobs) {
+                if (!submit(job, wait)) {
+                    skipped++;
+                }
+            }
+            if (skipped > 0) {
+                log.warn("⚠️ Content extraction queue is full, {} documents left to the catch-up sweep", skipped);
+            }
+        });
+    }
+
+    /**
+     * Schedule documents whose indexed content is out of date because their job was dropped
+     * (queue full, shutdown) or never ran (files attached before extraction existed). Goes
+     * through all documents in id order, one page at a time; stops when the queue is full and
+     * continues from there on the next run.
+     */
+    @Scheduled(fixedDelayString = "${plm.content.sweep-interval:PT15M}",
+               initialDelayString = "${plm.content.sweep-initial-delay:PT5M}")
+    public void catchUp() {
+        long startTime = System.currentTimeMillis();
+        int scheduled = 0;
+        while (true) {
+            List<Document> page = docRepo.findByIdGreaterThanOrderByIdAsc(sweptUpTo, Limit.of(sweepBatchSize));
+            if (page.isEmpty()) {
+                sweptUpTo = "";
+                break;
+            }
+            // Documents missing from the index entirely are left to re-indexing
+            Map<String, String> indexed = documentSearchService.getContentFileKeys(
+                    page.stream().map(Document::getId).toList());
+            for (Document document : page) {
+                // Once its job has run, a document's indexed contentFileKey is the job's fileKey
+                Job job = Job.of(document);
+                if (indexed.containsKey(job.documentId())
+                        && !Objects.equals(indexed.get(job.documentId()), job.fileKey())) {
+                    if (!submit(job, false)) {
+                        log.info("Content catch-up scheduled {} documents, queue full; continuing next run",
+                                scheduled);
+                        return;
+                    }
+                    scheduled++;
+                }
+                sweptUpTo = document.getId();
+            }
+        }
+        if (scheduled > 0) {
+            log.info("✅ Content catch-up scheduled {} documents in {}ms",
+                    scheduled, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * Remove the stored text of a file that is being deleted
+     */
+    public void deleteExtractedText(String fileKey) {
+        fileStorageGateway.delete(textKey(fileKey));
+    }
+
+    /**
+     * @return false if the queue had no room (after up to enqueue-timeout if {@code wait})
+     */
+    private boolean submit(Job job, boolean wait) {
+        if (!job.extractable()) {
+            documentSearchService.clearContent(job.documentId());
+            return true;
+        }
+        if (!pending.add(job)) {
+            return true;
+        }
+        Runnable task = () -> {
+            try {
+                index(job.documentId(), job.fileKey(), job.pdf());
+            } finally {
+                pending.remove(job);
+            }
+        };
+        if (enqueue(task, wait)) {
+            return true;
+        }
+        pending.remove(job);
+        log.debug("Extraction queue full, not scheduling document {}", job.documentId());
+        return false;
+    }
+
+    private boolean enqueue(Runnable task, boolean wait) {
+        try {
+            workers.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (!wait || workers.isShutdown()) {
+                return false;
+            }
+        }
+        try {
+            return workers.getQueue().offer(task, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void index(String documentId, String fileKey, boolean pdf) {
+        if (fileKey.equals(documentSearchService.getContentFileKey(documentId))) {
+            log.debug("Content of {} already indexed from {}", documentId, fileKey);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            String text = readExtractedText(fileKey);
+            if (text == null) {
+                text = extract(fileKey, pdf);
+                if (text != null) {
+                    fileStorageGateway.store(textKey(fileKey), text.getBytes(StandardCharsets.UTF_8), TEXT_TYPE);
+                }
+            }
+            // Nothing to extract (file missing or too large) is indexed as no content from this
+            // key, so the catch-up sweep doesn't try again
+            List<String> chunks = text != null ? chunk(text) : List.of();
+            // The file may have been replaced or removed while this job waited or ran; the job
+            // scheduled by that change owns the index entry now
+            if (!docRepo.existsByIdAndFileKey(documentId, fileKey)) {
+                log.debug("Document {} no longer points at {}, not indexing its content", documentId, fileKey);
+                return;
+            }
+            documentSearchService.indexContent(documentId, fileKey, chunks);
+            log.info("✅ Indexed {} content chunks for document {} in {}ms",
+                    chunks.size(), documentId, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("❌ Content extraction failed for document {}: {}", documentId, e.getMessage());
+        }
+    }
+
+    private String readExtractedText(String fileKey) throws IOException {
+        String key = textKey(fileKey);
+        if (!fileStorageGateway.exists(key)) {
+            return null;
+        }
+        try (FileDownload download = fileStorageGateway.download(key)) {
+            return download != null ? new String(download.getStream().readAllBytes(), StandardCharsets.UTF_8) : null;
+        }
+    }
+
+    private String extract(String fileKey, boolean pdf) throws IOException {
+        try (FileDownload download = fileStorageGateway.download(fileKey)) {
+            if (download == null) {
+                log.warn("⚠️ Cannot extract content, file {} not found", fileKey);
+                return null;
+            }
+            if (download.getContentLength() > maxSourceBytes) {
+                log.info("Skipping content extraction for {}: {} bytes exceeds limit",
+                        fileKey, download.getContentLength());
+                return null;
+            }
+            return pdf ? extractPdf(download) : extractText(download.getStream());
+        }
+    }
+
+    /**
+     * Page by page, stopping once the indexed size limit is reached, so huge PDFs are not
+     * turned into one giant string. Remote files are spooled to a temp file for random access.
+     */
+    private String extractPdf(FileDownload download) throws IOException {
+        Path file = download.getLocalPath();
+        Path spooled = null;
+        try {
+            if (file == null) {
+                spooled = Files.createTempFile("content-", ".pdf");
+                try (InputStream in = download.getStream()) {
+                    Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+                }
+                file = spooled;
+            }
+            try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                StringBuilder text = new StringBuilder();
+                long limit = (long) chunkChars * maxChunks;
+                for (int page = 1; page <= document.getNumberOfPages() && text.length() < limit; page++) {
+                    stripper.setStartPage(page);
+                    stripper.setEndPage(page);
+                    text.append(stripper.getText(document)).append('\n');
+                }
+                return text.toString();
+            }
+        } finally {
+            if (spooled != null) {
+                Files.deleteIfExists(spooled);
+            }
+        }
+    }
+
+    private String extractText(InputStream in) throws IOException {
+        long limit = (long) chunkChars * maxChunks;
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            int read;
+            while (text.length() < limit && (read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Collapse whitespace and cut into chunks of at most chunkChars, preferring to break
+     * between words
+     */
+    private List<String> chunk(String text) {
+        String normalized = text.replaceAll("\\s+", " ").trim();
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length() && chunks.size() < maxChunks) {
+            int end = Math.min(start + chunkChars, normalized.length());
+            if (end < normalized.length()) {
+                int space = normalized.lastIndexOf(' ', end);
+                if (space > start + chunkChars / 2) {
+                    end = space;
+                }
+            }
+            chunks.add(normalized.substring(start, end).trim());
+            start = end;
+        }
+        if (start < normalized.length()) {
+            log.debug("Content truncated to {} chunks", maxChunks);
+        }
+        return chunks;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isExtractable(String contentType, String filename) {
+        return isPdf(contentType, filename) || isText(contentType, filename);
+    }
+
+    private static boolean isPdf(String contentType, String filename) {
+        return "application/pdf".equalsIgnoreCase(contentType)
+                || (filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".pdf"));
+    }
+
+    private static boolean isText(String contentType, String filename) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/") || type.startsWith("application/json") || type.startsWith("application/xml")) {
+                return true;
+            }
+        }
+        if (filename == null) {
+            return false;
+        }
+        String name = filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".txt") || name.endsWith(".csv") || name.endsWith(".md")
+                || name.endsWith(".xml") || name.endsWith(".json");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Extraction of {@code fileKey} into the document; fileKey is null if there is nothing to
+     * extract, and then the job clears the indexed content
+     */
+    private record Job(String documentId, String fileKey, boolean pdf) {
+
+        static Job of(Document document) {
+            String fileKey = document.getFileKey();
+            String contentType = document.getContentType();
+            String filename = document.getOriginalFilename();
+            if (fileKey == null || fileKey.isEmpty() || !isExtractable(contentType, filename)) {
+                return new Job(document.getId(), null, false);
+            }
+            return new Job(document.getId(), fileKey, isPdf(contentType, filename));
+        }
+
+        boolean extractable() {
+            return fileKey != null;
+        }
+    }
+}
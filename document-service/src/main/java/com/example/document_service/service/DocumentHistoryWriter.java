@@ -0,0 +1,107 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.DocumentHistory;
+import com.example.document_service.repository.DocumentHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects history entries written during a transaction and inserts them in one JDBC
+ * batch just before it commits.
+ *
+ * DocumentHistory ids are IDENTITY columns, which makes Hibernate insert each entity
+ * immediately and rules out its own insert batching; buffering here keeps the per-row
+ * round trips out of multi-step operations like revise and completeReview. Outside a
+ * transaction entries are saved straight away.
+ */
+@Component
+@Slf4j
+public class DocumentHistoryWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO document_history (document_id, action, old_value, new_value, created_by, comment, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Key of the per-transaction buffer in TransactionSynchronizationManager's resources
+    private static final Object BUFFER_KEY = DocumentHistoryWriter.class.getName() + ".buffer";
+
+    private final DocumentHistoryRepository historyRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public DocumentHistoryWriter(DocumentHistoryRepository historyRepo,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${plm.history.batch-size:100}") int batchSize) {
+        this.historyRepo = historyRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void append(DocumentHistory entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            historyRepo.save(entry);
+            return;
+        }
+        currentBuffer().add(entry);
+    }
+
+    /**
+     * Drop entries buffered for a document whose history is being deleted in this transaction
+     */
+    public void discard(String documentId) {
+        @SuppressWarnings("unchecked")
+        List<DocumentHistory> buffer = (List<DocumentHistory>) TransactionSynchronizationManager.getResource(BUFFER_KEY);
+        if (buffer != null) {
+            buffer.removeIf(entry -> documentId.equals(entry.getDocumentId()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DocumentHistory> currentBuffer() {
+        List<DocumentHistory> buffer = (List<DocumentHistory>) TransactionSynchronizationManager.getResource(BUFFER_KEY);
+        if (buffer != null) {
+            return buffer;
+        }
+
+        List<DocumentHistory> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(BUFFER_KEY, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                writeBatch(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(BUFFER_KEY);
+            }
+        });
+        return created;
+    }
+
+    // Runs on the transaction's own connection, so the rows commit or roll back with it
+    private void writeBatch(List<DocumentHistory> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, batchSize, (ps, entry) -> {
+            ps.setString(1, entry.getDocumentId());
+            ps.setString(2, entry.getAction());
+            ps.setString(3, entry.getOldValue());
+            ps.setString(4, entry.getNewValue());
+            ps.setString(5, entry.getUser());
+            ps.setString(6, entry.getComment());
+            ps.setTimestamp(7, Timestamp.valueOf(entry.getTimestamp()));
+        });
+        log.debug("Wrote {} history entries in one batch", entries.size());
+        entries.clear();
+    }
+}
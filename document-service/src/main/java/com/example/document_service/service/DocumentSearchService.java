@@ -1,33 +1,76 @@
 package com.example.document_service.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import com.example.document_service.elasticsearch.DocumentSearchDocument;
 import com.example.document_service.elasticsearch.DocumentSearchRepository;
 import com.example.document_service.model.Document;
-import lombok.RequiredArgsConstructor;
+import com.example.plm.common.search.AliasReindexer;
+import com.example.plm.common.search.BulkIndexBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for managing document indexing and searching in Elasticsearch
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DocumentSearchService {
     
     private final DocumentSearchRepository searchRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final BulkIndexBuffer<DocumentSearchDocument> indexBuffer;
+    
+    public DocumentSearchService(DocumentSearchRepository searchRepository,
+                                 ElasticsearchOperations elasticsearchOperations,
+                                 ElasticsearchClient elasticsearchClient,
+                                 @Value("${plm.search.bulk.max-batch-size:500}") int bulkMaxBatchSize,
+                                 @Value("${plm.search.bulk.flush-interval:1s}") Duration bulkFlushInterval) {
+        this.searchRepository = searchRepository;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        // Extracted content is written on its own and must survive metadata re-indexing
+        this.indexBuffer = new BulkIndexBuffer<>(elasticsearchOperations, elasticsearchClient,
+            DocumentSearchDocument.class, DocumentSearchDocument::getId, bulkMaxBatchSize, bulkFlushInterval,
+            Set.of(DocumentSearchDocument.CONTENT, DocumentSearchDocument.CONTENT_FILE_KEY));
+    }
+    
+    /**
+     * Bring the documents index up to the current mapping: new fields (e.g. content) are added
+     * in place, incompatible changes (e.g. the suggest analyzer) copy the index into a new one
+     */
+    @PostConstruct
+    public void updateMapping() {
+        try {
+            new AliasReindexer(elasticsearchOperations).applyMapping(DocumentSearchDocument.class);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not update documents index mapping: {}", e.getMessage());
+        }
+    }
     
     /**
      * Index a document to Elasticsearch
-     * Called automatically when document is created or updated
+     * Called automatically when document is created or updated; the write is queued
+     * and sent with the next _bulk flush
      */
     public void indexDocument(Document document) {
         try {
             DocumentSearchDocument searchDoc = DocumentSearchDocument.fromDocument(document);
-            searchRepository.save(searchDoc);
-            log.info("✅ Document {} indexed to Elasticsearch", document.getId());
+            indexBuffer.index(searchDoc);
+            log.debug("Document {} queued for Elasticsearch indexing", document.getId());
         } catch (Exception e) {
             log.error("❌ Failed to index document {}: {}", document.getId(), e.getMessage());
         }
@@ -39,13 +82,78 @@ public class DocumentSearchService {
      */
     public void deleteDocument(String documentId) {
         try {
-            searchRepository.deleteById(documentId);
-            log.info("✅ Document {} removed from Elasticsearch", documentId);
+            indexBuffer.delete(documentId);
+            log.debug("Document {} queued for Elasticsearch removal", documentId);
         } catch (Exception e) {
             log.error("❌ Failed to delete document {} from ES: {}", documentId, e.getMessage());
         }
     }
     
+    /**
+     * Set the extracted text of a document's file; queued with the next _bulk flush
+     */
+    public void indexContent(String documentId, String fileKey, List<String> chunks) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(DocumentSearchDocument.CONTENT, chunks);
+        fields.put(DocumentSearchDocument.CONTENT_FILE_KEY, fileKey);
+        indexBuffer.update(documentId, fields);
+    }
+    
+    /**
+     * Remove the extracted text, e.g. when the file is removed or can't be extracted
+     */
+    public void clearContent(String documentId) {
+        indexContent(documentId, null, null);
+    }
+    
+    /**
+     * File key the indexed content of a document was extracted from, or null if none
+     */
+    public String getContentFileKey(String documentId) {
+        try {
+            String indexName = elasticsearchOperations.getIndexCoordinatesFor(DocumentSearchDocument.class).getIndexName();
+            GetResponse<Map> response = elasticsearchClient.get(g -> g
+                .index(indexName)
+                .id(documentId)
+                .sourceIncludes(DocumentSearchDocument.CONTENT_FILE_KEY), Map.class);
+            if (!response.found() || response.source() == null) {
+                return null;
+            }
+            Object fileKey = response.source().get(DocumentSearchDocument.CONTENT_FILE_KEY);
+            return fileKey != null ? fileKey.toString() : null;
+        } catch (Exception e) {
+            log.debug("Could not read content state of {}: {}", documentId, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Indexed content file key per document id, for the ids found in the index (null values
+     * for documents without content); empty if the index can't be read
+     */
+    public Map<String, String> getContentFileKeys(List<String> documentIds) {
+        Map<String, String> fileKeys = new HashMap<>();
+        if (documentIds.isEmpty()) {
+            return fileKeys;
+        }
+        try {
+            String indexName = elasticsearchOperations.getIndexCoordinatesFor(DocumentSearchDocument.class).getIndexName();
+            MgetResponse<Map> response = elasticsearchClient.mget(m -> m
+                .index(indexName)
+                .ids(documentIds)
+                .sourceIncludes(DocumentSearchDocument.CONTENT_FILE_KEY), Map.class);
+            for (MultiGetResponseItem<Map> item : response.docs()) {
+                if (item.isResult() && item.result().found() && item.result().source() != null) {
+                    Object fileKey = item.result().source().get(DocumentSearchDocument.CONTENT_FILE_KEY);
+                    fileKeys.put(item.result().id(), fileKey != null ? fileKey.toString() : null);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Could not read content state of {} documents: {}", documentIds.size(), e.getMessage());
+        }
+        return fileKeys;
+    }
+    
     /**
      * Search documents by query string
      */
@@ -71,7 +179,9 @@ public class DocumentSearchService {
     public List<DocumentSearchDocument> searchByStatus(String status) {
         return searchRepository.findByStatus(status);
     }
+    
+    @PreDestroy
+    public void flushPendingIndexing() {
+        indexBuffer.close();
+    }
 }
-
-
-
@@ -13,17 +13,20 @@ public interface DocumentService {
     List<Document> getAllDocuments();
     Document getById(String documentId);
     Document create(CreateDocumentRequest req);
+    List<Document> createAll(List<Document> documents, String user);
     Document updateDocument(String documentId, UpdateDocumentRequest req);
     Document submitForReview(String documentId, SubmitForReviewRequest req);
     Document completeReview(String documentId, boolean approved, String approver, String comment);
     Document revise(String documentId, String user);
     Document updateStage(String documentId, Stage stage, String user, String comment);
-    List<DocumentHistory> history(String documentId);
+    List<DocumentHistory> history(String documentId, Long beforeId, int size);
     List<Document> getDocumentVersions(String documentId);
     void attachFileKey(String documentId, String fileKey, String user);
     void attachFileWithMetadata(String documentId, String fileKey, org.springframework.web.multipart.MultipartFile file, String user);
+    void attachStoredFile(String documentId, String fileKey, String filename, String contentType, long size, String user);
     void clearFileMetadata(String documentId);
     void deleteDocument(String documentId);
     List<Document> getDocumentsByPartId(String partId);
+    List<Document> getPendingReviews(String reviewerId, int page, int size);
     Document initiateChangeBasedEdit(String documentId, String changeId, String user);
 }
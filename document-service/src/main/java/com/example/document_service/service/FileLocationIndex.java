@@ -0,0 +1,73 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.FileLocation;
+import com.example.document_service.repository.FileLocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Where each stored file currently lives. The index is an optimization over probing the
+ * backends, never the only source of truth: lookups that fail return null and the caller
+ * falls back to probing, which records what it finds.
+ */
+@Service
+@Slf4j
+public class FileLocationIndex {
+
+    private final FileLocationRepository locationRepo;
+    private final Duration touchInterval;
+
+    public FileLocationIndex(FileLocationRepository locationRepo,
+                             @Value("${plm.storage.tiering.touch-interval:1h}") Duration touchInterval) {
+        this.locationRepo = locationRepo;
+        this.touchInterval = touchInterval;
+    }
+
+    public FileLocation find(String fileKey) {
+        try {
+            return locationRepo.findById(fileKey).orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ File location lookup failed for {}: {}", fileKey, e.getMessage());
+            return null;
+        }
+    }
+
+    public void record(String fileKey, String backend, long size) {
+        try {
+            FileLocation location = locationRepo.findById(fileKey).orElseGet(() -> new FileLocation(fileKey, backend, size));
+            location.setBackend(backend);
+            location.setSize(size);
+            location.setLastAccessedAt(LocalDateTime.now());
+            locationRepo.save(location);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Failed to record location of {} on {}: {}", fileKey, backend, e.getMessage());
+        }
+    }
+
+    /**
+     * Note a read; written at most once per touch interval so hot files don't cost a write per download
+     */
+    public void touch(FileLocation location) {
+        LocalDateTime now = LocalDateTime.now();
+        if (location.getLastAccessedAt() != null && location.getLastAccessedAt().isAfter(now.minus(touchInterval))) {
+            return;
+        }
+        try {
+            locationRepo.touch(location.getFileKey(), now, now.minus(touchInterval));
+        } catch (RuntimeException e) {
+            log.debug("Failed to touch location of {}: {}", location.getFileKey(), e.getMessage());
+        }
+    }
+
+    public void remove(String fileKey) {
+        try {
+            locationRepo.deleteById(fileKey);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Failed to remove location of {}: {}", fileKey, e.getMessage());
+        }
+    }
+}
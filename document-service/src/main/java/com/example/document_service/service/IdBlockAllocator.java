@@ -0,0 +1,38 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.IdSequence;
+import com.example.document_service.repository.IdSequenceRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves blocks from an {@link IdSequence} row. Each reservation commits in its own
+ * transaction, so a block stays reserved even if the create that triggered it rolls back;
+ * the unused numbers are simply skipped.
+ */
+@Component
+public class IdBlockAllocator {
+
+    private final IdSequenceRepository sequenceRepo;
+
+    public IdBlockAllocator(IdSequenceRepository sequenceRepo) {
+        this.sequenceRepo = sequenceRepo;
+    }
+
+    /**
+     * @return the first number of a block of {@code blockSize} numbers now owned by the caller
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserve(String sequenceName, int blockSize, long initialValue) {
+        IdSequence sequence = sequenceRepo.findForUpdate(sequenceName).orElse(null);
+        if (sequence == null) {
+            // First reservation ever; a concurrent first insert fails on the primary key and is retried
+            sequenceRepo.saveAndFlush(new IdSequence(sequenceName, initialValue + blockSize));
+            return initialValue;
+        }
+        long first = sequence.getNextValue();
+        sequence.setNextValue(first + blockSize);
+        return first;
+    }
+}
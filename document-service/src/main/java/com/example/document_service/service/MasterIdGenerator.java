@@ -0,0 +1,85 @@
+package com.example.document_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates document master numbers ({@code DOC-10000}, {@code DOC-10001}, ...) from a
+ * database sequence without a round trip per number.
+ *
+ * Each instance reserves a block of numbers at a time and hands them out from memory;
+ * only when its block runs out does it go back to the database for the next one. Numbers
+ * are unique across instances but not gap-free: a block left over at shutdown is never used.
+ *
+ * Master ids can also be chosen by users, so a generated id may already be taken. That is
+ * rare and isn't looked up here: inserting the master then fails on its primary key, and the
+ * caller retries with the next number.
+ */
+@Service
+@Slf4j
+public class MasterIdGenerator {
+
+    static final String SEQUENCE_NAME = "document-master";
+
+    private final IdBlockAllocator allocator;
+    private final String format;
+    private final int blockSize;
+    private final long initialValue;
+
+    // Current block [next, limit); guarded by this
+    private long next;
+    private long limit;
+
+    public MasterIdGenerator(IdBlockAllocator allocator,
+                             @Value("${plm.document.master-id.format:DOC-%04d}") String format,
+                             @Value("${plm.document.master-id.block-size:50}") int blockSize,
+                             @Value("${plm.document.master-id.initial-value:10000}") long initialValue) {
+        this.allocator = allocator;
+        this.format = format;
+        this.blockSize = Math.max(1, blockSize);
+        this.initialValue = initialValue;
+    }
+
+    public String nextId() {
+        return nextIds(1, Set.of()).get(0);
+    }
+
+    /**
+     * {@code count} new ids that aren't in {@code reserved} (e.g. ids chosen for other masters
+     * of the same batch that aren't stored yet)
+     */
+    public List<String> nextIds(int count, Set<String> reserved) {
+        List<String> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            String id = String.format(format, nextNumber());
+            if (!reserved.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private synchronized long nextNumber() {
+        if (next >= limit) {
+            next = reserveBlock();
+            limit = next + blockSize;
+            log.info("Reserved master numbers {}-{}", next, limit - 1);
+        }
+        return next++;
+    }
+
+    private long reserveBlock() {
+        try {
+            return allocator.reserve(SEQUENCE_NAME, blockSize, initialValue);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the sequence row at the same moment; it exists now
+            return allocator.reserve(SEQUENCE_NAME, blockSize, initialValue);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.FileLocation;
+import com.example.document_service.model.FileSweepCheckpoint;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.repository.FileLocationRepository;
+import com.example.document_service.repository.FileSweepCheckpointRepository;
+import com.example.document_service.repository.StoredFileRepository;
+import com.example.document_service.service.gateway.StorageBackend;
+import com.example.document_service.service.gateway.StoredObject;
+import com.example.document_service.service.impl.LocalFileStorageService;
+import com.example.document_service.service.impl.MinIOFileStorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes stored files that nothing references any more: leftovers of document and file
+ * deletes from before reference counting, uploads whose document row was never written,
+ * direct uploads that were never completed, and local copies a tier move left behind.
+ *
+ * Each backend is swept incrementally. A run lists one page of files after the checkpointed
+ * position, looks the page's keys up with one query per referencing table, deletes the
+ * unreferenced ones in parallel at a bounded rate and saves the new position, and repeats
+ * until its time budget is spent; the next run continues where it stopped. Files younger
+ * than the grace period are never touched, which covers uploads whose document isn't saved
+ * yet. Generated previews and extracted text live as long as the file they belong to.
+ */
+@Component
+@Slf4j
+public class OrphanedFileCollector {
+
+    // Keys stored next to a file and named after it
+    private static final List<String> DERIVED_SUFFIXES = List.of(
+            PreviewService.thumbnailKey(""), PreviewService.previewKey(""), DocumentContentService.textKey(""));
+
+    private final FileSweepCheckpointRepository checkpointRepo;
+    private final DocumentRepository docRepo;
+    private final StoredFileRepository storedFileRepo;
+    private final FileLocationRepository locationRepo;
+    private final List<StorageBackend> backends;
+    private final boolean enabled;
+    private final boolean dryRun;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Duration runBudget;
+    private final Duration passInterval;
+    private final long deleteIntervalNanos;
+    private final List<String> keepPrefixes;
+    private final ThreadPoolExecutor deleters;
+    private final String owner;
+
+    private final Object throttleLock = new Object();
+    private long nextDeleteAt = System.nanoTime();
+
+    public OrphanedFileCollector(FileSweepCheckpointRepository checkpointRepo,
+                                 DocumentRepository docRepo,
+                                 StoredFileRepository storedFileRepo,
+                                 FileLocationRepository locationRepo,
+                                 MinIOFileStorageService minioStorage,
+                                 LocalFileStorageService localStorage,
+                                 @Value("${plm.storage.gc.enabled:false}") boolean enabled,
+                                 @Value("${plm.storage.gc.dry-run:false}") boolean dryRun,
+                                 @Value("${plm.storage.gc.grace-period:1d}") Duration gracePeriod,
+                                 @Value("${plm.storage.gc.batch-size:500}") int batchSize,
+                                 @Value("${plm.storage.gc.run-budget:2m}") Duration runBudget,
+                                 @Value("${plm.storage.gc.pass-interval:1d}") Duration passInterval,
+                                 @Value("${plm.storage.gc.parallelism:4}") int parallelism,
+                                 @Value("${plm.storage.gc.max-deletes-per-second:50}") int maxDeletesPerSecond,
+                                 @Value("${plm.storage.gc.keep-prefixes:}") List<String> keepPrefixes) {
+        this.checkpointRepo = checkpointRepo;
+        this.docRepo = docRepo;
+        this.storedFileRepo = storedFileRepo;
+        this.locationRepo = locationRepo;
+        this.backends = List.of(minioStorage, localStorage);
+        this.enabled = enabled;
+        this.dryRun = dryRun;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = Math.max(1, batchSize);
+        this.runBudget = runBudget;
+        this.passInterval = passInterval;
+        this.deleteIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxDeletesPerSecond);
+        this.keepPrefixes = keepPrefixes.stream().map(String::trim).filter(prefix -> !prefix.isEmpty()).toList();
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deleters = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "file-gc-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        this.owner = hostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Continue the sweep of every backend for at most the run budget each
+     */
+    @Scheduled(fixedDelayString = "${plm.storage.gc.interval:PT5M}",
+               initialDelayString = "${plm.storage.gc.initial-delay:PT5M}")
+    public void collect() {
+        if (!enabled) {
+            return;
+        }
+        for (StorageBackend backend : backends) {
+            try {
+                sweep(backend);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Orphan sweep of {} failed, continuing next run: {}", backend.name(), e.getMessage());
+            }
+        }
+    }
+
+    private void sweep(StorageBackend backend) {
+        FileSweepCheckpoint checkpoint = claim(backend.name());
+        if (checkpoint == null) {
+            log.debug("Orphan sweep of {} is running on another instance", backend.name());
+            return;
+        }
+        try {
+            if (!checkpoint.inPass()) {
+                LocalDateTime lastPass = checkpoint.getLastPassCompletedAt();
+                if (lastPass != null && lastPass.isAfter(LocalDateTime.now().minus(passInterval))) {
+                    return;
+                }
+                checkpoint.setPassStartedAt(LocalDateTime.now());
+                checkpoint.setPosition(null);
+                checkpoint.setScannedInPass(0);
+                checkpoint.setDeletedInPass(0);
+                log.info("🧹 Starting orphan sweep of {}{}", backend.name(), dryRun ? " (dry run)" : "");
+            }
+
+            long deadline = System.nanoTime() + runBudget.toNanos();
+            while (System.nanoTime() < deadline) {
+                List<StoredObject> page = backend.listFiles(checkpoint.getPosition(), batchSize);
+                int deleted = collectPage(backend, page, Instant.now().minus(gracePeriod));
+                checkpoint.setScannedInPass(checkpoint.getScannedInPass() + page.size());
+                checkpoint.setDeletedInPass(checkpoint.getDeletedInPass() + deleted);
+                checkpoint.setDeletedTotal(checkpoint.getDeletedTotal() + deleted);
+
+                if (page.size() < batchSize) {
+                    checkpoint.setPosition(null);
+                    checkpoint.setLastPassCompletedAt(LocalDateTime.now());
+                    checkpointRepo.save(checkpoint);
+                    log.info("✅ Orphan sweep of {} finished: {} files scanned, {} deleted", backend.name(),
+                            checkpoint.getScannedInPass(), checkpoint.getDeletedInPass());
+                    return;
+                }
+                checkpoint.setPosition(page.get(page.size() - 1).position());
+                checkpoint.setLeaseUntil(LocalDateTime.now().plus(leaseDuration()));
+                checkpoint = checkpointRepo.save(checkpoint);
+            }
+            log.info("🧹 Orphan sweep of {} paused after {} files scanned, {} deleted so far in this pass",
+                    backend.name(), checkpoint.getScannedInPass(), checkpoint.getDeletedInPass());
+        } finally {
+            checkpointRepo.release(backend.name(), owner);
+        }
+    }
+
+    private int collectPage(StorageBackend backend, List<StoredObject> page, Instant cutoff) {
+        List<String> candidates = new ArrayList<>();
+        for (StoredObject file : page) {
+            if (file.lastModified().isBefore(cutoff) && !kept(file.key())) {
+                candidates.add(file.key());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> orphans = unreferenced(candidates);
+        List<String> staleCopies = staleLocalCopies(backend, candidates, orphans);
+        if (!orphans.isEmpty()) {
+            // Look again right before deleting, so a key that was linked while the page was
+            // being processed survives; what remains is the gap between this query and the delete
+            orphans = unreferenced(orphans);
+        }
+        return delete(backend, orphans, true) + delete(backend, staleCopies, false);
+    }
+
+    /**
+     * The keys among {@code keys} that no document version or stored-file record points at;
+     * derived files count as referenced while the file they were made from is
+     */
+    private Set<String> unreferenced(Collection<String> keys) {
+        Map<String, String> baseKeys = new LinkedHashMap<>();
+        for (String key : keys) {
+            baseKeys.put(key, baseKey(key));
+        }
+        Set<String> referenced = new HashSet<>(docRepo.findFileKeysIn(new HashSet<>(baseKeys.values())));
+        referenced.addAll(storedFileRepo.findFileKeysIn(new HashSet<>(baseKeys.values())));
+
+        Set<String> unreferenced = new HashSet<>();
+        baseKeys.forEach((key, base) -> {
+            if (!referenced.contains(base)) {
+                unreferenced.add(key);
+            }
+        });
+        return unreferenced;
+    }
+
+    /**
+     * Referenced files on local disk that the location index places on another backend which
+     * has them: a demotion that stopped between switching the index and deleting locally
+     */
+    private List<String> staleLocalCopies(StorageBackend backend, List<String> candidates, Set<String> orphans) {
+        if (!LocalFileStorageService.NAME.equals(backend.name())) {
+            return List.of();
+        }
+        List<String> referenced = candidates.stream().filter(key -> !orphans.contains(key)).toList();
+        List<String> stale = new ArrayList<>();
+        for (FileLocation location : locationRepo.findAllById(referenced)) {
+            if (backend.name().equals(location.getBackend())) {
+                continue;
+            }
+            StorageBackend holder = backends.stream()
+                    .filter(other -> other.name().equals(location.getBackend()))
+                    .findFirst().orElse(null);
+            if (holder != null && holder.fileExists(location.getFileKey())) {
+                stale.add(location.getFileKey());
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Delete in parallel at no more than the configured rate; returns how many were deleted
+     */
+    private int delete(StorageBackend backend, Collection<String> keys, boolean dropLocation) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Future<Boolean>> results = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            results.add(deleters.submit(() -> delete(backend, key, dropLocation)));
+        }
+        int deleted = 0;
+        for (Future<Boolean> result : results) {
+            try {
+                if (result.get()) {
+                    deleted++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.forEach(pending -> pending.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                log.warn("⚠️ Deleting an orphaned file from {} failed: {}", backend.name(), e.getCause().getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    private boolean delete(StorageBackend backend, String key, boolean dropLocation) throws InterruptedException {
+        throttle();
+        if (dryRun) {
+            log.info("🧹 Would delete {} from {}", key, backend.name());
+            return false;
+        }
+        if (!backend.deleteFile(key)) {
+            return false;
+        }
+        if (dropLocation) {
+            locationRepo.deleteIfOn(key, backend.name());
+        }
+        log.debug("Deleted orphaned file {} from {}", key, backend.name());
+        return true;
+    }
+
+    /**
+     * Space deletes {@code 1 / max-deletes-per-second} apart across all worker threads
+     */
+    private void throttle() throws InterruptedException {
+        long slot;
+        synchronized (throttleLock) {
+            slot = Math.max(System.nanoTime(), nextDeleteAt);
+            nextDeleteAt = slot + deleteIntervalNanos;
+        }
+        long wait = slot - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * The backend's checkpoint with the sweep lease held by this instance, or null if another instance holds it
+     */
+    private FileSweepCheckpoint claim(String backend) {
+        if (!checkpointRepo.existsById(backend)) {
+            try {
+                checkpointRepo.saveAndFlush(new FileSweepCheckpoint(backend));
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently by another instance
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpointRepo.claim(backend, owner, now, now.plus(leaseDuration())) != 1) {
+            return null;
+        }
+        return checkpointRepo.findById(backend).orElse(null);
+    }
+
+    // Long enough that a run never outlives its lease, short enough that a crashed instance's lease lapses soon
+    private Duration leaseDuration() {
+        return runBudget.multipliedBy(2).plusMinutes(1);
+    }
+
+    private boolean kept(String key) {
+        for (String prefix : keepPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String baseKey(String key) {
+        for (String suffix : DERIVED_SUFFIXES) {
+            if (key.endsWith(suffix) && key.length() > suffix.length()) {
+                return key.substring(0, key.length() - suffix.length());
+            }
+        }
+        return key;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleters.shutdownNow();
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.document_service.service;
+
+import com.example.document_service.config.CacheConfig;
+import com.example.document_service.service.gateway.FileDownload;
+import com.example.document_service.service.gateway.FileStorageGateway;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background thumbnail and first-page preview generation for PDFs and images.
+ *
+ * Files are rendered by a small fixed worker pool fed from a bounded queue; when the queue is
+ * full new work is dropped (and logged) instead of blocking the upload that triggered it.
+ * Results are PNGs stored next to the original under {@code <fileKey>.thumb.png} and
+ * {@code <fileKey>.preview.png}. Because file keys are content hashes, a file that is
+ * already rendered is never rendered again.
+ */
+@Service
+@Slf4j
+public class PreviewService {
+
+    public static final int THUMBNAIL_SIZE = 256;
+    public static final int PREVIEW_SIZE = 1024;
+    private static final float PDF_DPI = 110f;
+    private static final String PNG = "image/png";
+
+    private final FileStorageGateway fileStorageGateway;
+    private final ThreadPoolExecutor workers;
+    private final long maxSourceBytes;
+
+    // File keys queued or being rendered, so repeated attaches don't queue duplicates
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public PreviewService(FileStorageGateway fileStorageGateway,
+                          @Value("${plm.preview.workers:2}") int workerCount,
+                          @Value("${plm.preview.queue-capacity:100}") int queueCapacity,
+                          @Value("${plm.preview.max-source-bytes:209715200}") long maxSourceBytes) {
+        this.fileStorageGateway = fileStorageGateway;
+        this.maxSourceBytes = maxSourceBytes;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread thread = new Thread(r, "preview-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    public static String thumbnailKey(String fileKey) {
+        return fileKey + ".thumb.png";
+    }
+
+    public static String previewKey(String fileKey) {
+        return fileKey + ".preview.png";
+    }
+
+    public static boolean isPreviewable(String contentType, String filename) {
+        return isPdf(contentType, filename) || isImage(contentType, filename);
+    }
+
+    /**
+     * Queue preview generation for an attached file; returns immediately
+     */
+    public void schedule(String fileKey, String contentType, String filename) {
+        if (fileKey == null || !isPreviewable(contentType, filename) || !pending.add(fileKey)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(fileKey, isPdf(contentType, filename));
+                } finally {
+                    pending.remove(fileKey);
+                }
+            });
+            log.debug("Preview generation queued for {}", fileKey);
+        } catch (RejectedExecutionException e) {
+            pending.remove(fileKey);
+            log.warn("⚠️ Preview queue full, skipping preview for {}", fileKey);
+        }
+    }
+
+    /**
+     * Thumbnail PNG for a file, or null if none has been generated (yet)
+     */
+    @Cacheable(cacheNames = CacheConfig.PREVIEWS, key = "'thumb:' + #fileKey", unless = "#result == null")
+    public byte[] getThumbnail(String fileKey) {
+        return read(thumbnailKey(fileKey));
+    }
+
+    /**
+     * First-page preview PNG for a file, or null if none has been generated (yet)
+     */
+    @Cacheable(cacheNames = CacheConfig.PREVIEWS, key = "'preview:' + #fileKey", unless = "#result == null")
+    public byte[] getPreview(String fileKey) {
+        return read(previewKey(fileKey));
+    }
+
+    /**
+     * Remove the generated images of a file that is being deleted, and their cached copies
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PREVIEWS, key = "'thumb:' + #fileKey"),
+            @CacheEvict(cacheNames = CacheConfig.PREVIEWS, key = "'preview:' + #fileKey")
+    })
+    public void deletePreviews(String fileKey) {
+        fileStorageGateway.delete(thumbnailKey(fileKey));
+        fileStorageGateway.delete(previewKey(fileKey));
+    }
+
+    private void generate(String fileKey, boolean pdf) {
+        if (fileStorageGateway.exists(thumbnailKey(fileKey))) {
+            log.debug("Preview for {} already exists", fileKey);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try (FileDownload download = fileStorageGateway.download(fileKey)) {
+            if (download == null) {
+                log.warn("⚠️ Cannot generate preview, file {} not found", fileKey);
+                return;
+            }
+            if (download.getContentLength() > maxSourceBytes) {
+                log.info("Skipping preview for {}: {} bytes exceeds limit", fileKey, download.getContentLength());
+                return;
+            }
+
+            BufferedImage source = pdf ? renderFirstPage(download) : ImageIO.read(download.getStream());
+            if (source == null) {
+                log.warn("⚠️ Unsupported image format for {}", fileKey);
+                return;
+            }
+
+            // Preview first, so a present thumbnail always means both exist
+            fileStorageGateway.store(previewKey(fileKey), toPng(scale(source, PREVIEW_SIZE)), PNG);
+            fileStorageGateway.store(thumbnailKey(fileKey), toPng(scale(source, THUMBNAIL_SIZE)), PNG);
+            log.info("✅ Preview generated for {} in {}ms", fileKey, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("❌ Preview generation failed for {}: {}", fileKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Render page 1 of a PDF. PDFBox needs random access, so remote files are spooled to a temp file
+     * first; local files are opened in place. Parsed streams are cached on disk, not on the heap.
+     */
+    private BufferedImage renderFirstPage(FileDownload download) throws IOException {
+        Path file = download.getLocalPath();
+        Path spooled = null;
+        try {
+            if (file == null) {
+                spooled = Files.createTempFile("preview-", ".pdf");
+                try (InputStream in = download.getStream()) {
+                    Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+                }
+                file = spooled;
+            }
+            try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+                if (document.getNumberOfPages() == 0) {
+                    return null;
+                }
+                return new PDFRenderer(document).renderImageWithDPI(0, PDF_DPI, ImageType.RGB);
+            }
+        } finally {
+            if (spooled != null) {
+                Files.deleteIfExists(spooled);
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxSize) {
+        double factor = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * factor));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);  // flatten transparency onto white
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private byte[] read(String key) {
+        // Cheap existence check first, so documents without previews never hit the remote fallback
+        if (!fileStorageGateway.exists(key)) {
+            return null;
+        }
+        try (FileDownload download = fileStorageGateway.download(key)) {
+            return download != null ? download.getStream().readAllBytes() : null;
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to read preview {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isPdf(String contentType, String filename) {
+        return "application/pdf".equalsIgnoreCase(contentType)
+                || (filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".pdf"));
+    }
+
+    private static boolean isImage(String contentType, String filename) {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+            return true;
+        }
+        if (filename == null) {
+            return false;
+        }
+        String name = filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg")
+                || name.endsWith(".gif") || name.endsWith(".bmp");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.document_service.service;
+
+import com.example.document_service.config.CacheConfig;
+import com.example.document_service.model.DocumentHistory;
+import com.example.document_service.model.ReviewAssignment;
+import com.example.document_service.repository.DocumentHistoryRepository;
+import com.example.document_service.repository.ReviewAssignmentRepository;
+import com.example.plm.common.model.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reviewer inboxes backed by {@link ReviewAssignment} rows. Pages are cached as document ids
+ * only; callers load the documents themselves, so cached entries never share entity state.
+ */
+@Component
+@Slf4j
+public class ReviewInbox {
+
+    private static final String SUBMIT_REVIEW = "SUBMIT_REVIEW";
+    private static final String TWO_STAGE_PREFIX = "Two-Stage Review: Initial=";
+    private static final String TECHNICAL_SEPARATOR = ", Technical=";
+    private static final String REVIEWERS_PREFIX = "Reviewers=";
+
+    private final ReviewAssignmentRepository reviewAssignmentRepo;
+    private final DocumentHistoryRepository historyRepo;
+
+    public ReviewInbox(ReviewAssignmentRepository reviewAssignmentRepo, DocumentHistoryRepository historyRepo) {
+        this.reviewAssignmentRepo = reviewAssignmentRepo;
+        this.historyRepo = historyRepo;
+    }
+
+    /**
+     * Ids of the documents waiting for this reviewer, newest assignment first
+     */
+    @Cacheable(cacheNames = CacheConfig.PENDING_REVIEWS, key = "#reviewerId + ':' + #page + ':' + #size")
+    public List<String> documentIds(String reviewerId, int page, int size) {
+        return List.copyOf(reviewAssignmentRepo.findDocumentIdsForReviewer(
+                reviewerId, Status.IN_REVIEW, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Store the assignments, one per reviewer: a reviewer listed twice, or as both initial and
+     * technical reviewer, keeps the first
+     */
+    public void assign(List<ReviewAssignment> assignments) {
+        reviewAssignmentRepo.saveAll(onePerReviewer(assignments));
+    }
+
+    /**
+     * Assign reviewers to documents that went into review before assignments were recorded,
+     * from the reviewers logged with their latest SUBMIT_REVIEW history entry. Safe to run on
+     * several instances at once: a row another instance stored first is left as it is.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAssignments() {
+        List<String> unassigned;
+        try {
+            unassigned = reviewAssignmentRepo.findUnassignedDocumentIds(Status.IN_REVIEW);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not look for documents in review without assignments: {}", e.getMessage());
+            return;
+        }
+        int assigned = 0;
+        for (String documentId : unassigned) {
+            DocumentHistory submitted =
+                    historyRepo.findFirstByDocumentIdAndActionOrderByTimestampDescIdDesc(documentId, SUBMIT_REVIEW);
+            List<ReviewAssignment> assignments = submitted != null ? fromHistory(submitted) : List.of();
+            if (assignments.isEmpty()) {
+                log.warn("⚠️ Document {} is in review but its reviewers are not recorded", documentId);
+                continue;
+            }
+            int stored = 0;
+            for (ReviewAssignment assignment : onePerReviewer(assignments)) {
+                try {
+                    reviewAssignmentRepo.saveAndFlush(assignment);
+                    stored++;
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Reviewer {} of {} was assigned meanwhile", assignment.getReviewerId(), documentId);
+                }
+            }
+            if (stored > 0) {
+                assigned++;
+            }
+        }
+        if (assigned > 0) {
+            log.info("✅ Backfilled review assignments for {} documents in review", assigned);
+        }
+    }
+
+    private static List<ReviewAssignment> onePerReviewer(List<ReviewAssignment> assignments) {
+        Map<String, ReviewAssignment> byReviewer = new LinkedHashMap<>();
+        assignments.forEach(a -> byReviewer.putIfAbsent(a.getReviewerId(), a));
+        return List.copyOf(byReviewer.values());
+    }
+
+    // Parses the comment submitForReview logs: "Two-Stage Review: Initial=a, Technical=b" or "Reviewers=a,b"
+    private static List<ReviewAssignment> fromHistory(DocumentHistory submitted) {
+        String comment = submitted.getComment();
+        List<ReviewAssignment> assignments = new ArrayList<>();
+        if (comment == null) {
+            return assignments;
+        }
+        String documentId = submitted.getDocumentId();
+        if (comment.startsWith(TWO_STAGE_PREFIX) && comment.contains(TECHNICAL_SEPARATOR)) {
+            String reviewers = comment.substring(TWO_STAGE_PREFIX.length());
+            int separator = reviewers.indexOf(TECHNICAL_SEPARATOR);
+            assignments.add(new ReviewAssignment(documentId, reviewers.substring(0, separator).trim(), "INITIAL"));
+            assignments.add(new ReviewAssignment(documentId,
+                    reviewers.substring(separator + TECHNICAL_SEPARATOR.length()).trim(), "TECHNICAL"));
+        } else if (comment.startsWith(REVIEWERS_PREFIX)) {
+            for (String reviewerId : comment.substring(REVIEWERS_PREFIX.length()).split(",")) {
+                if (!reviewerId.isBlank()) {
+                    assignments.add(new ReviewAssignment(documentId, reviewerId.trim(), "REVIEWER"));
+                }
+            }
+        }
+        // "null" is what was logged for a missing reviewer
+        if (assignments.stream().anyMatch(a -> "null".equals(a.getReviewerId()))) {
+            return List.of();
+        }
+        assignments.forEach(a -> a.setAssignedAt(submitted.getTimestamp()));
+        return assignments;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.FileLocation;
+import com.example.document_service.repository.FileLocationRepository;
+import com.example.document_service.service.gateway.FileDownload;
+import com.example.document_service.service.gateway.StorageBackend;
+import com.example.document_service.service.impl.LocalFileStorageService;
+import com.example.document_service.service.impl.MinIOFileStorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves files between the hot tier (local disk) and the cold tier (MinIO) when tiering is enabled.
+ *
+ * Demotion runs on a schedule: files on local disk not read for {@code cold-after} are copied to
+ * MinIO, verified by size, switched over in the location index and only then deleted locally.
+ * The switch is conditional on the file still being idle, so a file read during its move stays
+ * local. Promotion is triggered by reads: a MinIO file read again within {@code promote-within}
+ * of its previous read is copied back to local disk in the background. The MinIO copy is kept,
+ * which makes a later demotion of the same file a pure index update.
+ */
+@Component
+@Slf4j
+public class StorageTierMover {
+
+    private final FileLocationRepository locationRepo;
+    private final StorageBackend hot;
+    private final StorageBackend cold;
+    private final boolean enabled;
+    private final Duration coldAfter;
+    private final int batchSize;
+    private final Duration promoteWithin;
+    private final long promoteMaxBytes;
+    private final ThreadPoolExecutor promoter;
+
+    // Keys queued or being promoted, so a burst of reads queues one copy
+    private final Set<String> promoting = ConcurrentHashMap.newKeySet();
+
+    public StorageTierMover(FileLocationRepository locationRepo,
+                            LocalFileStorageService localStorage,
+                            MinIOFileStorageService minioStorage,
+                            @Value("${plm.storage.tiering.enabled:false}") boolean enabled,
+                            @Value("${plm.storage.tiering.cold-after:7d}") Duration coldAfter,
+                            @Value("${plm.storage.tiering.batch-size:100}") int batchSize,
+                            @Value("${plm.storage.tiering.promote-within:1d}") Duration promoteWithin,
+                            @Value("${plm.storage.tiering.promote-max-bytes:268435456}") long promoteMaxBytes) {
+        this.locationRepo = locationRepo;
+        this.hot = localStorage;
+        this.cold = minioStorage;
+        this.enabled = enabled;
+        this.coldAfter = coldAfter;
+        this.batchSize = Math.max(1, batchSize);
+        this.promoteWithin = promoteWithin;
+        this.promoteMaxBytes = promoteMaxBytes;
+        this.promoter = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(100),
+                r -> {
+                    Thread thread = new Thread(r, "tier-promote");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Move a batch of idle local files to MinIO; the next run picks up where this one stopped
+     */
+    @Scheduled(fixedDelayString = "${plm.storage.tiering.mover-interval:PT10M}",
+               initialDelayString = "${plm.storage.tiering.mover-initial-delay:PT2M}")
+    public void demoteColdFiles() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(coldAfter);
+        List<FileLocation> idle = locationRepo.findByBackendAndLastAccessedAtBeforeOrderByLastAccessedAtAsc(
+                hot.name(), cutoff, Limit.of(batchSize));
+        if (idle.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        int moved = 0;
+        for (FileLocation location : idle) {
+            try {
+                if (demote(location.getFileKey(), cutoff)) {
+                    moved++;
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Moving {} to {} failed: {}", location.getFileKey(), cold.name(), e.getMessage());
+            }
+        }
+        log.info("🧊 Moved {}/{} idle files to {} in {}ms", moved, idle.size(), cold.name(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    private boolean demote(String fileKey, LocalDateTime cutoff) throws Exception {
+        long size = hot.getFileSize(fileKey);
+        if (size < 0) {
+            // Local copy is gone; point the index at MinIO if the file is there
+            if (cold.fileExists(fileKey)) {
+                locationRepo.move(fileKey, hot.name(), cold.name());
+            } else {
+                log.warn("⚠️ {} is indexed on {} but missing there", fileKey, hot.name());
+            }
+            return false;
+        }
+
+        if (cold.getFileSize(fileKey) != size) {
+            try (FileDownload download = hot.openFile(fileKey)) {
+                if (download == null
+                        || StorageBackend.SAVE_FAILED.equals(cold.saveFile(fileKey, download.getStream(), size, download.getContentType()))) {
+                    return false;
+                }
+            }
+            if (cold.getFileSize(fileKey) != size) {
+                log.warn("⚠️ Copy of {} on {} has the wrong size; keeping it local", fileKey, cold.name());
+                return false;
+            }
+        }
+
+        if (locationRepo.moveIfIdle(fileKey, hot.name(), cold.name(), cutoff) == 1) {
+            hot.deleteFile(fileKey);
+            return true;
+        }
+        log.debug("{} was read while being moved; it stays on {}", fileKey, hot.name());
+        return false;
+    }
+
+    /**
+     * Whether a read of a cold file makes it hot: it was already read shortly before
+     */
+    public boolean shouldPromote(FileLocation location) {
+        return enabled
+                && cold.name().equals(location.getBackend())
+                && location.getSize() <= promoteMaxBytes
+                && location.getLastAccessedAt() != null
+                && location.getLastAccessedAt().isAfter(LocalDateTime.now().minus(promoteWithin));
+    }
+
+    /**
+     * Copy a cold file back to local disk in the background; returns immediately
+     */
+    public void promoteAsync(String fileKey) {
+        if (!promoting.add(fileKey)) {
+            return;
+        }
+        try {
+            promoter.execute(() -> {
+                try {
+                    promote(fileKey);
+                } finally {
+                    promoting.remove(fileKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            promoting.remove(fileKey);
+        }
+    }
+
+    private void promote(String fileKey) {
+        try (FileDownload download = cold.openFile(fileKey)) {
+            if (download == null || StorageBackend.SAVE_FAILED.equals(
+                    hot.saveFile(fileKey, download.getStream(), download.getContentLength(), download.getContentType()))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Promoting {} to {} failed: {}", fileKey, hot.name(), e.getMessage());
+            return;
+        }
+        if (locationRepo.move(fileKey, cold.name(), hot.name()) == 1) {
+            log.info("🔥 Promoted {} to {}", fileKey, hot.name());
+        } else {
+            // Deleted or moved meanwhile; don't leave an unindexed copy behind
+            hot.deleteFile(fileKey);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promoter.shutdownNow();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.StoredFile;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.repository.StoredFileRepository;
+import com.example.document_service.service.gateway.FileStorageGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Deletes a released file from storage once nothing references it, in a transaction of its own
+ * that runs after the release has committed. The {@link StoredFile} row is locked and its count
+ * checked again before anything is deleted, and the lock is held until the object is gone:
+ * a concurrent upload of the same content either took its reference first, and the file is
+ * kept, or waits for the row and uploads the content again once it is deleted.
+ */
+@Component
+@Slf4j
+public class StoredFilePurger {
+
+    private final StoredFileRepository storedFileRepo;
+    private final DocumentRepository docRepo;
+    private final FileStorageGateway fileStorageGateway;
+    private final PreviewService previewService;
+    private final DocumentContentService contentService;
+
+    public StoredFilePurger(StoredFileRepository storedFileRepo,
+                            DocumentRepository docRepo,
+                            FileStorageGateway fileStorageGateway,
+                            PreviewService previewService,
+                            DocumentContentService contentService) {
+        this.storedFileRepo = storedFileRepo;
+        this.docRepo = docRepo;
+        this.fileStorageGateway = fileStorageGateway;
+        this.previewService = previewService;
+        this.contentService = contentService;
+    }
+
+    /**
+     * @return whether the file was deleted; false if it is referenced again or already gone
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean purgeIfUnreferenced(String fileKey) {
+        StoredFile stored = storedFileRepo.findForUpdate(fileKey).orElse(null);
+        if (stored != null) {
+            if (stored.getRefCount() > 0 || storedFileRepo.deleteIfUnreferenced(fileKey) == 0) {
+                log.info("♻️ {} was linked again before its delete ran, keeping it", fileKey);
+                return false;
+            }
+        } else if (fileKey.startsWith(StoredFileService.KEY_PREFIX) || docRepo.countByFileKey(fileKey) > 0) {
+            // Content key without a row: purged already, or being uploaded again right now.
+            // Legacy or direct-upload key: a document points at it again.
+            return false;
+        }
+
+        if (fileStorageGateway.delete(fileKey)) {
+            log.info("🗑️ Deleted unreferenced file {}", fileKey);
+        } else {
+            log.warn("⚠️ Failed to delete unreferenced file {}", fileKey);
+        }
+        previewService.deletePreviews(fileKey);
+        contentService.deleteExtractedText(fileKey);
+        return true;
+    }
+}
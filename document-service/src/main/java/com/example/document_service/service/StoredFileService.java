@@ -0,0 +1,196 @@
+package com.example.document_service.service;
+
+import com.example.document_service.exception.DocumentServiceException;
+import com.example.document_service.model.StoredFile;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.repository.StoredFileRepository;
+import com.example.document_service.service.gateway.FileStorageGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Content-addressed, reference-counted file storage for documents.
+ *
+ * Uploads are stored under {@code sha256-<hash>}, so a file that is already stored (typically
+ * the same drawing re-attached to a new revision) is linked instead of uploaded again.
+ * Every document row that holds a key owns one reference; new versions that copy a key
+ * {@link #retain} it and deleting or replacing a file {@link #release}s it. When the last
+ * reference is gone and the transaction commits, {@link StoredFilePurger} deletes the object
+ * unless it was linked again in the meantime.
+ *
+ * Keys from before content addressing ({@code <documentId>_<filename>}) and files the client
+ * uploaded straight to object storage ({@code direct-<documentId>-<uuid>}, hash unknown) have no
+ * {@link StoredFile} row; they are deleted once no document points at them any more.
+ */
+@Service
+@Slf4j
+public class StoredFileService {
+
+    public static final String KEY_PREFIX = "sha256-";
+    public static final String DIRECT_KEY_PREFIX = "direct-";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final StoredFileRepository storedFileRepo;
+    private final DocumentRepository docRepo;
+    private final FileStorageGateway fileStorageGateway;
+    private final StoredFilePurger purger;
+
+    public StoredFileService(StoredFileRepository storedFileRepo,
+                             DocumentRepository docRepo,
+                             FileStorageGateway fileStorageGateway,
+                             StoredFilePurger purger) {
+        this.storedFileRepo = storedFileRepo;
+        this.docRepo = docRepo;
+        this.fileStorageGateway = fileStorageGateway;
+        this.purger = purger;
+    }
+
+    /**
+     * Store an upload once per distinct content and take one reference to it,
+     * owned by the document the returned key is attached to.
+     *
+     * The container has already spooled the part, so hashing it is a local read; knowing the
+     * hash before uploading is what lets content that is already stored skip the upload.
+     */
+    public StoredFile store(MultipartFile file) {
+        return store(file, sha256(file));
+    }
+
+    /**
+     * Same as {@link #store(MultipartFile)} for content whose SHA-256 (lowercase hex) was
+     * computed while it was being written locally
+     */
+    public StoredFile store(MultipartFile file, String sha256) {
+        String fileKey = KEY_PREFIX + sha256;
+
+        // Same content already stored: link it, nothing is uploaded
+        if (storedFileRepo.incrementRefCount(fileKey) == 1) {
+            log.info("♻️ Reusing stored content {} for '{}'", fileKey, file.getOriginalFilename());
+            return storedFileRepo.findById(fileKey)
+                    .orElseThrow(() -> new DocumentServiceException("Stored file vanished: " + fileKey));
+        }
+
+        String savedKey = fileStorageGateway.store(fileKey, file);
+        if (!fileKey.equals(savedKey)) {
+            throw new DocumentServiceException("Failed to store file " + file.getOriginalFilename());
+        }
+
+        StoredFile stored = new StoredFile();
+        stored.setFileKey(fileKey);
+        stored.setSha256(sha256);
+        stored.setSize(file.getSize());
+        stored.setContentType(file.getContentType());
+        stored.setRefCount(1);
+        try {
+            stored = storedFileRepo.saveAndFlush(stored);
+            log.info("✅ Stored new content {} ({} bytes)", fileKey, file.getSize());
+            return stored;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent upload of the same content registered it first; the object
+            // we wrote has the same bytes under the same key, so just take a reference
+            storedFileRepo.incrementRefCount(fileKey);
+            return storedFileRepo.findById(fileKey).orElse(stored);
+        }
+    }
+
+    /**
+     * Fresh key for a file the client uploads directly with a presigned URL
+     */
+    public String newDirectUploadKey(String documentId) {
+        return DIRECT_KEY_PREFIX + documentId + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Whether {@code fileKey} was handed out by {@link #newDirectUploadKey} for this document
+     */
+    public boolean isDirectUploadKey(String documentId, String fileKey) {
+        String prefix = DIRECT_KEY_PREFIX + documentId + "-";
+        if (fileKey == null || !fileKey.startsWith(prefix)) {
+            return false;
+        }
+        try {
+            UUID.fromString(fileKey.substring(prefix.length()));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Storage backend currently holding the file ("LOCAL", "MINIO"), or null if not known yet
+     */
+    public String locate(String fileKey) {
+        return fileKey != null ? fileStorageGateway.locate(fileKey) : null;
+    }
+
+    /**
+     * Take another reference to a stored file, for a new document row that copies its key
+     */
+    public void retain(String fileKey) {
+        if (fileKey != null && !fileKey.isEmpty()) {
+            storedFileRepo.incrementRefCount(fileKey);
+        }
+    }
+
+    /**
+     * Drop one reference. Call after the referencing document row has been changed or
+     * deleted; the object is removed from storage after commit if nothing uses it any more.
+     */
+    public void release(String fileKey) {
+        if (fileKey == null || fileKey.isEmpty()) {
+            return;
+        }
+
+        boolean unreferenced;
+        if (storedFileRepo.decrementRefCount(fileKey) == 1) {
+            // The row stays at zero until the purge, so a re-upload meanwhile just links it again
+            unreferenced = storedFileRepo.isUnreferenced(fileKey);
+        } else {
+            // Legacy or direct-upload key without a reference count
+            unreferenced = !storedFileRepo.existsById(fileKey) && docRepo.countByFileKey(fileKey) == 0;
+        }
+
+        if (unreferenced) {
+            deleteAfterCommit(fileKey);
+        }
+    }
+
+    private void deleteAfterCommit(String fileKey) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    purger.purgeIfUnreferenced(fileKey);
+                }
+            });
+        } else {
+            purger.purgeIfUnreferenced(fileKey);
+        }
+    }
+
+    /**
+     * SHA-256 of the upload, read as a stream from the container's spooled part
+     */
+    private String sha256(MultipartFile file) {
+        try (DigestInputStream in = new DigestInputStream(file.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            while (in.read(buffer) != -1) {
+                // digest is updated as the stream is read
+            }
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new DocumentServiceException("Failed to hash upload " + file.getOriginalFilename(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.document_service.service.gateway;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * An open stream over a stored file, with the size known up front so the
+ * response can carry Content-Length without buffering the content.
+ * The caller owns the stream and must close it.
+ */
+public class FileDownload implements Closeable {
+
+    private final InputStream stream;
+    private final long contentLength;
+    private final String contentType;
+    private final Path localPath;
+
+    public FileDownload(InputStream stream, long contentLength, String contentType) {
+        this(stream, contentLength, contentType, null);
+    }
+
+    public FileDownload(InputStream stream, long contentLength, String contentType, Path localPath) {
+        this.stream = stream;
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.localPath = localPath;
+    }
+
+    public InputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * Size in bytes, or -1 when the backend did not report it
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Content type recorded by the backend, or null when unknown
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * File on local disk backing this download, or null for remote storage.
+     * Lets the web layer hand the file to the container's zero-copy sendfile.
+     */
+    public Path getLocalPath() {
+        return localPath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+}
@@ -4,8 +4,45 @@ import org.springframework.web.multipart.MultipartFile;
 
 public interface FileStorageGateway {
     String upload(String documentId, MultipartFile file);
-    byte[] download(String fileKey);
+
+    /**
+     * Store the file under exactly this key; returns the key, or "error-saving-file" on failure
+     */
+    String store(String fileKey, MultipartFile file);
+
+    /**
+     * Store small generated content (e.g. previews) under exactly this key
+     */
+    String store(String fileKey, byte[] content, String contentType);
+
+    /**
+     * Open the stored file for streaming, or return null if no storage has it
+     */
+    FileDownload download(String fileKey);
+
+    /**
+     * Open {@code length} bytes of the stored file starting at {@code offset},
+     * or return null if no storage has it
+     */
+    FileDownload download(String fileKey, long offset, long length);
+
+    /**
+     * Signed URL the client can PUT the file to directly, or null if direct transfer isn't available
+     */
+    PresignedUrl presignUpload(String fileKey);
+
+    /**
+     * Signed URL the client can GET the file from directly, or null if direct transfer isn't available
+     */
+    PresignedUrl presignDownload(String fileKey, String downloadName, String contentType);
+
     boolean delete(String fileKey);
+
+    /**
+     * Name of the storage backend that currently holds the file, or null if unknown
+     */
+    String locate(String fileKey);
+
     boolean exists(String fileKey);
     long getFileSize(String fileKey);
 }
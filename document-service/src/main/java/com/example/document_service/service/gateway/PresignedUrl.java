@@ -0,0 +1,9 @@
+package com.example.document_service.service.gateway;
+
+import java.time.Instant;
+
+/**
+ * A signed object-storage URL the client uses directly with {@code method}, valid until {@code expiresAt}
+ */
+public record PresignedUrl(String url, String method, Instant expiresAt) {
+}
@@ -0,0 +1,51 @@
+package com.example.document_service.service.gateway;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * One place file bytes can live (local disk, S3-compatible object storage).
+ * Save methods return the key, or {@link #SAVE_FAILED} on failure; reads return null
+ * when the backend doesn't have the file.
+ */
+public interface StorageBackend {
+
+    String SAVE_FAILED = "error-saving-file";
+
+    /**
+     * Identifier recorded in the file location index, e.g. "LOCAL" or "MINIO"
+     */
+    String name();
+
+    String saveFile(String key, MultipartFile file);
+
+    String saveFile(String key, byte[] content, String contentType);
+
+    /**
+     * Store {@code size} bytes read from {@code in}; the caller closes the stream
+     */
+    String saveFile(String key, InputStream in, long size, String contentType);
+
+    FileDownload openFile(String key);
+
+    FileDownload openFile(String key, long offset, long length);
+
+    boolean deleteFile(String key);
+
+    boolean fileExists(String key);
+
+    /**
+     * Size in bytes, or -1 if the file isn't there
+     */
+    long getFileSize(String key);
+
+    /**
+     * Up to {@code limit} stored files in a stable order, starting after {@code after}
+     * (a {@link StoredObject#position()} from an earlier call, or null for the beginning).
+     * Fewer than {@code limit} entries means the listing reached the end; a backend that
+     * can't be listed throws instead of returning a short page.
+     */
+    List<StoredObject> listFiles(String after, int limit);
+}
@@ -0,0 +1,10 @@
+package com.example.document_service.service.gateway;
+
+import java.time.Instant;
+
+/**
+ * A file as listed by a storage backend. {@code position} is where the listing stands after
+ * this entry; passing it back to {@link StorageBackend#listFiles} continues from there.
+ */
+public record StoredObject(String key, long size, Instant lastModified, String position) {
+}
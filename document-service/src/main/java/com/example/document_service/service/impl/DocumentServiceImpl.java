@@ -1,12 +1,26 @@
 package com.example.document_service.service.impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.document_service.config.CacheConfig;
 import com.example.document_service.dto.request.CreateDocumentRequest;
 import com.example.document_service.dto.request.SubmitForReviewRequest;
 import com.example.document_service.dto.request.UpdateDocumentRequest;
@@ -15,9 +29,11 @@ import com.example.document_service.exception.ValidationException;
 import com.example.document_service.model.Document;
 import com.example.document_service.model.DocumentHistory;
 import com.example.document_service.model.DocumentMaster;
+import com.example.document_service.model.ReviewAssignment;
 import com.example.document_service.repository.DocumentHistoryRepository;
 import com.example.document_service.repository.DocumentMasterRepository;
 import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.repository.ReviewAssignmentRepository;
 import com.example.document_service.service.DocumentService;
 import com.example.document_service.service.gateway.Neo4jGateway;
 import com.example.document_service.service.gateway.SearchGateway;
@@ -31,21 +47,47 @@ import com.example.document_service.client.DocumentSyncDto;
 
 // Elasticsearch imports
 import com.example.document_service.service.DocumentSearchService;
-
+import com.example.document_service.service.DocumentContentService;
+import com.example.document_service.service.DocumentHistoryWriter;
+import com.example.document_service.service.MasterIdGenerator;
+import com.example.document_service.service.PreviewService;
+import com.example.document_service.service.ReviewInbox;
+import com.example.document_service.service.StoredFileService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class DocumentServiceImpl implements DocumentService {
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+    private static final int MAX_REVIEW_PAGE_SIZE = 200;
+    // Tries per create when a generated master id collides with a user-chosen one
+    private static final int MASTER_ID_ATTEMPTS = 3;
+
     private final DocumentMasterRepository masterRepo;
     private final DocumentRepository docRepo;
     private final DocumentHistoryRepository historyRepo;
     private final SearchGateway searchGateway;
     private final WorkflowGateway workflowGateway;
     private final Neo4jGateway neo4jGateway;
-    private final com.example.document_service.service.gateway.FileStorageGateway fileStorageGateway;
     private final GraphServiceClient graphServiceClient;
     private final DocumentSearchService documentSearchService;
+    private final StoredFileService storedFileService;
+    private final PreviewService previewService;
+    private final DocumentHistoryWriter historyWriter;
+    private final ReviewAssignmentRepository reviewAssignmentRepo;
+    private final ReviewInbox reviewInbox;
+    private final MasterIdGenerator masterIdGenerator;
+    private final DocumentContentService contentService;
+    private final int jdbcBatchSize;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public DocumentServiceImpl(DocumentMasterRepository masterRepo,
                                DocumentRepository docRepo,
@@ -53,18 +95,34 @@ public class DocumentServiceImpl implements DocumentService {
                                SearchGateway searchGateway,
                                WorkflowGateway workflowGateway,
                                Neo4jGateway neo4jGateway,
-                               com.example.document_service.service.gateway.FileStorageGateway fileStorageGateway,
                                GraphServiceClient graphServiceClient,
-                               DocumentSearchService documentSearchService) {
+                               DocumentSearchService documentSearchService,
+                               StoredFileService storedFileService,
+                               PreviewService previewService,
+                               DocumentHistoryWriter historyWriter,
+                               ReviewAssignmentRepository reviewAssignmentRepo,
+                               ReviewInbox reviewInbox,
+                               MasterIdGenerator masterIdGenerator,
+                               DocumentContentService contentService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize) {
         this.masterRepo = masterRepo;
         this.docRepo = docRepo;
         this.historyRepo = historyRepo;
         this.searchGateway = searchGateway;
         this.workflowGateway = workflowGateway;
         this.neo4jGateway = neo4jGateway;
-        this.fileStorageGateway = fileStorageGateway;
         this.graphServiceClient = graphServiceClient;
         this.documentSearchService = documentSearchService;
+        this.storedFileService = storedFileService;
+        this.previewService = previewService;
+        this.historyWriter = historyWriter;
+        this.reviewAssignmentRepo = reviewAssignmentRepo;
+        this.reviewInbox = reviewInbox;
+        this.masterIdGenerator = masterIdGenerator;
+        this.contentService = contentService;
+        this.jdbcBatchSize = Math.max(1, jdbcBatchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     private void logHistory(Document doc, String action, String oldVal, String newVal, String user, String comment) {
@@ -75,7 +133,21 @@ public class DocumentServiceImpl implements DocumentService {
         h.setNewValue(newVal);
         h.setUser(user);
         h.setComment(comment);
-        historyRepo.save(h);
+        historyWriter.append(h);
+    }
+
+    /**
+     * Point a new version at the same stored file as its predecessor; each row holds its own reference
+     */
+    private void copyFile(Document from, Document to) {
+        to.setFileKey(from.getFileKey());
+        to.setOriginalFilename(from.getOriginalFilename());
+        to.setContentType(from.getContentType());
+        to.setFileSize(from.getFileSize());
+        to.setStorageLocation(from.getStorageLocation());
+        to.setFileUploadedAt(from.getFileUploadedAt());
+        storedFileService.retain(from.getFileKey());
+        contentService.schedule(to);
     }
 
     private void sync(Document d) {
@@ -90,19 +162,23 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
     
+    private DocumentSyncDto toSyncDto(Document document) {
+        return new DocumentSyncDto(
+            document.getId(),
+            document.getTitle(),
+            document.getDescription(),
+            String.valueOf(document.getVersion()),
+            document.getStatus() != null ? document.getStatus().name() : "IN_WORK",
+            document.getContentType(),
+            document.getFileSize(),
+            document.getCreator(),
+            document.getCreateTime()
+        );
+    }
+
     private void syncDocumentToGraph(Document document) {
         try {
-            DocumentSyncDto dto = new DocumentSyncDto(
-                document.getId(),
-                document.getTitle(),
-                document.getDescription(),
-                String.valueOf(document.getVersion()),
-                document.getStatus() != null ? document.getStatus().name() : "IN_WORK",
-                document.getContentType(),
-                document.getFileSize(),
-                document.getCreator(),
-                document.getCreateTime()
-            );
+            DocumentSyncDto dto = toSyncDto(document);
             graphServiceClient.syncDocument(dto);
             log.info("✅ Document {} synced to graph successfully", document.getId());
         } catch (Exception e) {
@@ -135,50 +211,50 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
     
-    private String generateUniqueMasterId() {
-        String masterId;
-        int attempts = 0;
-        do {
-            // Generate a 4-digit random number prefixed with "DOC-"
-            masterId = String.format("DOC-%04d", (int)(Math.random() * 10000));
-            attempts++;
-            if (attempts > 100) {
-                // Fallback to UUID if we can't find a unique short ID
-                masterId = "DOC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-                break;
-            }
-        } while (masterRepo.existsById(masterId));
-        
-        return masterId;
-    }
-
-    @Transactional
+    /**
+     * Generated master ids aren't checked against user-chosen ones up front: a collision fails
+     * the insert of the master, and the create is retried in a new transaction with the next id.
+     */
     @Override
     public Document create(CreateDocumentRequest req) {
         validateCreateRequest(req);
-        
-        // Auto-generate masterId if not provided
-        String masterId = req.getMasterId();
-        if (masterId == null || masterId.trim().isEmpty()) {
-            masterId = generateUniqueMasterId();
+
+        String chosenId = req.getMasterId();
+        if (chosenId != null && !chosenId.trim().isEmpty()) {
+            return transactionTemplate.execute(status -> insert(req, chosenId.trim(), false));
+        }
+        for (int attempt = 1; ; attempt++) {
+            String masterId = masterIdGenerator.nextId();
             log.info("Auto-generated Master ID: {}", masterId);
-        } else {
-            masterId = masterId.trim();
-            // Check if a document with this masterID already exists
-            if (masterRepo.existsById(masterId)) {
-                throw new ValidationException(
-                    "Master ID '" + masterId + "' is already in use. " +
-                    "Please use a different Master ID or leave it empty to auto-generate one."
-                );
+            try {
+                return transactionTemplate.execute(status -> insert(req, masterId, true));
+            } catch (PersistenceException | DataAccessException e) {
+                if (attempt == MASTER_ID_ATTEMPTS || !masterRepo.existsById(masterId)) {
+                    throw e;
+                }
+                log.info("Master ID {} was taken by a user-chosen id, trying the next one", masterId);
             }
         }
-        
+    }
+
+    private Document insert(CreateDocumentRequest req, String masterId, boolean generated) {
+        // Check if a document with this masterID already exists
+        if (!generated && masterRepo.existsById(masterId)) {
+            throw new ValidationException(
+                "Master ID '" + masterId + "' is already in use. " +
+                "Please use a different Master ID or leave it empty to auto-generate one."
+            );
+        }
+
         DocumentMaster master = new DocumentMaster();
         master.setId(masterId);
         master.setTitle(req.getTitle());
         master.setCreator(req.getCreator());
         master.setCategory(req.getCategory());
-        master = masterRepo.save(master);
+        // persist, not save: save() on an assigned id merges into an existing master, while
+        // persist fails if one exists. Flushed now so a taken id fails before anything is synced
+        entityManager.persist(master);
+        entityManager.flush();
 
         Document d = new Document();
         d.setId(UUID.randomUUID().toString());
@@ -198,6 +274,81 @@ public class DocumentServiceImpl implements DocumentService {
         return d;
     }
 
+    /**
+     * Insert prepared documents (and their new masters) for a bulk ingest. Entities are
+     * persisted directly so Hibernate groups the INSERTs into JDBC batches, instead of
+     * save() issuing a SELECT per assigned id; graph and search sync happen once at the end.
+     * If a generated master id turns out to be taken by a user-chosen one, the batch is retried
+     * in a new transaction with new ids.
+     */
+    @Override
+    public List<Document> createAll(List<Document> documents, String user) {
+        // Generated ids skip ids chosen by other items of this batch
+        Set<String> chosenIds = new HashSet<>();
+        List<DocumentMaster> generatedMasters = new ArrayList<>();
+        for (Document d : documents) {
+            String id = d.getMaster().getId();
+            if (id == null || id.isBlank()) {
+                generatedMasters.add(d.getMaster());
+            } else {
+                chosenIds.add(id);
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Iterator<String> generatedIds = masterIdGenerator.nextIds(generatedMasters.size(), chosenIds).iterator();
+            generatedMasters.forEach(master -> master.setId(generatedIds.next()));
+            try {
+                return transactionTemplate.execute(status -> insertAll(documents, user));
+            } catch (PersistenceException | DataAccessException e) {
+                List<String> taken = generatedMasters.isEmpty() ? List.of()
+                        : masterRepo.findIdsIn(generatedMasters.stream().map(DocumentMaster::getId).toList());
+                if (attempt == MASTER_ID_ATTEMPTS || taken.isEmpty()) {
+                    throw e;
+                }
+                log.info("Master IDs {} were taken by user-chosen ids, retrying the batch", taken);
+            }
+        }
+    }
+
+    private List<Document> insertAll(List<Document> documents, String user) {
+        int pending = 0;
+        for (Document d : documents) {
+            DocumentMaster master = d.getMaster();
+            entityManager.persist(master);
+
+            d.setId(UUID.randomUUID().toString());
+            d.setStatus(Status.IN_WORK);
+            d.setRevision(0);
+            d.setVersion(1);
+            entityManager.persist(d);
+
+            logHistory(d, "CREATED", null, d.getStatus().name(), d.getCreator(), "Bulk ingest");
+            if (d.getFileKey() != null) {
+                logHistory(d, "FILE_ATTACHED", null, d.getFileKey(), user,
+                          String.format("File stored: %s (%d bytes)", d.getOriginalFilename(), d.getFileSize()));
+            }
+
+            if (++pending == jdbcBatchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+
+        try {
+            graphServiceClient.syncDocuments(documents.stream().map(this::toSyncDto).toList());
+            log.info("✅ {} documents synced to graph", documents.size());
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to sync {} documents to graph: {}", documents.size(), e.getMessage());
+        }
+        // Queued into the search index's _bulk buffer
+        documents.forEach(documentSearchService::indexDocument);
+        contentService.scheduleAll(documents.stream().filter(d -> d.getFileKey() != null).toList());
+        return documents;
+    }
+
     @Transactional
     @Override
     public Document updateDocument(String documentId, UpdateDocumentRequest req) {
@@ -259,7 +410,7 @@ public class DocumentServiceImpl implements DocumentService {
             newDocument.setStatus(Status.IN_WORK);
             newDocument.setRevision(currentDocument.getRevision());
             newDocument.setVersion(currentDocument.getVersion() + 1);  // Increment version
-            newDocument.setFileKey(currentDocument.getFileKey());  // Copy file key from current version
+            copyFile(currentDocument, newDocument);  // Share the stored file with the current version
             newDocument.setPartId(currentDocument.getPartId());
             newDocument.setActive(true);  // New document is the active version
             
@@ -307,6 +458,7 @@ public class DocumentServiceImpl implements DocumentService {
 
     @Transactional
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PENDING_REVIEWS, allEntries = true)
     public Document submitForReview(String documentId, SubmitForReviewRequest req) {
         if (documentId == null || documentId.trim().isEmpty()) {
             throw new ValidationException("Document ID is required");
@@ -329,6 +481,7 @@ public class DocumentServiceImpl implements DocumentService {
             reviewInfo = "Reviewers=" + String.join(",", req.getReviewerIds());
         }
         logHistory(d, "SUBMIT_REVIEW", oldStatus, newStatus, req.getUser(), reviewInfo);
+        assignReviewers(d, req);
 
         sync(d);
 
@@ -366,6 +519,23 @@ public class DocumentServiceImpl implements DocumentService {
         return d;
     }
 
+    /**
+     * Record who has to review the document; these rows back the reviewer inbox
+     */
+    private void assignReviewers(Document d, SubmitForReviewRequest req) {
+        List<ReviewAssignment> assignments = new ArrayList<>();
+        if (Boolean.TRUE.equals(req.getTwoStageReview())
+                && req.getInitialReviewer() != null && req.getTechnicalReviewer() != null) {
+            assignments.add(new ReviewAssignment(d.getId(), req.getInitialReviewer(), "INITIAL"));
+            assignments.add(new ReviewAssignment(d.getId(), req.getTechnicalReviewer(), "TECHNICAL"));
+        } else {
+            for (String reviewerId : req.getReviewerIds()) {
+                assignments.add(new ReviewAssignment(d.getId(), reviewerId, "REVIEWER"));
+            }
+        }
+        reviewInbox.assign(assignments);
+    }
+
     private void validateCompleteReviewRequest(String documentId, String approver) {
         if (documentId == null || documentId.trim().isEmpty()) {
             throw new ValidationException("Document ID is required");
@@ -377,6 +547,7 @@ public class DocumentServiceImpl implements DocumentService {
 
     @Transactional
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PENDING_REVIEWS, allEntries = true)
     public Document completeReview(String documentId, boolean approved, String approver, String comment) {
         validateCompleteReviewRequest(documentId, approver);
         Document currentDocument = docRepo.findById(documentId)
@@ -384,6 +555,9 @@ public class DocumentServiceImpl implements DocumentService {
         validateStatus(currentDocument, Status.IN_REVIEW, "complete review");
         String oldStatus = currentDocument.getStatus().name();
 
+        // Review is over either way; take it out of every reviewer's inbox
+        reviewAssignmentRepo.deleteByDocumentIdInBulk(documentId);
+
         Document resultDocument;
         
         if (approved) {
@@ -399,7 +573,7 @@ public class DocumentServiceImpl implements DocumentService {
             releasedDocument.setStatus(Status.RELEASED);
             releasedDocument.setRevision(currentDocument.getRevision() + 1);  // Increment revision
             releasedDocument.setVersion(0);  // Reset version to 0
-            releasedDocument.setFileKey(currentDocument.getFileKey());
+            copyFile(currentDocument, releasedDocument);
             releasedDocument.setPartId(currentDocument.getPartId());
             releasedDocument.setActive(true);  // New released document is active
             
@@ -454,7 +628,7 @@ public class DocumentServiceImpl implements DocumentService {
         d.setStatus(Status.IN_WORK);
         d.setRevision(current.getRevision());
         d.setVersion(current.getVersion() + 1);
-        d.setFileKey(current.getFileKey());
+        copyFile(current, d);
         d.setPartId(current.getPartId());
         d.setActive(true);  // New revision is active
 
@@ -494,7 +668,7 @@ public class DocumentServiceImpl implements DocumentService {
         newVersion.setStatus(Status.IN_WORK); // New version starts as IN_WORK
         newVersion.setRevision(releasedDocument.getRevision());
         newVersion.setVersion(releasedDocument.getVersion() + 1); // Increment version
-        newVersion.setFileKey(releasedDocument.getFileKey()); // Copy file key
+        copyFile(releasedDocument, newVersion); // Share the stored file
         newVersion.setPartId(releasedDocument.getPartId());
         newVersion.setActive(true); // New version is active
 
@@ -540,8 +714,16 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
-    public List<DocumentHistory> history(String documentId) {
-        return historyRepo.findByDocumentIdOrderByTimestampDesc(documentId);
+    public List<DocumentHistory> history(String documentId, Long beforeId, int size) {
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE)));
+        if (beforeId == null) {
+            return historyRepo.findFirstPage(documentId, limit);
+        }
+        // Keyset cursor: continue after the last entry the caller has seen
+        DocumentHistory cursor = historyRepo.findById(beforeId)
+                .filter(h -> documentId.equals(h.getDocumentId()))
+                .orElseThrow(() -> new NotFoundException("History entry not found: " + beforeId));
+        return historyRepo.findPageBefore(documentId, cursor.getTimestamp(), cursor.getId(), limit);
     }
 
     @Override
@@ -566,12 +748,21 @@ public class DocumentServiceImpl implements DocumentService {
         String oldKey = d.getFileKey();
         d.setFileKey(fileKey);
         docRepo.save(d);
+        storedFileService.retain(fileKey);
+        storedFileService.release(oldKey);
+        contentService.schedule(d);
         logHistory(d, "FILE_ATTACHED", oldKey, fileKey, user, "File stored via file-storage service");
     }
 
     @Transactional
     @Override
     public void attachFileWithMetadata(String documentId, String fileKey, org.springframework.web.multipart.MultipartFile file, String user) {
+        attachStoredFile(documentId, fileKey, file.getOriginalFilename(), file.getContentType(), file.getSize(), user);
+    }
+
+    @Transactional
+    @Override
+    public void attachStoredFile(String documentId, String fileKey, String filename, String contentType, long size, String user) {
         Document d = docRepo.findById(documentId)
                 .orElseThrow(() -> new NotFoundException("Document not found"));
         
@@ -581,19 +772,25 @@ public class DocumentServiceImpl implements DocumentService {
         d.setFileKey(fileKey);
         
         // Set file metadata
-        d.setOriginalFilename(file.getOriginalFilename());
-        d.setContentType(file.getContentType());
-        d.setFileSize(file.getSize());
+        d.setOriginalFilename(filename);
+        d.setContentType(contentType);
+        d.setFileSize(size);
         d.setFileUploadedAt(LocalDateTime.now());
         
-        // Determine storage location based on fileKey prefix or MinIO availability
-        // For now, assume MINIO since that's the primary storage
-        d.setStorageLocation("MINIO");
+        // Where the file was written; it may move between tiers later, reads go through the location index
+        d.setStorageLocation(storedFileService.locate(fileKey));
         
         docRepo.save(d);
+
+        // The new key's reference was taken when the file was stored; drop the replaced one
+        storedFileService.release(oldKey);
+
+        // Thumbnails, previews and the searchable text are produced in the background
+        previewService.schedule(fileKey, contentType, filename);
+        contentService.schedule(d);
         
         logHistory(d, "FILE_ATTACHED", oldKey, fileKey, user, 
-                  String.format("File stored: %s (%d bytes)", file.getOriginalFilename(), file.getSize()));
+                  String.format("File stored: %s (%d bytes)", filename, size));
     }
 
     @Transactional
@@ -609,31 +806,31 @@ public class DocumentServiceImpl implements DocumentService {
         d.setStorageLocation(null);
         d.setFileUploadedAt(null);
         docRepo.save(d);
+        // Removed from storage once no other version uses it
+        storedFileService.release(oldKey);
+        contentService.schedule(d);
         logHistory(d, "FILE_DELETED", oldKey, null, "SYSTEM", "File deleted from storage");
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PENDING_REVIEWS, allEntries = true)
     public void deleteDocument(String documentId) {
         Document document = docRepo.findById(documentId)
                 .orElseThrow(() -> new NotFoundException("Document not found: " + documentId));
 
-        // Delete the file from storage (MinIO or local) if exists
-        if (document.getFileKey() != null && !document.getFileKey().isEmpty()) {
-            boolean deleted = fileStorageGateway.delete(document.getFileKey());
-            if (deleted) {
-                System.out.println("INFO: File deleted from storage: " + document.getFileKey());
-            } else {
-                System.out.println("WARN: Failed to delete file from storage: " + document.getFileKey());
-            }
-        }
-
-        // Delete all history records for this document
-        List<DocumentHistory> historyList = historyRepo.findByDocumentIdOrderByTimestampDesc(documentId);
-        historyRepo.deleteAll(historyList);
+        // Delete all history records for this document in one statement
+        historyWriter.discard(documentId);
+        int deletedHistory = historyRepo.deleteAllByDocumentIdInBulk(documentId);
+        log.debug("Deleted {} history entries for {}", deletedHistory, documentId);
+        reviewAssignmentRepo.deleteByDocumentIdInBulk(documentId);
 
         // Delete the document from database
         docRepo.delete(document);
+
+        // Release its file; other versions may still share it, so storage is only
+        // cleaned up when this was the last reference
+        storedFileService.release(document.getFileKey());
         
         // Delete from Elasticsearch
         try {
@@ -643,6 +840,19 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
+    @Override
+    public List<Document> getPendingReviews(String reviewerId, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_REVIEW_PAGE_SIZE));
+        List<String> ids = reviewInbox.documentIds(reviewerId, Math.max(0, page), pageSize);
+        // Loaded fresh on every call; the cache only holds the ids, in inbox order
+        Map<String, Document> byId = new HashMap<>();
+        docRepo.findAllById(ids).forEach(d -> byId.put(d.getId(), d));
+        return ids.stream()
+                .map(byId::get)
+                .filter(d -> d != null && d.getStatus() == Status.IN_REVIEW)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Document> getDocumentsByPartId(String partId) {
         return docRepo.findByPartId(partId);
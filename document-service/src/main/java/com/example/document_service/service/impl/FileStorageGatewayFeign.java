@@ -1,28 +1,57 @@
 package com.example.document_service.service.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.document_service.client.FileStorageClient;
+import com.example.document_service.model.FileLocation;
+import com.example.document_service.service.FileLocationIndex;
+import com.example.document_service.service.StorageTierMover;
+import com.example.document_service.service.gateway.FileDownload;
 import com.example.document_service.service.gateway.FileStorageGateway;
+import com.example.document_service.service.gateway.PresignedUrl;
+import com.example.document_service.service.gateway.StorageBackend;
+
+import feign.Response;
 
+/**
+ * Storage access through the {@link StorageBackend}s. Writes go to the primary backend (local
+ * disk when tiering is enabled, MinIO otherwise) and fall back to the other one; reads resolve
+ * through the {@link FileLocationIndex}, probing the backends (and finally file-storage-service)
+ * only for files the index doesn't know yet.
+ */
 @Component
 public class FileStorageGatewayFeign implements FileStorageGateway {
 
     private static final Logger logger = LoggerFactory.getLogger(FileStorageGatewayFeign.class);
 
     private final MinIOFileStorageService minIOFileStorageService;
-    private final LocalFileStorageService localFileStorageService;
     private final FileStorageClient client;
+    private final FileLocationIndex locationIndex;
+    private final StorageTierMover tierMover;
+
+    // Write preference order: primary first
+    private final List<StorageBackend> backends;
 
     public FileStorageGatewayFeign(MinIOFileStorageService minIOFileStorageService,
                                    LocalFileStorageService localFileStorageService,
-                                   FileStorageClient client) {
+                                   FileStorageClient client,
+                                   FileLocationIndex locationIndex,
+                                   StorageTierMover tierMover) {
         this.minIOFileStorageService = minIOFileStorageService;
-        this.localFileStorageService = localFileStorageService;
         this.client = client;
+        this.locationIndex = locationIndex;
+        this.tierMover = tierMover;
+        this.backends = tierMover.isEnabled()
+                ? List.of(localFileStorageService, minIOFileStorageService)
+                : List.of(minIOFileStorageService, localFileStorageService);
     }
 
     @Override
@@ -42,95 +71,237 @@ public class FileStorageGatewayFeign implements FileStorageGateway {
         }
 
         String filename = documentId + "_" + originalFilename;
+        return store(filename, file);
+    }
+
+    @Override
+    public String store(String filename, MultipartFile file) {
         logger.info("Processing file upload - Filename: {}", filename);
 
-        // Try MinIO first
-        String savedFilename = minIOFileStorageService.saveFile(filename, file);
-        if (!"error-saving-file".equals(savedFilename)) {
-            logger.info("File uploaded to MinIO storage: {}", savedFilename);
-            return savedFilename;
+        for (StorageBackend backend : backends) {
+            String savedFilename = backend.saveFile(filename, file);
+            if (!StorageBackend.SAVE_FAILED.equals(savedFilename)) {
+                logger.info("File uploaded to {} storage: {}", backend.name(), savedFilename);
+                locationIndex.record(filename, backend.name(), file.getSize());
+                return savedFilename;
+            }
+            logger.warn("{} storage failed for: {}", backend.name(), filename);
+        }
+        return StorageBackend.SAVE_FAILED;
+    }
+
+    @Override
+    public String store(String fileKey, byte[] content, String contentType) {
+        for (StorageBackend backend : backends) {
+            String savedFilename = backend.saveFile(fileKey, content, contentType);
+            if (!StorageBackend.SAVE_FAILED.equals(savedFilename)) {
+                locationIndex.record(fileKey, backend.name(), content.length);
+                return savedFilename;
+            }
+            logger.warn("{} storage failed for: {}", backend.name(), fileKey);
+        }
+        return StorageBackend.SAVE_FAILED;
+    }
+
+    @Override
+    public FileDownload download(String fileKey) {
+        FileLocation location = locationIndex.find(fileKey);
+        StorageBackend indexed = location != null ? backend(location.getBackend()) : null;
+        if (indexed != null) {
+            FileDownload download = indexed.openFile(fileKey);
+            if (download != null) {
+                logger.info("Streaming file from {} storage: {}", indexed.name(), fileKey);
+                afterRead(location);
+                return download;
+            }
+            logger.warn("File {} not found on indexed {} storage", fileKey, indexed.name());
+        }
+
+        // Not indexed yet (or the index is stale): probe, and remember where it was found
+        for (StorageBackend backend : backends) {
+            if (backend == indexed) {
+                continue;
+            }
+            FileDownload download = backend.openFile(fileKey);
+            if (download != null) {
+                logger.info("Streaming file from {} storage: {}", backend.name(), fileKey);
+                locationIndex.record(fileKey, backend.name(), download.getContentLength());
+                return download;
+            }
         }
 
-        // Fallback to local storage
-        logger.warn("MinIO failed, falling back to local storage for: {}", filename);
-        savedFilename = localFileStorageService.saveFile(filename, file);
-        logger.info("File uploaded to local storage: {}", savedFilename);
-        return savedFilename;
+        // Last resort: stream through file-storage-service
+        FileDownload download = downloadFromFileStorageService(fileKey, null, 200);
+        if (download == null) {
+            logger.error("File not found in any storage: {}", fileKey);
+        }
+        return download;
     }
 
     @Override
-    public byte[] download(String fileKey) {
-        // Try MinIO first
+    public FileDownload download(String fileKey, long offset, long length) {
+        FileLocation location = locationIndex.find(fileKey);
+        StorageBackend indexed = location != null ? backend(location.getBackend()) : null;
+        if (indexed != null) {
+            FileDownload download = indexed.openFile(fileKey, offset, length);
+            if (download != null) {
+                afterRead(location);
+                return download;
+            }
+        }
+
+        for (StorageBackend backend : backends) {
+            if (backend == indexed) {
+                continue;
+            }
+            FileDownload download = backend.openFile(fileKey, offset, length);
+            if (download != null) {
+                return download;
+            }
+        }
+
+        // Last resort: ask file-storage-service for the same range
+        String range = "bytes=" + offset + "-" + (offset + length - 1);
+        FileDownload download = downloadFromFileStorageService(fileKey, range, 206);
+        if (download == null) {
+            logger.error("File range not found in any storage: {} ({})", fileKey, range);
+        }
+        return download;
+    }
+
+    private void afterRead(FileLocation location) {
+        boolean promote = tierMover.shouldPromote(location);  // judged on the previous read time
+        locationIndex.touch(location);
+        if (promote) {
+            tierMover.promoteAsync(location.getFileKey());
+        }
+    }
+
+    private FileDownload downloadFromFileStorageService(String fileKey, String range, int expectedStatus) {
+        Response response = null;
         try {
-            byte[] data = minIOFileStorageService.getFile(fileKey);
-            if (data.length > 0) {
-                logger.info("File downloaded from MinIO storage: {}", fileKey);
-                return data;
+            response = client.downloadFile(fileKey, range);
+            if (response.status() != expectedStatus || response.body() == null) {
+                response.close();
+                return null;
             }
+            Integer length = response.body().length();
+            String contentType = response.headers().getOrDefault(HttpHeaders.CONTENT_TYPE, List.of())
+                    .stream().findFirst().orElse(null);
+            logger.info("Streaming file from file-storage-service: {}", fileKey);
+            // Closing the body stream releases the underlying connection
+            return new FileDownload(response.body().asInputStream(), length != null ? length : -1, contentType);
         } catch (Exception e) {
-            logger.warn("MinIO download failed: {}", e.getMessage());
+            logger.warn("file-storage-service download failed: {}", e.getMessage());
+            if (response != null) {
+                response.close();
+            }
+            return null;
         }
+    }
 
-        // Fallback to local storage
-        logger.warn("Trying local storage for file: {}", fileKey);
-        byte[] data = localFileStorageService.getFile(fileKey);
-        if (data.length > 0) {
-            logger.info("File downloaded from local storage: {}", fileKey);
-        } else {
-            logger.error("File not found in any storage: {}", fileKey);
+    /**
+     * Only objects in MinIO can be transferred directly; files on local disk go through the service
+     */
+    @Override
+    public PresignedUrl presignUpload(String fileKey) {
+        return minIOFileStorageService.presignUpload(fileKey);
+    }
+
+    /**
+     * Only for files in MinIO. A file the index doesn't know yet (e.g. a legacy local file) is
+     * looked up in MinIO first and recorded there if found; otherwise there is no URL and the
+     * client uses {@code /download}
+     */
+    @Override
+    public PresignedUrl presignDownload(String fileKey, String downloadName, String contentType) {
+        FileLocation location = locationIndex.find(fileKey);
+        if (location == null) {
+            long size = minIOFileStorageService.getFileSize(fileKey);
+            if (size < 0) {
+                return null;
+            }
+            locationIndex.record(fileKey, MinIOFileStorageService.NAME, size);
+        } else if (!MinIOFileStorageService.NAME.equals(location.getBackend())) {
+            return null;
         }
-        return data;
+        return minIOFileStorageService.presignDownload(fileKey, downloadName, contentType);
     }
 
+    /**
+     * Removes every copy (a promoted file also stays on MinIO) and the index entry
+     */
     @Override
     public boolean delete(String fileKey) {
         logger.info("Attempting to delete file: {}", fileKey);
-        
-        // Try MinIO first
-        boolean deletedFromMinio = minIOFileStorageService.deleteFile(fileKey);
-        if (deletedFromMinio) {
-            logger.info("File deleted from MinIO storage: {}", fileKey);
-            return true;
-        }
 
-        // Fallback to local storage
-        logger.warn("Trying to delete from local storage: {}", fileKey);
-        boolean deletedFromLocal = localFileStorageService.deleteFile(fileKey);
-        if (deletedFromLocal) {
-            logger.info("File deleted from local storage: {}", fileKey);
-            return true;
+        List<String> deletedFrom = new ArrayList<>();
+        for (StorageBackend backend : backends) {
+            if (backend.deleteFile(fileKey)) {
+                deletedFrom.add(backend.name());
+            }
         }
+        locationIndex.remove(fileKey);
 
-        logger.error("Failed to delete file from any storage: {}", fileKey);
-        return false;
+        if (deletedFrom.isEmpty()) {
+            logger.error("Failed to delete file from any storage: {}", fileKey);
+            return false;
+        }
+        logger.info("File deleted from {} storage: {}", deletedFrom, fileKey);
+        return true;
     }
 
     @Override
     public boolean exists(String fileKey) {
-        // Check MinIO first
-        if (minIOFileStorageService.fileExists(fileKey)) {
-            logger.debug("File exists in MinIO: {}", fileKey);
+        FileLocation location = locationIndex.find(fileKey);
+        StorageBackend indexed = location != null ? backend(location.getBackend()) : null;
+        if (indexed != null && indexed.fileExists(fileKey)) {
             return true;
         }
-
-        // Check local storage
-        boolean existsInLocal = localFileStorageService.fileExists(fileKey);
-        logger.debug("File {} in local storage: {}", existsInLocal ? "exists" : "does not exist", fileKey);
-        return existsInLocal;
+        for (StorageBackend backend : backends) {
+            if (backend != indexed && backend.fileExists(fileKey)) {
+                logger.debug("File exists in {}: {}", backend.name(), fileKey);
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public long getFileSize(String fileKey) {
-        // Try MinIO first
-        long size = minIOFileStorageService.getFileSize(fileKey);
-        if (size > 0) {
-            logger.debug("File size from MinIO: {} bytes for {}", size, fileKey);
-            return size;
+        FileLocation location = locationIndex.find(fileKey);
+        StorageBackend indexed = location != null ? backend(location.getBackend()) : null;
+        if (indexed != null) {
+            long size = indexed.getFileSize(fileKey);
+            if (size >= 0) {
+                return size;
+            }
+        }
+        for (StorageBackend backend : backends) {
+            if (backend == indexed) {
+                continue;
+            }
+            long size = backend.getFileSize(fileKey);
+            if (size >= 0) {
+                logger.debug("File size from {}: {} bytes for {}", backend.name(), size, fileKey);
+                return size;
+            }
         }
+        return -1;
+    }
+
+    @Override
+    public String locate(String fileKey) {
+        FileLocation location = locationIndex.find(fileKey);
+        return location != null ? location.getBackend() : null;
+    }
 
-        // Try local storage
-        size = localFileStorageService.getFileSize(fileKey);
-        logger.debug("File size from local storage: {} bytes for {}", size, fileKey);
-        return size;
+    private StorageBackend backend(String name) {
+        for (StorageBackend backend : backends) {
+            if (backend.name().equals(name)) {
+                return backend;
+            }
+        }
+        return null;
     }
 }
@@ -1,54 +1,184 @@
 package com.example.document_service.service.impl;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.document_service.service.gateway.FileDownload;
+import com.example.document_service.service.gateway.StorageBackend;
+import com.example.document_service.service.gateway.StoredObject;
+
+/**
+ * Local-disk storage: the fallback when MinIO is down, and the hot tier when tiering is enabled.
+ *
+ * Files are sharded two levels deep by a hash of the file key
+ * ({@code temp-uploads/ab/cd/<key>}) so no single directory grows to hundreds of
+ * thousands of entries. Files written before sharding are still found in the flat directory.
+ *
+ * Downloads hand out a {@link FileChannel}-backed stream together with the file path, so the
+ * web layer can let the container send the file with {@code sendfile} instead of copying it.
+ */
 @Service
-public class LocalFileStorageService {
+public class LocalFileStorageService implements StorageBackend {
+
+    public static final String NAME = "LOCAL";
 
     private final String UPLOAD_DIR = "temp-uploads";
 
+    private final Path root;
+
     public LocalFileStorageService() {
+        this.root = Paths.get(UPLOAD_DIR).toAbsolutePath().normalize();
         try {
-            Files.createDirectories(Paths.get(UPLOAD_DIR));
+            Files.createDirectories(root);
         } catch (IOException e) {
             System.err.println("Could not create upload directory: " + e.getMessage());
         }
     }
 
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
     public String saveFile(String filename, MultipartFile file) {
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
-            Files.copy(file.getInputStream(), filePath);
-            System.out.println("INFO: File saved locally: " + filePath.toAbsolutePath());
+            Path filePath = shardedPath(filename);
+            if (filePath == null) {
+                System.err.println("Failed to save file, invalid file key: " + filename);
+                return "error-saving-file";
+            }
+            Files.createDirectories(filePath.getParent());
+            // An absolute target lets the container move its spooled upload into place
+            // (a rename on the same file system) instead of copying the stream
+            file.transferTo(new File(filePath.toString()));
+            System.out.println("INFO: File saved locally: " + filePath);
+            return filename;
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Failed to save file: " + e.getMessage());
+            return "error-saving-file";
+        }
+    }
+
+    @Override
+    public String saveFile(String filename, byte[] content, String contentType) {
+        return saveFile(filename, content);
+    }
+
+    public String saveFile(String filename, byte[] content) {
+        try {
+            Path filePath = shardedPath(filename);
+            if (filePath == null) {
+                System.err.println("Failed to save file, invalid file key: " + filename);
+                return "error-saving-file";
+            }
+            Files.createDirectories(filePath.getParent());
+            Files.write(filePath, content);
+            return filename;
+        } catch (IOException e) {
+            System.err.println("Failed to save file: " + e.getMessage());
+            return "error-saving-file";
+        }
+    }
+
+    /**
+     * Write a stream to a temp file next to the target and move it into place, so readers
+     * never see a partly written file
+     */
+    @Override
+    public String saveFile(String filename, InputStream in, long size, String contentType) {
+        Path temp = null;
+        try {
+            Path filePath = shardedPath(filename);
+            if (filePath == null) {
+                System.err.println("Failed to save file, invalid file key: " + filename);
+                return "error-saving-file";
+            }
+            Files.createDirectories(filePath.getParent());
+            temp = Files.createTempFile(filePath.getParent(), ".incoming-", ".tmp");
+            long written = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            if (size >= 0 && written != size) {
+                System.err.println("Failed to save file, expected " + size + " bytes but got " + written + ": " + filename);
+                return "error-saving-file";
+            }
+            Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
             return filename;
         } catch (IOException e) {
             System.err.println("Failed to save file: " + e.getMessage());
             return "error-saving-file";
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // nothing more to do
+                }
+            }
         }
     }
 
-    public byte[] getFile(String filename) {
+    @Override
+    public FileDownload openFile(String filename) {
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
-            return Files.readAllBytes(filePath);
+            Path filePath = resolve(filename);
+            if (filePath == null) {
+                return null;
+            }
+            FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            return new FileDownload(Channels.newInputStream(channel), channel.size(),
+                                    Files.probeContentType(filePath), filePath);
         } catch (IOException e) {
             System.err.println("Failed to read file: " + e.getMessage());
-            return new byte[0];
+            return null;
         }
     }
 
+    /**
+     * Open {@code length} bytes of a local file starting at {@code offset}
+     */
+    @Override
+    public FileDownload openFile(String filename, long offset, long length) {
+        try {
+            Path filePath = resolve(filename);
+            if (filePath == null) {
+                return null;
+            }
+            FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            return new FileDownload(new FileChannelRangeInputStream(channel, offset, length), length,
+                                    Files.probeContentType(filePath), filePath);
+        } catch (IOException e) {
+            System.err.println("Failed to read file range: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
     public boolean deleteFile(String filename) {
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
-            boolean deleted = Files.deleteIfExists(filePath);
+            Path filePath = resolve(filename);
+            boolean deleted = filePath != null && Files.deleteIfExists(filePath);
             if (deleted) {
-                System.out.println("INFO: File deleted locally: " + filePath.toAbsolutePath());
+                System.out.println("INFO: File deleted locally: " + filePath);
             }
             return deleted;
         } catch (IOException e) {
@@ -57,15 +187,16 @@ public class LocalFileStorageService {
         }
     }
 
+    @Override
     public boolean fileExists(String filename) {
-        Path filePath = Paths.get(UPLOAD_DIR, filename);
-        return Files.exists(filePath);
+        return resolve(filename) != null;
     }
 
+    @Override
     public long getFileSize(String filename) {
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, filename);
-            if (Files.exists(filePath)) {
+            Path filePath = resolve(filename);
+            if (filePath != null) {
                 return Files.size(filePath);
             }
             return -1;
@@ -74,4 +205,85 @@ public class LocalFileStorageService {
             return -1;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Files in path order, depth first with the entries of each directory sorted by name.
+     * Positions are paths relative to the upload directory. Files that don't resolve back
+     * from their key (a flat file shadowed by a sharded one) are left out.
+     */
+    @Override
+    public List<StoredObject> listFiles(String after, int limit) {
+        List<StoredObject> files = new ArrayList<>();
+        try {
+            list(root, after != null ? Arrays.asList(after.split("/")) : List.of(), files, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + root, e);
+        }
+        return files;
+    }
+
+    private void list(Path dir, List<String> after, List<StoredObject> files, int limit) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> stream = Files.list(dir)) {
+            entries = stream.sorted(Comparator.comparing(entry -> entry.getFileName().toString())).toList();
+        }
+        String start = after.isEmpty() ? null : after.get(0);
+        for (Path entry : entries) {
+            if (files.size() >= limit) {
+                return;
+            }
+            String name = entry.getFileName().toString();
+            int order = start == null ? 1 : name.compareTo(start);
+            if (order < 0) {
+                continue;
+            }
+            if (Files.isDirectory(entry)) {
+                list(entry, order == 0 ? after.subList(1, after.size()) : List.of(), files, limit);
+            } else if (order > 0 && Files.isRegularFile(entry)) {
+                StoredObject file = listed(entry);
+                if (file != null) {
+                    files.add(file);
+                }
+            }
+        }
+    }
+
+    private StoredObject listed(Path file) throws IOException {
+        String position = root.relativize(file).toString().replace(File.separatorChar, '/');
+        String[] parts = position.split("/");
+        String key = parts.length > 2 ? String.join("/", Arrays.copyOfRange(parts, 2, parts.length)) : null;
+        if (key == null || !file.equals(shardedPath(key))) {
+            key = position;  // not in its shard: a legacy flat file
+        }
+        if (!file.equals(resolve(key))) {
+            return null;
+        }
+        return new StoredObject(key, Files.size(file), Files.getLastModifiedTime(file).toInstant(), position);
+    }
+
+    /**
+     * Where a file with this key is written: two directory levels taken from an MD5 of the key.
+     * Null for keys that would escape the upload directory.
+     */
+    private Path shardedPath(String filename) {
+        String hash = DigestUtils.md5DigestAsHex(filename.getBytes(StandardCharsets.UTF_8));
+        return insideRoot(root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(filename));
+    }
+
+    /**
+     * Existing file for this key, in its shard or in the legacy flat directory; null if none
+     */
+    private Path resolve(String filename) {
+        Path sharded = shardedPath(filename);
+        if (sharded != null && Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path legacy = insideRoot(root.resolve(filename));
+        return legacy != null && Files.isRegularFile(legacy) ? legacy : null;
+    }
+
+    private Path insideRoot(Path path) {
+        Path normalized = path.normalize();
+        return normalized.startsWith(root) ? normalized : null;
+    }
+}
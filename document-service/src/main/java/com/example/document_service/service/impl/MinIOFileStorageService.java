@@ -1,11 +1,19 @@
 package com.example.document_service.service.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.InvalidKeyException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,8 +22,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.document_service.service.gateway.FileDownload;
+import com.example.document_service.service.gateway.PresignedUrl;
+import com.example.document_service.service.gateway.StorageBackend;
+import com.example.document_service.service.gateway.StoredObject;
+
 import io.minio.BucketExistsArgs;
 import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
@@ -25,10 +39,13 @@ import io.minio.Result;
 import io.minio.StatObjectArgs;
 import io.minio.StatObjectResponse;
 import io.minio.errors.MinioException;
+import io.minio.http.Method;
 import io.minio.messages.Item;
 
 @Service
-public class MinIOFileStorageService {
+public class MinIOFileStorageService implements StorageBackend {
+
+    public static final String NAME = "MINIO";
 
     private static final Logger logger = LoggerFactory.getLogger(MinIOFileStorageService.class);
 
@@ -38,12 +55,36 @@ public class MinIOFileStorageService {
     @Value("${minio.bucket}")
     private String bucketName;
 
+    // Presigned URLs are signed for the address clients use, which is usually not minio.url
+    @Value("${minio.public-url:${minio.url}}")
+    private String publicUrl;
+
+    @Value("${minio.access-key}")
+    private String accessKey;
+
+    @Value("${minio.secret-key}")
+    private String secretKey;
+
+    @Value("${minio.region:us-east-1}")
+    private String region;
+
+    @Value("${plm.files.presign-expiry:5m}")
+    private Duration presignExpiry;
+
+    private volatile MinioClient presignClient;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
     /**
      * Save file to MinIO
      * @param filename The filename to store in MinIO
      * @param file The file to upload
      * @return The stored filename or "error-saving-file" on failure
      */
+    @Override
     public String saveFile(String filename, MultipartFile file) {
         try {
             // Create bucket if it doesn't exist
@@ -83,12 +124,74 @@ public class MinIOFileStorageService {
     }
 
     /**
-     * Get file from MinIO
+     * Save small in-memory content (e.g. generated previews) to MinIO
+     * @param filename The object name
+     * @param content The bytes to store
+     * @param contentType MIME type of the content
+     * @return The stored filename or "error-saving-file" on failure
+     */
+    @Override
+    public String saveFile(String filename, byte[] content, String contentType) {
+        try {
+            minioClient.putObject(
+                PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(filename)
+                    .stream(new ByteArrayInputStream(content), content.length, -1)
+                    .contentType(contentType)
+                    .build()
+            );
+            logger.debug("Content uploaded to MinIO - Bucket: {}, File: {}, Size: {} bytes",
+                        bucketName, filename, content.length);
+            return filename;
+        } catch (MinioException | IOException | InvalidKeyException | NoSuchAlgorithmException e) {
+            logger.error("Failed to save content to MinIO: {} - Error: {}", filename, e.getMessage());
+            return "error-saving-file";
+        }
+    }
+
+    /**
+     * Save a stream of known size to MinIO (e.g. a file moved from another storage tier)
+     * @param filename The object name
+     * @param in The content; not closed here
+     * @param size Number of bytes in the stream
+     * @param contentType MIME type of the content, or null
+     * @return The stored filename or "error-saving-file" on failure
+     */
+    @Override
+    public String saveFile(String filename, InputStream in, long size, String contentType) {
+        try {
+            PutObjectArgs.Builder args = PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(filename)
+                .stream(in, size, -1);
+            if (contentType != null) {
+                args.contentType(contentType);
+            }
+            minioClient.putObject(args.build());
+            logger.debug("Stream uploaded to MinIO - Bucket: {}, File: {}, Size: {} bytes",
+                        bucketName, filename, size);
+            return filename;
+        } catch (MinioException | IOException | InvalidKeyException | NoSuchAlgorithmException e) {
+            logger.error("Failed to save stream to MinIO: {} - Error: {}", filename, e.getMessage());
+            return "error-saving-file";
+        }
+    }
+
+    /**
+     * Open a file in MinIO for streaming
      * @param filename The filename to retrieve
-     * @return Byte array of file contents or empty array on failure
+     * @return Open stream with size and content type, or null if the object can't be read
      */
-    public byte[] getFile(String filename) {
+    @Override
+    public FileDownload openFile(String filename) {
         try {
+            StatObjectResponse stat = minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(filename)
+                    .build()
+            );
             InputStream stream = minioClient.getObject(
                 GetObjectArgs.builder()
                     .bucket(bucketName)
@@ -96,23 +199,114 @@ public class MinIOFileStorageService {
                     .build()
             );
 
-            byte[] data = stream.readAllBytes();
-            stream.close();
-            logger.info("File retrieved from MinIO - Bucket: {}, File: {}, Size: {} bytes", 
-                       bucketName, filename, data.length);
-            return data;
+            logger.info("File opened from MinIO - Bucket: {}, File: {}, Size: {} bytes",
+                       bucketName, filename, stat.size());
+            return new FileDownload(stream, stat.size(), stat.contentType());
 
         } catch (MinioException | IOException | InvalidKeyException | NoSuchAlgorithmException e) {
             logger.error("Failed to read file from MinIO: {} - Error: {}", filename, e.getMessage(), e);
-            return new byte[0];
+            return null;
         }
     }
 
+    /**
+     * Open a byte range of a file in MinIO; only the requested bytes are transferred
+     * @param filename The filename to retrieve
+     * @param offset First byte of the range
+     * @param length Number of bytes in the range
+     * @return Open stream over the range, or null if the object can't be read
+     */
+    @Override
+    public FileDownload openFile(String filename, long offset, long length) {
+        try {
+            InputStream stream = minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(filename)
+                    .offset(offset)
+                    .length(length)
+                    .build()
+            );
+            logger.debug("File range opened from MinIO - Bucket: {}, File: {}, Offset: {}, Length: {}",
+                        bucketName, filename, offset, length);
+            return new FileDownload(stream, length, null);
+
+        } catch (MinioException | IOException | InvalidKeyException | NoSuchAlgorithmException e) {
+            logger.error("Failed to read file range from MinIO: {} - Error: {}", filename, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Presigned PUT URL for uploading straight to MinIO
+     * @param filename The object name the client will write
+     * @return The signed URL, or null if it can't be created
+     */
+    public PresignedUrl presignUpload(String filename) {
+        return presign(Method.PUT, filename, Map.of());
+    }
+
+    /**
+     * Presigned GET URL for downloading straight from MinIO
+     * @param filename The object name to read
+     * @param downloadName Filename MinIO sends in Content-Disposition, or null
+     * @param contentType Content type MinIO sends, or null for the stored one
+     * @return The signed URL, or null if it can't be created
+     */
+    public PresignedUrl presignDownload(String filename, String downloadName, String contentType) {
+        Map<String, String> params = new HashMap<>();
+        if (downloadName != null && !downloadName.isBlank()) {
+            params.put("response-content-disposition", "attachment; filename*=UTF-8''"
+                    + URLEncoder.encode(downloadName, StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        if (contentType != null && !contentType.isBlank()) {
+            params.put("response-content-type", contentType);
+        }
+        return presign(Method.GET, filename, params);
+    }
+
+    private PresignedUrl presign(Method method, String filename, Map<String, String> queryParams) {
+        try {
+            Instant expiresAt = Instant.now().plus(presignExpiry);
+            String url = presignClient().getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(bucketName)
+                    .object(filename)
+                    .expiry((int) presignExpiry.toSeconds(), TimeUnit.SECONDS)
+                    .extraQueryParams(queryParams)
+                    .build()
+            );
+            logger.debug("Presigned {} URL created - Bucket: {}, File: {}", method, bucketName, filename);
+            return new PresignedUrl(url, method.name(), expiresAt);
+        } catch (Exception e) {
+            logger.error("Failed to presign {} URL for {} - Error: {}", method, filename, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Signing happens locally; a fixed region keeps the client from looking it up on the public endpoint
+     */
+    private MinioClient presignClient() {
+        MinioClient client = presignClient;
+        if (client == null) {
+            client = MinioClient.builder()
+                .endpoint(publicUrl)
+                .region(region)
+                .credentials(accessKey, secretKey)
+                .build();
+            presignClient = client;
+        }
+        return client;
+    }
+
     /**
      * Delete file from MinIO
      * @param filename The filename to delete
      * @return true if deletion was successful, false otherwise
      */
+    @Override
     public boolean deleteFile(String filename) {
         try {
             minioClient.removeObject(
@@ -134,6 +328,7 @@ public class MinIOFileStorageService {
      * @param filename The filename to check
      * @return true if file exists, false otherwise
      */
+    @Override
     public boolean fileExists(String filename) {
         try {
             minioClient.statObject(
@@ -155,6 +350,7 @@ public class MinIOFileStorageService {
      * @param filename The filename to check
      * @return File size in bytes, or -1 if file doesn't exist
      */
+    @Override
     public long getFileSize(String filename) {
         try {
             StatObjectResponse stat = minioClient.statObject(
@@ -198,6 +394,42 @@ public class MinIOFileStorageService {
         return files;
     }
 
+    /**
+     * List objects in key order, one listing request per page
+     * @param after Key to continue after, or null to start at the beginning
+     * @param limit Maximum number of objects returned
+     * @return Objects with their size and last modification time
+     */
+    @Override
+    public List<StoredObject> listFiles(String after, int limit) {
+        List<StoredObject> files = new ArrayList<>();
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+            .bucket(bucketName)
+            .recursive(true)
+            .maxKeys(Math.min(limit, 1000));
+        if (after != null) {
+            args.startAfter(after);
+        }
+        try {
+            // The iterable pages lazily, so only as many pages as needed for the limit are fetched
+            for (Result<Item> result : minioClient.listObjects(args.build())) {
+                Item item = result.get();
+                if (item.isDir()) {
+                    continue;
+                }
+                Instant lastModified = item.lastModified() != null ? item.lastModified().toInstant() : Instant.EPOCH;
+                files.add(new StoredObject(item.objectName(), item.size(), lastModified, item.objectName()));
+                if (files.size() >= limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to list files in MinIO after {} - Error: {}", after, e.getMessage());
+            throw new IllegalStateException("Failed to list MinIO bucket " + bucketName, e);
+        }
+        return files;
+    }
+
     /**
      * Check if MinIO is healthy and accessible
      * @return true if MinIO is accessible, false otherwise
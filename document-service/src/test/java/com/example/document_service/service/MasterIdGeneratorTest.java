@@ -0,0 +1,44 @@
+package com.example.document_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MasterIdGeneratorTest {
+
+    private final IdBlockAllocator allocator = mock(IdBlockAllocator.class);
+    private MasterIdGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        when(allocator.reserve(anyString(), anyInt(), anyLong())).thenReturn(10000L, 10004L);
+        generator = new MasterIdGenerator(allocator, "DOC-%04d", 4, 10000);
+    }
+
+    @Test
+    void handsOutTheBlockBeforeReservingTheNext() {
+        for (int n = 10000; n < 10005; n++) {
+            assertEquals("DOC-" + n, generator.nextId());
+        }
+
+        verify(allocator, times(2)).reserve(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void skipsIdsReservedByTheBatchAndRefillsAcrossBlocks() {
+        List<String> ids = generator.nextIds(4, Set.of("DOC-10001", "DOC-10002"));
+
+        assertEquals(List.of("DOC-10000", "DOC-10003", "DOC-10004", "DOC-10005"), ids);
+    }
+}
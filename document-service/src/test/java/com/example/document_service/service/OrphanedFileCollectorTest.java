@@ -0,0 +1,166 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.FileSweepCheckpoint;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.repository.FileLocationRepository;
+import com.example.document_service.repository.FileSweepCheckpointRepository;
+import com.example.document_service.repository.StoredFileRepository;
+import com.example.document_service.service.gateway.StoredObject;
+import com.example.document_service.service.impl.LocalFileStorageService;
+import com.example.document_service.service.impl.MinIOFileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * One sweep of a mocked object store against in-memory references: a file is kept while a
+ * document version or stored-file record points at it, and its previews and extracted text
+ * are kept with it.
+ */
+class OrphanedFileCollectorTest {
+
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(7));
+
+    private final FileSweepCheckpointRepository checkpointRepo = mock(FileSweepCheckpointRepository.class);
+    private final DocumentRepository docRepo = mock(DocumentRepository.class);
+    private final StoredFileRepository storedFileRepo = mock(StoredFileRepository.class);
+    private final FileLocationRepository locationRepo = mock(FileLocationRepository.class);
+    private final MinIOFileStorageService minio = mock(MinIOFileStorageService.class);
+    private final LocalFileStorageService local = mock(LocalFileStorageService.class);
+
+    // Keys the Document and StoredFile tables point at
+    private final Set<String> documentKeys = new HashSet<>();
+    private final Set<String> storedFileKeys = new HashSet<>();
+    private final List<StoredObject> listed = new ArrayList<>();
+    private final List<String> deleted = new ArrayList<>();
+
+    private OrphanedFileCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        when(minio.name()).thenReturn(MinIOFileStorageService.NAME);
+        when(local.name()).thenReturn(LocalFileStorageService.NAME);
+        when(minio.listFiles(any(), anyInt())).thenAnswer(inv -> List.copyOf(listed));
+        when(local.listFiles(any(), anyInt())).thenReturn(List.of());
+        when(minio.deleteFile(anyString())).thenAnswer(inv -> {
+            synchronized (deleted) {
+                deleted.add(inv.getArgument(0));
+            }
+            return true;
+        });
+
+        when(checkpointRepo.existsById(anyString())).thenReturn(true);
+        when(checkpointRepo.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(checkpointRepo.findById(anyString()))
+                .thenAnswer(inv -> Optional.of(new FileSweepCheckpoint(inv.getArgument(0))));
+        when(checkpointRepo.save(any(FileSweepCheckpoint.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        when(docRepo.findFileKeysIn(anyCollection())).thenAnswer(inv -> matching(inv.getArgument(0), documentKeys));
+        when(storedFileRepo.findFileKeysIn(anyCollection()))
+                .thenAnswer(inv -> matching(inv.getArgument(0), storedFileKeys));
+
+        collector = new OrphanedFileCollector(checkpointRepo, docRepo, storedFileRepo, locationRepo, minio, local,
+                true, false, Duration.ofDays(1), 500, Duration.ofMinutes(2), Duration.ofDays(1),
+                2, 1_000_000, List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        collector.shutdown();
+    }
+
+    @Test
+    void keepsReferencedFilesAndTheFilesDerivedFromThem() {
+        documentKeys.add("doc/spec.pdf");
+        storedFileKeys.add("sha256/abc");
+        list("doc/spec.pdf", "doc/spec.pdf.thumb.png", "doc/spec.pdf.preview.png", "doc/spec.pdf.content.txt",
+                "sha256/abc", "sha256/abc.content.txt");
+
+        collector.collect();
+
+        assertEquals(List.of(), deleted);
+    }
+
+    @Test
+    void deletesUnreferencedFilesTogetherWithTheirDerivedFiles() {
+        documentKeys.add("doc/spec.pdf");
+        list("doc/spec.pdf", "doc/spec.pdf.thumb.png",
+                "doc/old.pdf", "doc/old.pdf.thumb.png", "doc/old.pdf.preview.png", "doc/old.pdf.content.txt");
+
+        collector.collect();
+
+        assertEquals(Set.of("doc/old.pdf", "doc/old.pdf.thumb.png", "doc/old.pdf.preview.png",
+                "doc/old.pdf.content.txt"), Set.copyOf(deleted));
+        verify(locationRepo).deleteIfOn("doc/old.pdf", MinIOFileStorageService.NAME);
+        verify(locationRepo, never()).deleteIfOn(eq("doc/spec.pdf"), anyString());
+    }
+
+    @Test
+    void keyThatIsOnlyASuffixIsItsOwnFile() {
+        documentKeys.add(".thumb.png");
+        list(".thumb.png", ".preview.png");
+
+        collector.collect();
+
+        // Neither has a base key: each is looked up as itself, and only ".thumb.png" is referenced
+        assertEquals(List.of(".preview.png"), deleted);
+    }
+
+    @Test
+    void keepsFilesWithinTheGracePeriod() {
+        listed.add(new StoredObject("doc/new.pdf", 1, Instant.now(), "doc/new.pdf"));
+        list("doc/old.pdf");
+
+        collector.collect();
+
+        assertEquals(List.of("doc/old.pdf"), deleted);
+    }
+
+    @Test
+    void keepsFileLinkedWhileThePageWasChecked() {
+        list("doc/spec.pdf", "doc/spec.pdf.thumb.png");
+        // The second lookup, right before deleting, finds the file referenced
+        AtomicInteger lookups = new AtomicInteger();
+        when(docRepo.findFileKeysIn(anyCollection())).thenAnswer(inv -> {
+            if (lookups.incrementAndGet() > 1) {
+                documentKeys.add("doc/spec.pdf");
+            }
+            return matching(inv.getArgument(0), documentKeys);
+        });
+
+        collector.collect();
+
+        assertEquals(List.of(), deleted);
+    }
+
+    private void list(String... keys) {
+        for (String key : keys) {
+            listed.add(new StoredObject(key, 1, OLD, key));
+        }
+    }
+
+    private static List<String> matching(Collection<String> keys, Set<String> referenced) {
+        return keys.stream().filter(referenced::contains).toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.document_service.service;
+
+import com.example.document_service.model.StoredFile;
+import com.example.document_service.repository.DocumentRepository;
+import com.example.document_service.repository.StoredFileRepository;
+import com.example.document_service.service.gateway.FileStorageGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reference counting of content-addressed files, with the StoredFile table kept in memory:
+ * a release must not delete an object that was linked again before the release committed.
+ */
+class StoredFileServiceTest {
+
+    private static final String SHA256 = "a".repeat(64);
+    private static final String KEY = StoredFileService.KEY_PREFIX + SHA256;
+
+    private final StoredFileRepository storedFileRepo = mock(StoredFileRepository.class);
+    private final FileStorageGateway gateway = mock(FileStorageGateway.class);
+    private final MockMultipartFile upload =
+            new MockMultipartFile("file", "drawing.pdf", "application/pdf", new byte[]{1, 2, 3});
+
+    private StoredFileService service;
+    private StoredFile row;
+
+    @BeforeEach
+    void setUp() {
+        when(storedFileRepo.incrementRefCount(KEY)).thenAnswer(inv -> {
+            if (row == null) {
+                return 0;
+            }
+            row.setRefCount(row.getRefCount() + 1);
+            return 1;
+        });
+        when(storedFileRepo.decrementRefCount(KEY)).thenAnswer(inv -> {
+            if (row == null || row.getRefCount() == 0) {
+                return 0;
+            }
+            row.setRefCount(row.getRefCount() - 1);
+            return 1;
+        });
+        when(storedFileRepo.isUnreferenced(KEY)).thenAnswer(inv -> row != null && row.getRefCount() == 0);
+        when(storedFileRepo.findForUpdate(KEY)).thenAnswer(inv -> Optional.ofNullable(row));
+        when(storedFileRepo.findById(KEY)).thenAnswer(inv -> Optional.ofNullable(row));
+        when(storedFileRepo.deleteIfUnreferenced(KEY)).thenAnswer(inv -> {
+            if (row == null || row.getRefCount() > 0) {
+                return 0;
+            }
+            row = null;
+            return 1;
+        });
+        when(storedFileRepo.saveAndFlush(any(StoredFile.class))).thenAnswer(inv -> {
+            row = inv.getArgument(0);
+            return row;
+        });
+        when(gateway.store(eq(KEY), any(MockMultipartFile.class))).thenReturn(KEY);
+        when(gateway.delete(KEY)).thenReturn(true);
+
+        StoredFilePurger purger = new StoredFilePurger(storedFileRepo, mock(DocumentRepository.class), gateway,
+                mock(PreviewService.class), mock(DocumentContentService.class));
+        service = new StoredFileService(storedFileRepo, mock(DocumentRepository.class), gateway, purger);
+
+        service.store(upload, SHA256);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lastReleaseDeletesTheObjectAfterCommit() {
+        service.release(KEY);
+        verify(gateway, never()).delete(anyString());
+
+        commit();
+
+        verify(gateway).delete(KEY);
+        assertNull(row);
+    }
+
+    @Test
+    void storeBetweenReleaseAndCommitKeepsTheObject() {
+        service.release(KEY);
+        service.store(upload, SHA256);
+
+        commit();
+
+        verify(gateway, never()).delete(anyString());
+        assertEquals(1, row.getRefCount());
+    }
+
+    @Test
+    void storeAfterThePurgeUploadsAgain() {
+        service.release(KEY);
+        commit();
+
+        service.store(upload, SHA256);
+
+        verify(gateway, times(2)).store(eq(KEY), any(MockMultipartFile.class));
+        assertEquals(1, row.getRefCount());
+    }
+
+    @Test
+    void contentKeyWithoutRowIsNotDeleted() {
+        row = null;
+        StoredFilePurger purger = new StoredFilePurger(storedFileRepo, mock(DocumentRepository.class), gateway,
+                mock(PreviewService.class), mock(DocumentContentService.class));
+
+        // Purged already, or a concurrent upload is writing it again
+        assertFalse(purger.purgeIfUnreferenced(KEY));
+        verify(gateway, never()).delete(anyString());
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
@@ -1,11 +1,24 @@
 package com.example.file_storage_service.config;
 
+import com.example.file_storage_service.storage.BucketLayout;
+import com.example.file_storage_service.storage.PrefixBucketLayout;
+import com.example.file_storage_service.storage.SingleBucketLayout;
+import com.example.file_storage_service.storage.StorageBucketsProperties;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
+@EnableConfigurationProperties(StorageBucketsProperties.class)
 public class MinioConfig {
 
     @Value("${minio.url}")
@@ -17,11 +30,37 @@ public class MinioConfig {
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    @Value("${minio.bucket}")
+    private String bucket;
+
+    /**
+     * Every transfer in flight holds a MinIO connection, so the pool keeps enough idle ones
+     * around that bursts of concurrent transfers reuse connections instead of reconnecting
+     */
     @Bean
-    public MinioClient minioClient() {
+    public MinioClient minioClient(@Value("${storage.minio.max-idle-connections:256}") int maxIdleConnections,
+                                   @Value("${storage.minio.keep-alive:5m}") Duration keepAlive,
+                                   @Value("${storage.minio.timeout:5m}") Duration timeout) {
+        OkHttpClient httpClient = HttpUtils.newDefaultHttpClient(timeout.toMillis(), timeout.toMillis(), timeout.toMillis())
+                .newBuilder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .build();
         return MinioClient.builder()
                 .endpoint(url)
                 .credentials(accessKey, secretKey)
+                .httpClient(httpClient)
                 .build();
     }
+
+    /**
+     * minio.bucket holds everything unless storage.buckets.layout=prefix routes some names elsewhere
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BucketLayout bucketLayout(StorageBucketsProperties properties) {
+        if (properties.getLayout() == StorageBucketsProperties.Layout.PREFIX) {
+            return new PrefixBucketLayout(bucket, properties.getRoutes());
+        }
+        return new SingleBucketLayout(bucket);
+    }
 }
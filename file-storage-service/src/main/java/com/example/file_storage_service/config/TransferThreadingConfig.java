@@ -0,0 +1,59 @@
+package com.example.file_storage_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On a Java 21+ runtime with {@code spring.threads.virtual.enabled}, Spring Boot runs requests
+ * and MVC async work on virtual threads and nothing here applies. The repo builds for Java 17,
+ * and on a 17 runtime the property is ignored; then requests and streamed responses share one
+ * explicit pool of {@code storage.transfer.platform-threads} threads, created on demand, so
+ * slow clients aren't limited by Tomcat's default 200 threads or the 8 core threads of the
+ * default async executor.
+ */
+@Configuration
+@Slf4j
+public class TransferThreadingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService transferExecutor(@Value("${storage.transfer.platform-threads:1000}") int threads) {
+        log.info("Virtual threads not active on Java {}; transfers run on up to {} platform threads",
+                Runtime.version().feature(), threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("transfer-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TomcatProtocolHandlerCustomizer<?> transferRequestExecutor(ExecutorService transferExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(transferExecutor);
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public WebMvcConfigurer transferAsyncExecutor(ExecutorService transferExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(transferExecutor));
+            }
+        };
+    }
+}
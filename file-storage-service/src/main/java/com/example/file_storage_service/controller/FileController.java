@@ -1,44 +1,168 @@
 package com.example.file_storage_service.controller;
 
+import com.example.file_storage_service.dto.ObjectInfo;
+import com.example.file_storage_service.service.ContentCompression;
 import com.example.file_storage_service.service.FileStorageService;
+import com.example.file_storage_service.storage.BucketProvisioner.StorageUnavailableException;
+import com.example.plm.common.web.ByteRanges;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/files")
 public class FileController {
 
     private final FileStorageService fileService;
+    private final ContentCompression compression;
 
-    public FileController(FileStorageService fileService) {
+    public FileController(FileStorageService fileService, ContentCompression compression) {
         this.fileService = fileService;
+        this.compression = compression;
     }
 
+    /**
+     * With {@code sha256} (hex) the upload is content-addressed: content that is already stored
+     * is linked instead of uploaded, and new content must hash to the given value. A client
+     * may leave out the file part to try the link first; 404 then means the file has to be sent.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<String> upload(@RequestParam("file") MultipartFile file,
-                                       @RequestParam(value = "filename", required = false) String filename) {
+    public ResponseEntity<String> upload(@RequestParam(value = "file", required = false) MultipartFile file,
+                                       @RequestParam(value = "filename", required = false) String filename,
+                                       @RequestParam(value = "sha256", required = false) String sha256) {
         try {
-            String fileNameToUse = filename != null ? filename : file.getOriginalFilename();
-            fileService.uploadFile(file, fileNameToUse);
-            return ResponseEntity.ok("Uploaded successfully");
+            String fileNameToUse = filename != null ? filename : file != null ? file.getOriginalFilename() : null;
+            if (fileNameToUse == null || fileNameToUse.isBlank()) {
+                return ResponseEntity.badRequest().body("filename is required");
+            }
+            if (sha256 == null) {
+                if (file == null) {
+                    return ResponseEntity.badRequest().body("file is required");
+                }
+                fileService.uploadFile(file, fileNameToUse);
+                return ResponseEntity.ok("Uploaded successfully");
+            }
+            if (file == null) {
+                return fileService.linkExisting(fileNameToUse, sha256, null)
+                        ? ResponseEntity.ok("Linked to existing content")
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).body("Content not stored yet, upload the file");
+            }
+            return fileService.uploadVerified(file, fileNameToUse, sha256) == FileStorageService.UploadOutcome.LINKED
+                    ? ResponseEntity.ok("Linked to existing content")
+                    : ResponseEntity.ok("Uploaded successfully");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (FileStorageService.ChecksumMismatchException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
+        } catch (StorageUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Upload failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Content negotiation on Accept-Encoding: objects stored gzipped are sent as stored to clients
+     * that accept gzip (ranges then address the gzip bytes) and decompressed on the fly for others;
+     * compressible objects stored plain are gzipped on the fly for full downloads.
+     */
     @GetMapping("/download/{filename}")
-    public ResponseEntity<InputStreamResource> download(@PathVariable String filename) {
+    public ResponseEntity<?> download(@PathVariable String filename,
+                                      @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                      @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            var stream = fileService.downloadFile(filename);
+            // Stat first so the response carries Content-Length and the body can be streamed as-is
+            var stat = fileService.statFile(filename);
+            MediaType contentType = stat.contentType() != null
+                    ? MediaType.parseMediaType(stat.contentType())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+            String storedETag = stat.etag() != null && stat.etag().startsWith("\"")
+                    ? stat.etag().substring(1, stat.etag().length() - 1)
+                    : stat.etag();
+            Instant lastModified = stat.lastModified() != null ? stat.lastModified().toInstant() : null;
+            boolean gzipAccepted = ContentCompression.acceptsGzip(acceptEncoding);
+            boolean compressible = compression.isCompressible(stat.contentType(), filename, stat.decodedSize());
+
+            // Each encoding is a separate representation with its own validator
+            boolean sendStored = !stat.gzipped() || gzipAccepted;
+            String etag = storedETag == null ? null
+                    : sendStored ? "\"" + storedETag + "\""
+                    : "\"" + storedETag + "-identity\"";
+            long total = sendStored ? stat.size() : stat.decodedSize();
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (stat.gzipped() || compressible) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (stat.gzipped() && gzipAccepted) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, ContentCompression.GZIP);
+            }
+            if (lastModified != null) {
+                headers.setLastModified(lastModified);
+            }
+
+            // Plain but compressible, whole file: gzip while streaming (length unknown, weak validator)
+            if (!stat.gzipped() && gzipAccepted && compressible && range == null) {
+                if (storedETag != null) {
+                    headers.setETag("W/\"" + storedETag + "\"");
+                }
+                headers.set(HttpHeaders.CONTENT_ENCODING, ContentCompression.GZIP);
+                InputStream source = fileService.downloadFile(filename, stat);
+                StreamingResponseBody body = out -> {
+                    try (InputStream in = source; GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024)) {
+                        in.transferTo(gzip);
+                    }
+                };
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .contentType(contentType)
+                        .body(body);
+            }
+
+            if (etag != null) {
+                headers.setETag(etag);
+            }
+            ResponseEntity<Resource> partial = ByteRanges.partial(range, ifRange, etag, lastModified, total,
+                    contentType, headers, (offset, length) -> openRange(filename, stat, sendStored, offset, length));
+            if (partial != null) {
+                return partial;
+            }
+
+            var stream = sendStored
+                    ? fileService.downloadFile(filename, stat)
+                    : fileService.downloadDecoded(filename, stat);
             return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .headers(headers)
+                    .contentType(contentType)
+                    .contentLength(total)
                     .body(new InputStreamResource(stream));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    private InputStream openRange(String filename, ObjectInfo stat, boolean stored, long offset, long length)
+            throws IOException {
+        try {
+            return stored
+                    ? fileService.downloadFile(filename, stat, offset, length)
+                    : fileService.downloadDecoded(filename, stat, offset, length);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to read range of " + filename + ": " + e.getMessage(), e);
+        }
+    }
 }
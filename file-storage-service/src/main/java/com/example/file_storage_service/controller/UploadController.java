@@ -0,0 +1,104 @@
+package com.example.file_storage_service.controller;
+
+import com.example.file_storage_service.service.MultipartUploadService;
+import com.example.file_storage_service.service.MultipartUploadService.UploadNotFoundException;
+import com.example.file_storage_service.storage.BucketProvisioner.StorageUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Chunked, resumable upload protocol:
+ * <pre>
+ * POST   /files/uploads?filename=..&amp;contentType=..   -> uploadId
+ * PUT    /files/uploads/{uploadId}/parts/{n}          raw part bytes, any order, in parallel
+ * GET    /files/uploads/{uploadId}/parts              parts received so far (resume)
+ * POST   /files/uploads/{uploadId}/complete           assemble into the target file
+ * DELETE /files/uploads/{uploadId}                    abort
+ * </pre>
+ */
+@RestController
+@RequestMapping("/files/uploads")
+public class UploadController {
+
+    private final MultipartUploadService uploadService;
+
+    public UploadController(MultipartUploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> initiate(@RequestParam("filename") String filename,
+                                      @RequestParam(value = "contentType", required = false) String contentType) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(uploadService.initiate(filename, contentType));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * The body is streamed straight to storage, so the part is never buffered here;
+     * Content-Length is required
+     */
+    @PutMapping(value = "/{uploadId}/parts/{partNumber}", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<?> uploadPart(@PathVariable String uploadId,
+                                        @PathVariable int partNumber,
+                                        HttpServletRequest request) {
+        long size = request.getContentLengthLong();
+        if (size < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body("Content-Length is required");
+        }
+        try {
+            return ResponseEntity.ok(uploadService.uploadPart(uploadId, partNumber, request.getInputStream(), size));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @GetMapping("/{uploadId}/parts")
+    public ResponseEntity<?> listParts(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(uploadService.listParts(uploadId));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> complete(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(uploadService.complete(uploadId));
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@PathVariable String uploadId) {
+        try {
+            uploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    private ResponseEntity<String> error(Exception e) {
+        if (e instanceof UploadNotFoundException) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+        if (e instanceof StorageUnavailableException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (e instanceof IllegalStateException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Upload failed: " + e.getMessage());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.file_storage_service.dto;
+
+/**
+ * The object assembled from all parts of a chunked upload
+ */
+public record CompletedUpload(String filename, long size, String etag, int parts) {
+}
@@ -0,0 +1,18 @@
+package com.example.file_storage_service.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Size, validator and type of a stored object, from MinIO or from the read cache.
+ * {@code size} is what is stored; for objects compressed at rest ({@code encoding} "gzip")
+ * {@code decodedSize} is the size of the original file. {@code bucket} and {@code object}
+ * locate the bytes, which for a file linked to shared content is the content object rather
+ * than the file name itself.
+ */
+public record ObjectInfo(long size, String etag, String contentType, ZonedDateTime lastModified,
+                         String encoding, long decodedSize, String bucket, String object) {
+
+    public boolean gzipped() {
+        return "gzip".equals(encoding);
+    }
+}
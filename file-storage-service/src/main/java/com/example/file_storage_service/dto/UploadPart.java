@@ -0,0 +1,7 @@
+package com.example.file_storage_service.dto;
+
+/**
+ * A part that has arrived for a chunked upload
+ */
+public record UploadPart(int partNumber, long size, String etag) {
+}
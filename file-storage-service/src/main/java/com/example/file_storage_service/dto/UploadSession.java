@@ -0,0 +1,8 @@
+package com.example.file_storage_service.dto;
+
+/**
+ * An open chunked upload of {@code filename}
+ */
+public record UploadSession(String uploadId, String filename, String contentType,
+                            long minPartSize, int maxParts) {
+}
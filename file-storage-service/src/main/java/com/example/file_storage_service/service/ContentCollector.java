@@ -0,0 +1,187 @@
+package com.example.file_storage_service.service;
+
+import com.example.file_storage_service.storage.BucketLayout;
+import com.example.file_storage_service.storage.BucketProvisioner;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes content objects no file links to any more (a file re-uploaded under the same name
+ * links to its new content and leaves the old one behind).
+ *
+ * Every {@code gc-interval}, each bucket's links are listed and compared with its content
+ * objects. Content is only removed once it was found unreferenced by sweeps at least
+ * {@code gc-grace} apart, so content that was just stored and isn't linked yet, or that a
+ * link is being written to during a sweep, is left alone. {@link FileStorageService#linkExisting}
+ * checks the content is still there after writing its link, which covers the rest of that window.
+ */
+@Service
+@Slf4j
+public class ContentCollector {
+
+    private final MinioClient minioClient;
+    private final BucketLayout bucketLayout;
+    private final BucketProvisioner bucketProvisioner;
+    private final FileStorageService fileStorageService;
+
+    @Value("${storage.content.gc-interval:6h}")
+    private Duration gcInterval;
+
+    @Value("${storage.content.gc-grace:1d}")
+    private Duration gcGrace;
+
+    // bucket + content object -> when a sweep first found it unreferenced
+    private final Map<String, Instant> unreferencedSince = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sweeper =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("content-collector-"));
+
+    public ContentCollector(MinioClient minioClient, BucketLayout bucketLayout, BucketProvisioner bucketProvisioner,
+                            FileStorageService fileStorageService) {
+        this.minioClient = minioClient;
+        this.bucketLayout = bucketLayout;
+        this.bucketProvisioner = bucketProvisioner;
+        this.fileStorageService = fileStorageService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleSweep() {
+        long intervalMillis = Math.max(1, gcInterval.toMillis());
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                collect();
+            } catch (Exception e) {
+                log.warn("Collection of unreferenced content failed, retrying in {}: {}", gcInterval, e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Remove content that stayed unreferenced for {@code gc-grace}
+     *
+     * @return number of content objects removed
+     */
+    public synchronized int collect() throws Exception {
+        if (!bucketProvisioner.isReady()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(gcGrace);
+        Set<String> stillUnreferenced = new HashSet<>();
+        int removed = 0;
+        for (String bucket : bucketLayout.buckets()) {
+            // Content first: anything linked after this listing is seen by the link listing below
+            List<String> content = list(bucket, fileStorageService.contentDirectory());
+            if (content.isEmpty()) {
+                continue;
+            }
+            Set<String> referenced = referencedContent(bucket);
+
+            List<DeleteObject> expired = new ArrayList<>();
+            for (String object : content) {
+                if (referenced.contains(object)) {
+                    continue;
+                }
+                String key = bucket + "/" + object;
+                stillUnreferenced.add(key);
+                if (!unreferencedSince.computeIfAbsent(key, k -> now).isAfter(cutoff)) {
+                    expired.add(new DeleteObject(object));
+                }
+            }
+            removed += remove(bucket, expired);
+        }
+        // Content that got a link again, or was removed, starts over
+        unreferencedSince.keySet().retainAll(stillUnreferenced);
+        if (removed > 0) {
+            log.info("Removed {} content objects unreferenced for {}", removed, gcGrace);
+        }
+        return removed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    // Content objects the files of this bucket link to; links are the empty objects outside the content prefix
+    private Set<String> referencedContent(String bucket) throws Exception {
+        Set<String> referenced = new HashSet<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucket).recursive(true).build())) {
+            Item item = result.get();
+            if (item.isDir() || item.size() != 0 || item.objectName().startsWith(fileStorageService.contentPrefix())) {
+                continue;
+            }
+            String sha256 = linkedSha256(bucket, item.objectName());
+            if (sha256 != null) {
+                referenced.add(fileStorageService.contentObject(sha256));
+            }
+        }
+        return referenced;
+    }
+
+    private String linkedSha256(String bucket, String object) throws Exception {
+        try {
+            return minioClient.statObject(StatObjectArgs.builder().bucket(bucket).object(object).build())
+                    .userMetadata().get(FileStorageService.META_CONTENT_SHA256);
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;  // removed since the listing
+            }
+            throw e;
+        }
+    }
+
+    private List<String> list(String bucket, String prefix) throws Exception {
+        List<String> objects = new ArrayList<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucket).prefix(prefix).recursive(true).build())) {
+            objects.add(result.get().objectName());
+        }
+        return objects;
+    }
+
+    private int remove(String bucket, List<DeleteObject> objects) throws Exception {
+        if (objects.isEmpty()) {
+            return 0;
+        }
+        Map<String, String> failed = new HashMap<>();
+        // removeObjects is lazy: the deletes are only sent while the results are iterated
+        for (Result<DeleteError> error : minioClient.removeObjects(
+                RemoveObjectsArgs.builder().bucket(bucket).objects(objects).build())) {
+            DeleteError deleteError = error.get();
+            failed.put(deleteError.objectName(), deleteError.message());
+        }
+        if (!failed.isEmpty()) {
+            log.warn("Could not remove {} unreferenced content objects in {}: {}", failed.size(), bucket, failed);
+        }
+        return objects.size() - failed.size();
+    }
+}
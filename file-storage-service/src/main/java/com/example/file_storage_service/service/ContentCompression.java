@@ -0,0 +1,133 @@
+package com.example.file_storage_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Which files are worth compressing (text-heavy CAD exchange formats, CSV BOMs, XML, JSON)
+ * and the gzip codec used for them, both at rest and on the wire.
+ */
+@Component
+public class ContentCompression {
+
+    public static final String GZIP = "gzip";
+
+    // userMetadata keys recording how an object is stored
+    public static final String META_ENCODING = "stored-encoding";
+    public static final String META_ORIGINAL_SIZE = "original-size";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean atRest;
+    private final long minBytes;
+    private final double minSavings;
+    private final List<String> types;
+    private final List<String> extensions;
+
+    public ContentCompression(@Value("${storage.compression.at-rest:true}") boolean atRest,
+                              @Value("${storage.compression.min-bytes:4096}") long minBytes,
+                              @Value("${storage.compression.min-savings:0.1}") double minSavings,
+                              @Value("${storage.compression.types:text/,application/xml,application/json,application/step,model/step,model/iges,application/iges}") List<String> types,
+                              @Value("${storage.compression.extensions:step,stp,iges,igs,csv,xml,json,txt,dxf,obj,stl}") List<String> extensions) {
+        this.atRest = atRest;
+        this.minBytes = minBytes;
+        this.minSavings = minSavings;
+        this.types = types.stream().map(t -> t.trim().toLowerCase(Locale.ROOT)).toList();
+        this.extensions = extensions.stream().map(e -> "." + e.trim().toLowerCase(Locale.ROOT)).toList();
+    }
+
+    /**
+     * Whether a file of this type compresses well enough to be worth the CPU
+     */
+    public boolean isCompressible(String contentType, String filename, long size) {
+        if (size >= 0 && size < minBytes) {
+            return false;
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            for (String prefix : types) {
+                if (type.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            if (type.endsWith("+xml") || type.endsWith("+json")) {
+                return true;
+            }
+        }
+        if (filename != null) {
+            String name = filename.toLowerCase(Locale.ROOT);
+            for (String extension : extensions) {
+                if (name.endsWith(extension)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean compressAtRest(String contentType, String filename, long size) {
+        return atRest && isCompressible(contentType, filename, size);
+    }
+
+    /**
+     * Gzip {@code in} into a temp file; returns null (and leaves nothing behind) when the result
+     * would not be at least {@code min-savings} smaller than {@code originalSize}
+     */
+    public Path gzipToTempFile(InputStream in, long originalSize) throws IOException {
+        Path temp = Files.createTempFile("compress-", ".gz");
+        try {
+            try (InputStream source = in;
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)) {
+                source.transferTo(out);
+            }
+            if (Files.size(temp) > originalSize * (1 - minSavings)) {
+                Files.deleteIfExists(temp);
+                return null;
+            }
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip (a q=0 entry excludes it)
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals(GZIP) && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean excluded = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        excluded = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        excluded = true;
+                    }
+                }
+            }
+            if (!excluded) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,46 +1,375 @@
 package com.example.file_storage_service.service;
 
+import com.example.file_storage_service.dto.ObjectInfo;
+import com.example.file_storage_service.storage.BucketLayout;
+import com.example.file_storage_service.storage.BucketProvisioner;
+import com.example.file_storage_service.storage.ReservedPrefixes;
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Files are stored under their own name, except uploads that come with the client's SHA-256:
+ * those are kept once per distinct content under {@code <content-prefix>sha256/<hash>} and the
+ * file name becomes an empty object linking to it ({@code content-sha256} in its metadata).
+ * Reads follow the link transparently. Content objects are never overwritten, so a file
+ * that is re-uploaded under the same name just links somewhere else.
+ *
+ * Content is kept per bucket, in the bucket the file name routes to: a file only ever links
+ * to content in its own bucket, so deduplication never crosses tenants. Content no file
+ * links to any more is removed by {@link ContentCollector}.
+ */
 @Service
 public class FileStorageService {
 
-    private final MinioClient minioClient;
+    // userMetadata key of a file that links to shared content
+    public static final String META_CONTENT_SHA256 = "content-sha256";
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
 
-    @Value("${minio.bucket}")
-    private String bucketName;
+    private final MinioClient minioClient;
+    private final BucketLayout bucketLayout;
+    private final BucketProvisioner bucketProvisioner;
+    private final HotObjectCache hotObjectCache;
+    private final ContentCompression compression;
+    private final ReservedPrefixes reservedPrefixes;
+    private final String contentPrefix;
 
-    public FileStorageService(MinioClient minioClient) {
+    public FileStorageService(MinioClient minioClient, BucketLayout bucketLayout, BucketProvisioner bucketProvisioner,
+                              HotObjectCache hotObjectCache, ContentCompression compression,
+                              ReservedPrefixes reservedPrefixes,
+                              @Value("${storage.content.prefix:.content/}") String contentPrefix) {
         this.minioClient = minioClient;
+        this.bucketLayout = bucketLayout;
+        this.bucketProvisioner = bucketProvisioner;
+        this.hotObjectCache = hotObjectCache;
+        this.compression = compression;
+        this.reservedPrefixes = reservedPrefixes;
+        this.contentPrefix = contentPrefix;
     }
 
+    /**
+     * Buckets are created once at startup (see {@link BucketProvisioner}), so an upload is a single PUT.
+     * Compressible files are gzipped first when that saves enough; the object keeps the original
+     * content type and records the encoding and original size in its metadata.
+     * Names under a {@link ReservedPrefixes reserved prefix} are rejected with IllegalArgumentException.
+     */
     public void uploadFile(MultipartFile file, String filename) throws Exception {
-        boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
-        if (!found) {
-            minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+        reservedPrefixes.requireFileName(filename);
+        bucketProvisioner.requireReady();
+        PutObjectArgs.Builder args = PutObjectArgs.builder()
+                .bucket(bucketLayout.bucketFor(filename))
+                .object(filename)
+                .contentType(file.getContentType());
+
+        Path compressed = compression.compressAtRest(file.getContentType(), filename, file.getSize())
+                ? compression.gzipToTempFile(file.getInputStream(), file.getSize())
+                : null;
+        try {
+            if (compressed != null) {
+                try (InputStream in = Files.newInputStream(compressed)) {
+                    minioClient.putObject(args
+                            .stream(in, Files.size(compressed), -1)
+                            .userMetadata(Map.of(
+                                    ContentCompression.META_ENCODING, ContentCompression.GZIP,
+                                    ContentCompression.META_ORIGINAL_SIZE, String.valueOf(file.getSize())))
+                            .build());
+                }
+            } else {
+                minioClient.putObject(args.stream(file.getInputStream(), file.getSize(), -1).build());
+            }
+        } finally {
+            if (compressed != null) {
+                Files.deleteIfExists(compressed);
+            }
         }
+        hotObjectCache.invalidate(filename);
+    }
 
-        minioClient.putObject(
-                PutObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(filename)
-                        .stream(file.getInputStream(), file.getSize(), -1)
+    /**
+     * Point {@code filename} at content already stored under {@code sha256}. Only the link
+     * is written, no file bytes move; returns false if that content isn't stored. Without a
+     * {@code contentType} the file gets the type the content was first uploaded with.
+     * Only content in the bucket {@code filename} routes to is considered.
+     */
+    public boolean linkExisting(String filename, String sha256, String contentType) throws Exception {
+        reservedPrefixes.requireFileName(filename);
+        bucketProvisioner.requireReady();
+        String hash = normalizeSha256(sha256);
+        String bucket = bucketLayout.bucketFor(filename);
+        StatObjectResponse content = statContent(bucket, hash);
+        if (content == null) {
+            return false;
+        }
+        writeLink(filename, hash, contentType != null ? contentType : content.contentType());
+        // The collector may have removed the content while it had no link; then it must be stored again
+        return statContent(bucket, hash) != null;
+    }
+
+    /**
+     * Upload the client vouches for with the SHA-256 of the file. Content that is already
+     * stored is linked without reading the body. New content is hashed while it streams to
+     * storage and only published under its hash once that matches, so a corrupted transfer
+     * fails with {@link ChecksumMismatchException} and leaves nothing behind.
+     */
+    public UploadOutcome uploadVerified(MultipartFile file, String filename, String sha256) throws Exception {
+        if (linkExisting(filename, sha256, file.getContentType())) {
+            return UploadOutcome.LINKED;
+        }
+        String hash = normalizeSha256(sha256);
+        storeContent(file, filename, hash);
+        writeLink(filename, hash, file.getContentType());
+        return UploadOutcome.STORED;
+    }
+
+    private void storeContent(MultipartFile file, String filename, String sha256) throws Exception {
+        String bucket = bucketLayout.bucketFor(filename);
+        String target = contentObject(sha256);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        // Compressed content goes through a temp file anyway, so it is verified before anything is written
+        if (compression.compressAtRest(file.getContentType(), filename, file.getSize())) {
+            Path compressed = compression.gzipToTempFile(
+                    new DigestInputStream(file.getInputStream(), digest), file.getSize());
+            try {
+                verify(digest, sha256, filename);
+                if (compressed != null) {
+                    try (InputStream in = Files.newInputStream(compressed)) {
+                        minioClient.putObject(PutObjectArgs.builder()
+                                .bucket(bucket)
+                                .object(target)
+                                .contentType(file.getContentType())
+                                .stream(in, Files.size(compressed), -1)
+                                .userMetadata(Map.of(
+                                        ContentCompression.META_ENCODING, ContentCompression.GZIP,
+                                        ContentCompression.META_ORIGINAL_SIZE, String.valueOf(file.getSize())))
+                                .build());
+                    }
+                    return;
+                }
+            } finally {
+                if (compressed != null) {
+                    Files.deleteIfExists(compressed);
+                }
+            }
+            // Didn't compress well; the bytes are already verified
+            try (InputStream in = file.getInputStream()) {
+                minioClient.putObject(PutObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(target)
+                        .contentType(file.getContentType())
+                        .stream(in, file.getSize(), -1)
+                        .build());
+            }
+            return;
+        }
+
+        // Hash while streaming to a staging object; the content only gets its name once the hash matches
+        String staging = contentPrefix + "incoming/" + UUID.randomUUID();
+        try {
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                minioClient.putObject(PutObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(staging)
                         .contentType(file.getContentType())
+                        .stream(in, file.getSize(), -1)
+                        .build());
+            }
+            verify(digest, sha256, filename);
+            // Server-side copy: the bytes don't travel through this service again
+            minioClient.composeObject(ComposeObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(target)
+                    .sources(List.of(ComposeSource.builder().bucket(bucket).object(staging).build()))
+                    .build());
+        } finally {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(staging).build());
+        }
+    }
+
+    private void writeLink(String filename, String sha256, String contentType) throws Exception {
+        PutObjectArgs.Builder args = PutObjectArgs.builder()
+                .bucket(bucketLayout.bucketFor(filename))
+                .object(filename)
+                .stream(new ByteArrayInputStream(new byte[0]), 0, -1)
+                .userMetadata(Map.of(META_CONTENT_SHA256, sha256));
+        if (contentType != null) {
+            args.contentType(contentType);
+        }
+        minioClient.putObject(args.build());
+        hotObjectCache.invalidate(filename);
+    }
+
+    private StatObjectResponse statContent(String bucket, String sha256) throws Exception {
+        try {
+            return minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(contentObject(sha256))
+                    .build());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    String contentObject(String sha256) {
+        return contentDirectory() + sha256;
+    }
+
+    /**
+     * Prefix, in every bucket, under which content objects are kept by hash
+     */
+    String contentDirectory() {
+        return contentPrefix + "sha256/";
+    }
+
+    /**
+     * Prefix, in every bucket, of everything that is content rather than a file (including staging)
+     */
+    String contentPrefix() {
+        return contentPrefix;
+    }
+
+    private static void verify(MessageDigest digest, String expected, String filename) {
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equals(expected)) {
+            throw new ChecksumMismatchException(filename, expected, actual);
+        }
+    }
+
+    private static String normalizeSha256(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 hex characters");
+        }
+        return sha256.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Size, ETag and content type of a stored object; throws if it doesn't exist.
+     * Served from the read cache while its copy is within the revalidation window.
+     * A file linked to shared content reports the content object, under the file's own type.
+     */
+    public ObjectInfo statFile(String filename) throws Exception {
+        ObjectInfo cached = hotObjectCache.freshInfo(filename);
+        if (cached != null) {
+            return cached;
+        }
+        String bucket = bucketLayout.bucketFor(filename);
+        StatObjectResponse stat = minioClient.statObject(
+                StatObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(filename)
                         .build()
         );
+        String contentType = stat.contentType();
+        String object = filename;
+        String sha256 = stat.userMetadata().get(META_CONTENT_SHA256);
+        if (sha256 != null) {
+            // Content lives in the file's own bucket
+            object = contentObject(sha256);
+            stat = minioClient.statObject(StatObjectArgs.builder().bucket(bucket).object(object).build());
+        }
+        String encoding = stat.userMetadata().get(ContentCompression.META_ENCODING);
+        String originalSize = stat.userMetadata().get(ContentCompression.META_ORIGINAL_SIZE);
+        ObjectInfo info = new ObjectInfo(stat.size(), stat.etag(),
+                contentType != null ? contentType : stat.contentType(), stat.lastModified(), encoding,
+                encoding != null && originalSize != null ? Long.parseLong(originalSize) : stat.size(),
+                bucket, object);
+        hotObjectCache.revalidate(filename, info);
+        return info;
+    }
+
+    /**
+     * The object as described by {@code info}: from the read cache, or from MinIO while
+     * filling the cache. The MinIO read is conditional on the ETag, so a copy can never
+     * mix two versions.
+     */
+    public InputStream downloadFile(String filename, ObjectInfo info) throws Exception {
+        InputStream cached = hotObjectCache.open(filename, info);
+        if (cached != null) {
+            return cached;
+        }
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(info.bucket())
+                .object(info.object());
+        if (info.etag() != null) {
+            args.matchETag(info.etag());
+        }
+        return hotObjectCache.fillWhileReading(filename, info, minioClient.getObject(args.build()));
     }
 
-    public InputStream downloadFile(String filename) throws Exception {
+    /**
+     * Ranged read: served from the read cache when the object is there, otherwise MinIO
+     * only transfers {@code length} bytes starting at {@code offset}
+     */
+    public InputStream downloadFile(String filename, ObjectInfo info, long offset, long length) throws Exception {
+        InputStream cached = hotObjectCache.open(filename, info, offset, length);
+        if (cached != null) {
+            return cached;
+        }
         return minioClient.getObject(
                 GetObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(filename)
+                        .bucket(info.bucket())
+                        .object(info.object())
+                        .offset(offset)
+                        .length(length)
                         .build()
         );
     }
+
+    /**
+     * The original bytes of an object stored gzipped
+     */
+    public InputStream downloadDecoded(String filename, ObjectInfo info) throws Exception {
+        return new GZIPInputStream(downloadFile(filename, info), 64 * 1024);
+    }
+
+    /**
+     * A range of the original bytes of an object stored gzipped. Gzip can't be entered
+     * mid-stream, so everything before {@code offset} is decompressed and discarded.
+     */
+    public InputStream downloadDecoded(String filename, ObjectInfo info, long offset, long length) throws Exception {
+        InputStream decoded = downloadDecoded(filename, info);
+        try {
+            decoded.skipNBytes(offset);
+        } catch (Exception e) {
+            decoded.close();
+            throw e;
+        }
+        return new BoundedInputStream(decoded, length);
+    }
+
+    public enum UploadOutcome {
+        /** The content was already stored; only the file name was linked to it */
+        LINKED,
+        /** The content was new, verified and stored */
+        STORED
+    }
+
+    /**
+     * The uploaded bytes don't hash to the SHA-256 the client sent
+     */
+    public static class ChecksumMismatchException extends RuntimeException {
+        public ChecksumMismatchException(String filename, String expected, String actual) {
+            super("Checksum mismatch for " + filename + ": expected sha256 " + expected + ", got " + actual);
+        }
+    }
 }
@@ -0,0 +1,327 @@
+package com.example.file_storage_service.service;
+
+import com.example.file_storage_service.dto.ObjectInfo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Local-disk copies of frequently downloaded objects (standard drawings, templates, popular specs).
+ *
+ * Entries are admitted and evicted by Caffeine's W-TinyLFU policy, which weighs both how often
+ * and how recently an object was read, within a total size budget; objects larger than the
+ * per-object cap are never cached. A copy is filled while the first full download streams to
+ * its client, so a miss costs no extra latency. Each entry remembers the object's ETag and is
+ * checked against MinIO again once it is older than {@code revalidate-after}; a changed ETag
+ * drops the copy. Writes through this service invalidate immediately.
+ *
+ * Hits, misses and evictions are published as {@code cache.*{cache=hotObjects}} meters, with
+ * {@code file.storage.cache.hit.ratio} and {@code file.storage.cache.bytes.saved} alongside.
+ */
+@Component
+@Slf4j
+public class HotObjectCache {
+
+    private static final String CACHE_NAME = "hotObjects";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxObjectBytes;
+    private final Duration revalidateAfter;
+    private final Cache<String, Entry> entries;
+    private final Counter bytesSaved;
+
+    // Objects currently being copied, so concurrent misses don't all fill the same entry
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+
+    public HotObjectCache(MeterRegistry meterRegistry,
+                          @Value("${storage.cache.enabled:true}") boolean enabled,
+                          @Value("${storage.cache.dir:${java.io.tmpdir}/file-storage-cache}") Path directory,
+                          @Value("${storage.cache.max-bytes:2147483648}") long maxBytes,
+                          @Value("${storage.cache.max-object-bytes:67108864}") long maxObjectBytes,
+                          @Value("${storage.cache.revalidate-after:30s}") Duration revalidateAfter) throws IOException {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxObjectBytes = maxObjectBytes;
+        this.revalidateAfter = revalidateAfter;
+        // Weighed in KiB so budgets beyond 2 GiB still fit the int weight
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, maxBytes / 1024))
+                .weigher((String key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, entry.info().size() / 1024 + 1))
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        deleteQuietly(entry.path());
+                    }
+                })
+                .recordStats()
+                .build();
+        this.bytesSaved = Counter.builder("file.storage.cache.bytes.saved")
+                .description("Bytes served from the local read cache instead of MinIO")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+        Gauge.builder("file.storage.cache.hit.ratio", entries, cache -> cache.stats().hitRate())
+                .description("Share of cache lookups served locally")
+                .register(meterRegistry);
+
+        if (enabled) {
+            // Copies from a previous run have no entries pointing at them
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder())
+                            .filter(path -> !path.equals(directory))
+                            .forEach(HotObjectCache::deleteQuietly);
+                }
+            }
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Cached metadata for {@code filename} if it was validated within the revalidation window, else null
+     */
+    public ObjectInfo freshInfo(String filename) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.asMap().get(filename);  // metadata peek; not counted as a read
+        if (entry == null || System.nanoTime() - entry.validatedAt() > revalidateAfter.toNanos()) {
+            return null;
+        }
+        return entry.info();
+    }
+
+    /**
+     * Compare a cached copy against freshly fetched metadata: keep it (and restart its
+     * revalidation window) if the ETag still matches, drop it otherwise
+     */
+    public void revalidate(String filename, ObjectInfo current) {
+        if (!enabled) {
+            return;
+        }
+        entries.asMap().computeIfPresent(filename, (key, entry) ->
+                sameVersion(entry.info(), current) ? entry.revalidated() : null);
+    }
+
+    /**
+     * The whole cached object, or null on a miss or if the copy isn't the {@code expected} version
+     */
+    public InputStream open(String filename, ObjectInfo expected) {
+        Entry entry = hit(filename, expected);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            InputStream in = Files.newInputStream(entry.path());
+            bytesSaved.increment(entry.info().size());
+            return in;
+        } catch (IOException e) {
+            entries.invalidate(filename);
+            return null;
+        }
+    }
+
+    /**
+     * {@code length} bytes of the cached object from {@code offset}, or null on a miss
+     */
+    public InputStream open(String filename, ObjectInfo expected, long offset, long length) {
+        Entry entry = hit(filename, expected);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            FileChannel channel = FileChannel.open(entry.path(), StandardOpenOption.READ);
+            channel.position(offset);
+            bytesSaved.increment(length);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            entries.invalidate(filename);
+            return null;
+        }
+    }
+
+    /**
+     * Wrap a full MinIO download of {@code filename} so the bytes are copied to disk as the
+     * client reads them; the copy becomes a cache entry only if the stream was read to the end.
+     * Returns the stream unchanged if the object shouldn't or can't be cached.
+     */
+    public InputStream fillWhileReading(String filename, ObjectInfo info, InputStream source) {
+        if (!enabled || info.size() > maxObjectBytes || info.etag() == null || !filling.add(filename)) {
+            return source;
+        }
+        try {
+            Path temp = Files.createTempFile(directory, "fill-", ".tmp");
+            return new FillingInputStream(source, filename, info, temp);
+        } catch (IOException e) {
+            filling.remove(filename);
+            log.warn("Read cache fill for {} not started: {}", filename, e.getMessage());
+            return source;
+        }
+    }
+
+    public void invalidate(String filename) {
+        if (enabled) {
+            entries.invalidate(filename);
+        }
+    }
+
+    private Entry hit(String filename, ObjectInfo expected) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.getIfPresent(filename);  // counted, and feeds the frequency sketch
+        if (entry == null) {
+            return null;
+        }
+        if (!sameVersion(entry.info(), expected)) {
+            entries.invalidate(filename);
+            return null;
+        }
+        return entry;
+    }
+
+    private void admit(String filename, ObjectInfo info, Path temp) {
+        try {
+            Path target = directory.resolve(UUID.randomUUID() + ".obj");
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            entries.put(filename, new Entry(target, info, System.nanoTime()));
+            log.debug("Cached {} ({} bytes)", filename, info.size());
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            log.warn("Read cache fill for {} failed: {}", filename, e.getMessage());
+        }
+    }
+
+    private static boolean sameVersion(ObjectInfo cached, ObjectInfo current) {
+        return current != null && cached.etag() != null && cached.etag().equals(current.etag())
+                && cached.size() == current.size();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // left for the next startup's cleanup
+        }
+    }
+
+    @PreDestroy
+    public void clear() {
+        entries.invalidateAll();
+        entries.cleanUp();
+    }
+
+    private record Entry(Path path, ObjectInfo info, long validatedAt) {
+        Entry revalidated() {
+            return new Entry(path, info, System.nanoTime());
+        }
+    }
+
+    /**
+     * Tees a MinIO stream into a temp file; admitted on close if every byte was read
+     */
+    private final class FillingInputStream extends FilterInputStream {
+
+        private final String filename;
+        private final ObjectInfo info;
+        private final Path temp;
+        private final OutputStream copy;
+        private long copied;
+        private boolean failed;
+        private boolean closed;
+
+        FillingInputStream(InputStream source, String filename, ObjectInfo info, Path temp) throws IOException {
+            super(source);
+            this.filename = filename;
+            this.info = info;
+            this.temp = temp;
+            this.copy = Files.newOutputStream(temp);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                write(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            // Skipped bytes would leave a hole in the copy
+            failed = true;
+            return 0;
+        }
+
+        private void write(byte[] buffer, int offset, int length) {
+            if (failed) {
+                return;
+            }
+            try {
+                copy.write(buffer, offset, length);
+                copied += length;
+            } catch (IOException e) {
+                // Cache trouble never fails the download itself
+                failed = true;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                try {
+                    copy.close();
+                } catch (IOException e) {
+                    failed = true;
+                }
+                if (!failed && copied == info.size()) {
+                    admit(filename, info, temp);
+                } else {
+                    deleteQuietly(temp);
+                }
+                filling.remove(filename);
+            }
+        }
+    }
+}
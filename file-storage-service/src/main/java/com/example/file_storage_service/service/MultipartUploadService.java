@@ -0,0 +1,314 @@
+package com.example.file_storage_service.service;
+
+import com.example.file_storage_service.dto.CompletedUpload;
+import com.example.file_storage_service.dto.UploadPart;
+import com.example.file_storage_service.dto.UploadSession;
+import com.example.file_storage_service.storage.BucketLayout;
+import com.example.file_storage_service.storage.BucketProvisioner;
+import com.example.file_storage_service.storage.ReservedPrefixes;
+import io.minio.ComposeObjectArgs;
+import io.minio.ComposeSource;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunked, resumable uploads: initiate, upload parts (in any order, in parallel), list what
+ * has arrived, then complete or abort.
+ *
+ * Each part is stored as its own staging object under {@code <prefix><uploadId>/}, so a part
+ * is durable as soon as its request returns and a client that lost its connection only
+ * re-sends the parts missing from {@link #listParts}. Completing composes the parts into the
+ * target object server-side (MinIO runs this as a multipart upload with part copies, so no
+ * bytes pass through this service) and then removes the staging objects. The session itself
+ * is a marker object carrying the target name and content type, so any instance can serve
+ * any request of an upload.
+ *
+ * Uploads that are never completed or aborted are swept: every {@code sweep-interval}, the
+ * staging objects of uploads that received nothing for {@code expire-after} are removed.
+ *
+ * The MinIO SDK keeps its raw multipart calls protected; staging objects plus compose give
+ * the same S3 multipart semantics through the public API, including the 5 MiB minimum size
+ * of every part but the last.
+ */
+@Service
+@Slf4j
+public class MultipartUploadService {
+
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    public static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+    public static final int MAX_PARTS = 10_000;
+
+    private static final String SESSION_OBJECT = "session";
+    private static final String PART_PREFIX = "part-";
+    private static final String META_FILENAME = "target-filename";
+    private static final String META_CONTENT_TYPE = "target-content-type";
+
+    private final MinioClient minioClient;
+    private final BucketLayout bucketLayout;
+    private final BucketProvisioner bucketProvisioner;
+    private final HotObjectCache hotObjectCache;
+    private final ReservedPrefixes reservedPrefixes;
+
+    // Staging objects live in the default bucket; the assembled file goes where the layout puts it
+    private final String bucketName;
+
+    @Value("${storage.multipart.prefix:.uploads/}")
+    private String stagingPrefix;
+
+    @Value("${storage.multipart.expire-after:7d}")
+    private Duration expireAfter;
+
+    @Value("${storage.multipart.sweep-interval:1h}")
+    private Duration sweepInterval;
+
+    private final ScheduledExecutorService sweeper =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("upload-sweeper-"));
+
+    public MultipartUploadService(MinioClient minioClient, BucketLayout bucketLayout, BucketProvisioner bucketProvisioner,
+                                  HotObjectCache hotObjectCache, ReservedPrefixes reservedPrefixes) {
+        this.minioClient = minioClient;
+        this.hotObjectCache = hotObjectCache;
+        this.reservedPrefixes = reservedPrefixes;
+        this.bucketLayout = bucketLayout;
+        this.bucketProvisioner = bucketProvisioner;
+        this.bucketName = bucketLayout.defaultBucket();
+    }
+
+    public UploadSession initiate(String filename, String contentType) throws Exception {
+        reservedPrefixes.requireFileName(filename);
+        bucketProvisioner.requireReady();
+        String type = contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream";
+        String uploadId = UUID.randomUUID().toString();
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(sessionObject(uploadId))
+                        .stream(new ByteArrayInputStream(new byte[0]), 0, -1)
+                        .userMetadata(Map.of(META_FILENAME, filename, META_CONTENT_TYPE, type))
+                        .build()
+        );
+        return new UploadSession(uploadId, filename, type, MIN_PART_SIZE, MAX_PARTS);
+    }
+
+    /**
+     * Store one part; re-sending a part number replaces it
+     */
+    public UploadPart uploadPart(String uploadId, int partNumber, InputStream data, long size) throws Exception {
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("partNumber must be between 1 and " + MAX_PARTS);
+        }
+        if (size <= 0 || size > MAX_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be between 1 byte and " + MAX_PART_SIZE + " bytes");
+        }
+        session(uploadId);  // fails for unknown or finished uploads
+
+        // Known size: the SDK sends the part as one PUT without re-chunking it
+        ObjectWriteResponse response = minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(partObject(uploadId, partNumber))
+                        .stream(data, size, -1)
+                        .build()
+        );
+        return new UploadPart(partNumber, size, response.etag());
+    }
+
+    /**
+     * Parts received so far, by part number; a resuming client uploads the rest
+     */
+    public List<UploadPart> listParts(String uploadId) throws Exception {
+        session(uploadId);
+        String prefix = stagingPrefix + uploadId + "/" + PART_PREFIX;
+        List<UploadPart> parts = new ArrayList<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucketName).prefix(prefix).build())) {
+            Item item = result.get();
+            int partNumber = Integer.parseInt(item.objectName().substring(prefix.length()));
+            parts.add(new UploadPart(partNumber, item.size(), item.etag()));
+        }
+        parts.sort(Comparator.comparingInt(UploadPart::partNumber));
+        return parts;
+    }
+
+    /**
+     * Assemble parts 1..N into the target object and drop the staging objects
+     */
+    public CompletedUpload complete(String uploadId) throws Exception {
+        StatObjectResponse session = session(uploadId);
+        String filename = session.userMetadata().get(META_FILENAME);
+        String contentType = session.userMetadata().get(META_CONTENT_TYPE);
+
+        List<UploadPart> parts = listParts(uploadId);
+        if (parts.isEmpty()) {
+            throw new IllegalStateException("No parts uploaded");
+        }
+        long total = 0;
+        List<ComposeSource> sources = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            UploadPart part = parts.get(i);
+            if (part.partNumber() != i + 1) {
+                throw new IllegalStateException("Missing part " + (i + 1));
+            }
+            if (i < parts.size() - 1 && part.size() < MIN_PART_SIZE) {
+                throw new IllegalStateException("Part " + part.partNumber() + " is smaller than "
+                        + MIN_PART_SIZE + " bytes; only the last part may be");
+            }
+            total += part.size();
+            sources.add(ComposeSource.builder()
+                    .bucket(bucketName)
+                    .object(partObject(uploadId, part.partNumber()))
+                    .build());
+        }
+
+        ObjectWriteResponse response = minioClient.composeObject(
+                ComposeObjectArgs.builder()
+                        .bucket(bucketLayout.bucketFor(filename))
+                        .object(filename)
+                        .sources(sources)
+                        .headers(Map.of("Content-Type", contentType))
+                        .build()
+        );
+        hotObjectCache.invalidate(filename);
+        removeStaging(uploadId);
+        return new CompletedUpload(filename, total, response.etag(), parts.size());
+    }
+
+    /**
+     * Discard an upload and every part received for it
+     */
+    public void abort(String uploadId) throws Exception {
+        session(uploadId);
+        removeStaging(uploadId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleSweep() {
+        long intervalMillis = Math.max(1, sweepInterval.toMillis());
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                sweepAbandoned();
+            } catch (Exception e) {
+                log.warn("Sweep of abandoned uploads failed, retrying in {}: {}", sweepInterval, e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Remove the staging objects of uploads whose session and parts are all older than
+     * {@code expire-after}
+     *
+     * @return number of uploads removed
+     */
+    public int sweepAbandoned() throws Exception {
+        if (!bucketProvisioner.isReady()) {
+            return 0;
+        }
+        // Newest object per upload id: the session marker or the last part received
+        Map<String, ZonedDateTime> lastActivity = new HashMap<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucketName).prefix(stagingPrefix).recursive(true).build())) {
+            Item item = result.get();
+            String relative = item.objectName().substring(stagingPrefix.length());
+            int slash = relative.indexOf('/');
+            if (slash > 0) {
+                lastActivity.merge(relative.substring(0, slash), item.lastModified(),
+                        (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+
+        ZonedDateTime cutoff = ZonedDateTime.now().minus(expireAfter);
+        int removed = 0;
+        for (Map.Entry<String, ZonedDateTime> upload : lastActivity.entrySet()) {
+            if (upload.getValue().isBefore(cutoff)) {
+                removeStaging(upload.getKey());
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} uploads without activity for {}", removed, expireAfter);
+        }
+        return removed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private StatObjectResponse session(String uploadId) throws Exception {
+        try {
+            UUID.fromString(uploadId);  // ids are ours; anything else can't name a staging prefix
+            return minioClient.statObject(
+                    StatObjectArgs.builder().bucket(bucketName).object(sessionObject(uploadId)).build());
+        } catch (IllegalArgumentException e) {
+            throw new UploadNotFoundException(uploadId);
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                throw new UploadNotFoundException(uploadId);
+            }
+            throw e;
+        }
+    }
+
+    private void removeStaging(String uploadId) throws Exception {
+        List<DeleteObject> objects = new ArrayList<>();
+        for (Result<Item> result : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucketName).prefix(stagingPrefix + uploadId + "/").build())) {
+            objects.add(new DeleteObject(result.get().objectName()));
+        }
+        // removeObjects is lazy: the deletes are only sent while the results are iterated
+        for (Result<DeleteError> error : minioClient.removeObjects(
+                RemoveObjectsArgs.builder().bucket(bucketName).objects(objects).build())) {
+            DeleteError deleteError = error.get();
+            throw new IllegalStateException("Failed to remove " + deleteError.objectName() + ": " + deleteError.message());
+        }
+    }
+
+    private String sessionObject(String uploadId) {
+        return stagingPrefix + uploadId + "/" + SESSION_OBJECT;
+    }
+
+    private String partObject(String uploadId, int partNumber) {
+        return String.format("%s%s/%s%05d", stagingPrefix, uploadId, PART_PREFIX, partNumber);
+    }
+
+    /**
+     * The upload id is unknown, or the upload was already completed or aborted
+     */
+    public static class UploadNotFoundException extends RuntimeException {
+        public UploadNotFoundException(String uploadId) {
+            super("Upload not found: " + uploadId);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.file_storage_service.storage;
+
+import java.util.Set;
+
+/**
+ * Decides which bucket an object lives in. The mapping must be stable: an object is read
+ * from the bucket this returns for its name, so a layout change needs existing objects moved.
+ *
+ * Provide a bean of this type to replace the layout configured under {@code storage.buckets}.
+ */
+public interface BucketLayout {
+
+    String bucketFor(String objectName);
+
+    /**
+     * Bucket for service-internal objects that don't belong to a particular file (upload staging)
+     */
+    String defaultBucket();
+
+    /**
+     * Every bucket this layout can return; all of them are provisioned at startup
+     */
+    Set<String> buckets();
+}
@@ -0,0 +1,140 @@
+package com.example.file_storage_service.storage;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.SetBucketPolicyArgs;
+import io.minio.errors.ErrorResponseException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the layout's buckets (and applies the optional bucket policy) once at startup,
+ * instead of checking the bucket on every upload. If MinIO isn't reachable yet the attempt
+ * is repeated in the background until it succeeds; until then the service reports DOWN
+ * through the actuator health endpoint and writes fail fast.
+ */
+@Component
+@Slf4j
+public class BucketProvisioner implements HealthIndicator {
+
+    private final MinioClient minioClient;
+    private final BucketLayout layout;
+    private final String policy;
+    private final long retrySeconds;
+    private final ScheduledExecutorService retry =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("bucket-provisioner-"));
+
+    private volatile boolean ready;
+    private volatile String lastError = "not provisioned yet";
+    private final Map<String, String> bucketState = new LinkedHashMap<>();
+
+    public BucketProvisioner(MinioClient minioClient,
+                             BucketLayout layout,
+                             StorageBucketsProperties properties) {
+        this.minioClient = minioClient;
+        this.layout = layout;
+        this.policy = properties.getPolicy();
+        this.retrySeconds = Math.max(1, properties.getRetrySeconds());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionOnStartup() {
+        if (!provision()) {
+            retry.scheduleWithFixedDelay(() -> {
+                if (provision()) {
+                    retry.shutdown();
+                }
+            }, retrySeconds, retrySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * @return true once every bucket exists
+     */
+    synchronized boolean provision() {
+        if (ready) {
+            return true;
+        }
+        try {
+            for (String bucket : layout.buckets()) {
+                ensureBucket(bucket);
+            }
+            ready = true;
+            lastError = null;
+            log.info("Storage buckets ready: {}", layout.buckets());
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("Bucket provisioning failed, retrying in {}s: {}", retrySeconds, e.getMessage());
+        }
+        return ready;
+    }
+
+    private void ensureBucket(String bucket) throws Exception {
+        if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
+            try {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
+                log.info("Created MinIO bucket: {}", bucket);
+            } catch (ErrorResponseException e) {
+                // Another instance created it in the meantime
+                if (!"BucketAlreadyOwnedByYou".equals(e.errorResponse().code())) {
+                    throw e;
+                }
+            }
+        }
+        if (policy != null && !policy.isBlank()) {
+            minioClient.setBucketPolicy(SetBucketPolicyArgs.builder()
+                    .bucket(bucket)
+                    .config(policy.replace("${bucket}", bucket))
+                    .build());
+        }
+        synchronized (bucketState) {
+            bucketState.put(bucket, "ready");
+        }
+    }
+
+    /**
+     * Fail fast instead of sending writes to buckets that may not exist
+     */
+    public void requireReady() {
+        if (!ready) {
+            throw new StorageUnavailableException("Storage buckets are not provisioned: " + lastError);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = ready ? Health.up() : Health.down().withDetail("error", lastError);
+        synchronized (bucketState) {
+            builder.withDetail("buckets", new LinkedHashMap<>(bucketState));
+        }
+        return builder.withDetail("layout", layout.getClass().getSimpleName()).build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retry.shutdownNow();
+    }
+
+    public static class StorageUnavailableException extends RuntimeException {
+        public StorageUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
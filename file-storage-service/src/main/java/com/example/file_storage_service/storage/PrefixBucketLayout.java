@@ -0,0 +1,48 @@
+package com.example.file_storage_service.storage;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes objects to buckets by name prefix, e.g. {@code tenant-a/} or {@code drawings/},
+ * so tenants or document classes can live in their own buckets (and MinIO pools).
+ * The longest matching prefix wins; names matching no prefix go to the default bucket.
+ */
+public class PrefixBucketLayout implements BucketLayout {
+
+    private final String defaultBucket;
+    private final Map<String, String> routes = new LinkedHashMap<>();
+
+    public PrefixBucketLayout(String defaultBucket, Map<String, String> routes) {
+        this.defaultBucket = defaultBucket;
+        routes.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, String> e) -> e.getKey().length()).reversed())
+                .forEach(e -> this.routes.put(e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public String bucketFor(String objectName) {
+        for (Map.Entry<String, String> route : routes.entrySet()) {
+            if (objectName.startsWith(route.getKey())) {
+                return route.getValue();
+            }
+        }
+        return defaultBucket;
+    }
+
+    @Override
+    public String defaultBucket() {
+        return defaultBucket;
+    }
+
+    @Override
+    public Set<String> buckets() {
+        Set<String> buckets = new LinkedHashSet<>();
+        buckets.add(defaultBucket);
+        buckets.addAll(routes.values());
+        return buckets;
+    }
+}
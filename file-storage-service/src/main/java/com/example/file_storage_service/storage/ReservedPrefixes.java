@@ -0,0 +1,38 @@
+package com.example.file_storage_service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Object-name prefixes the service keeps for itself: shared content ({@code storage.content.prefix})
+ * and upload staging ({@code storage.multipart.prefix}). A file stored under one of them would
+ * overwrite content other files link to, or tamper with an upload in progress.
+ */
+@Component
+public class ReservedPrefixes {
+
+    private final List<String> prefixes;
+
+    public ReservedPrefixes(@Value("${storage.content.prefix:.content/}") String contentPrefix,
+                            @Value("${storage.multipart.prefix:.uploads/}") String stagingPrefix) {
+        this.prefixes = List.of(contentPrefix, stagingPrefix);
+    }
+
+    /**
+     * Throws IllegalArgumentException unless {@code filename} can be written by clients
+     */
+    public void requireFileName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            throw new IllegalArgumentException("filename is required");
+        }
+        // MinIO drops leading slashes from object names, so "/.content/x" names the same object as ".content/x"
+        String name = filename.replaceFirst("^/+", "");
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                throw new IllegalArgumentException("filename must not start with " + prefix);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.file_storage_service.storage;
+
+import java.util.Set;
+
+/**
+ * Everything in one bucket (the default)
+ */
+public class SingleBucketLayout implements BucketLayout {
+
+    private final String bucket;
+
+    public SingleBucketLayout(String bucket) {
+        this.bucket = bucket;
+    }
+
+    @Override
+    public String bucketFor(String objectName) {
+        return bucket;
+    }
+
+    @Override
+    public String defaultBucket() {
+        return bucket;
+    }
+
+    @Override
+    public Set<String> buckets() {
+        return Set.of(bucket);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.file_storage_service.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code storage.buckets.*}: which buckets objects go to and how they are provisioned
+ */
+@ConfigurationProperties(prefix = "storage.buckets")
+public class StorageBucketsProperties {
+
+    public enum Layout { SINGLE, PREFIX }
+
+    private Layout layout = Layout.SINGLE;
+
+    // Object-name prefix -> bucket, for the PREFIX layout (e.g. "tenant-a/" -> "plm-tenant-a")
+    private Map<String, String> routes = new LinkedHashMap<>();
+
+    // Optional bucket policy JSON applied to every bucket; ${bucket} is replaced by the bucket name
+    private String policy;
+
+    private long retrySeconds = 30;
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(Layout layout) {
+        this.layout = layout;
+    }
+
+    public Map<String, String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, String> routes) {
+        this.routes = routes;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public long getRetrySeconds() {
+        return retrySeconds;
+    }
+
+    public void setRetrySeconds(long retrySeconds) {
+        this.retrySeconds = retrySeconds;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.file_storage_service;
+
+import com.example.file_storage_service.service.FileStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load check: with only a handful of Tomcat pool threads configured, many clients uploading
+ * slowly at the same time must all complete in about the time one slow upload takes, and
+ * other requests must still be answered meanwhile. If transfers were limited to
+ * {@code threads.max}, the uploads would go through four at a time and take several times
+ * longer. Storage is mocked, so the time measured is the transfer itself.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=1",
+        "eureka.client.enabled=false",
+        "storage.buckets.retry-seconds=3600"
+})
+class SlowClientCapacityTests {
+
+    private static final int THREADS_MAX = 4;
+    private static final int SLOW_UPLOADS = 20;
+    private static final int CHUNKS = 20;
+    private static final long CHUNK_PAUSE_MILLIS = 100;
+    // One upload takes CHUNKS * CHUNK_PAUSE_MILLIS = 2s; four at a time would need 10s
+    private static final long ALL_UPLOADS_WITHIN_MILLIS = 6_000;
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @Test
+    void slowUploadsCompleteInParallelBeyondThreadsMax() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(SLOW_UPLOADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<String>> uploads = new ArrayList<>();
+            for (int i = 0; i < SLOW_UPLOADS; i++) {
+                String filename = "slow-" + i + ".bin";
+                uploads.add(clients.submit(() -> slowUpload(filename)));
+            }
+
+            Thread.sleep(500);  // every upload is mid-transfer now
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/metrics"))
+                            .timeout(Duration.ofSeconds(2))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), "other requests are answered while uploads are in flight");
+
+            int completed = 0;
+            for (Future<String> upload : uploads) {
+                assertEquals("HTTP/1.1 200", upload.get(ALL_UPLOADS_WITHIN_MILLIS, TimeUnit.MILLISECONDS));
+                completed++;
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(SLOW_UPLOADS, completed);
+            assertTrue(elapsedMillis < ALL_UPLOADS_WITHIN_MILLIS, SLOW_UPLOADS + " slow uploads with threads.max="
+                    + THREADS_MAX + " took " + elapsedMillis + "ms");
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    // Sends a multipart upload in CHUNKS pieces with a pause after each and returns the status line.
+    // With Expect: 100-continue the body only starts once a server thread reads the request, so
+    // the bytes can't sit in socket buffers while the request waits for a thread.
+    private String slowUpload(String filename) throws Exception {
+        String boundary = "slow";
+        byte[] chunk = new byte[1024];
+        String partHead = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n"
+                + "\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        long contentLength = partHead.length() + (long) CHUNKS * chunk.length + tail.length();
+        String head = "POST /files/upload HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: multipart/form-data; boundary=" + boundary + "\r\n"
+                + "Content-Length: " + contentLength + "\r\n"
+                + "Expect: 100-continue\r\n"
+                + "Connection: close\r\n"
+                + "\r\n";
+
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String interim = in.readLine();
+            if (interim == null || !interim.startsWith("HTTP/1.1 100")) {
+                return interim == null ? "" : interim;
+            }
+            while (!in.readLine().isEmpty()) {
+                // rest of the interim response
+            }
+            out.write(partHead.getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < CHUNKS; i++) {
+                out.write(chunk);
+                out.flush();
+                Thread.sleep(CHUNK_PAUSE_MILLIS);
+            }
+            out.write(tail.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String statusLine = in.readLine();
+            return statusLine == null ? "" : statusLine.substring(0, Math.min(12, statusLine.length()));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.file_storage_service.service;
+
+import com.example.file_storage_service.storage.BucketProvisioner;
+import com.example.file_storage_service.storage.PrefixBucketLayout;
+import com.example.file_storage_service.storage.ReservedPrefixes;
+import io.minio.ComposeObjectArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Content-addressed uploads against a mocked MinIO with one tenant routed to its own bucket:
+ * content stays in the bucket of the file that links to it, and bytes that don't match the
+ * client's SHA-256 are never published. Names under the reserved prefixes are refused.
+ */
+class FileStorageServiceTest {
+
+    private static final String DEFAULT_BUCKET = "plm-files";
+    private static final String TENANT_BUCKET = "plm-tenant-a";
+    // Any well-formed hash; the bytes uploaded below don't have it
+    private static final String SHA256 = "3e1c5b4e4b4ecd2ef3d8c0bd29f0a1ba9fa9ed4e1b8a0fd0f8ab6b6b5f0a3f7c";
+
+    private final MinioClient minioClient = mock(MinioClient.class);
+    private final ContentCompression compression = mock(ContentCompression.class);
+    // bucket/object of every object MinIO has
+    private final Set<String> stored = new HashSet<>();
+    private final List<String> statted = new ArrayList<>();
+
+    private FileStorageService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenAnswer(inv -> {
+            StatObjectArgs args = inv.getArgument(0);
+            statted.add(args.bucket() + "/" + args.object());
+            if (!stored.contains(args.bucket() + "/" + args.object())) {
+                throw new ErrorResponseException(new ErrorResponse("NoSuchKey", "not found", args.bucket(),
+                        args.object(), args.object(), null, null), null, null);
+            }
+            StatObjectResponse stat = mock(StatObjectResponse.class);
+            when(stat.contentType()).thenReturn("application/pdf");
+            when(stat.userMetadata()).thenReturn(Map.of());
+            return stat;
+        });
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(inv -> {
+            PutObjectArgs args = inv.getArgument(0);
+            args.stream().readAllBytes();  // the upload is hashed while MinIO reads it
+            stored.add(args.bucket() + "/" + args.object());
+            return null;
+        });
+
+        service = new FileStorageService(minioClient,
+                new PrefixBucketLayout(DEFAULT_BUCKET, Map.of("tenant-a/", TENANT_BUCKET)),
+                mock(BucketProvisioner.class), mock(HotObjectCache.class), compression,
+                new ReservedPrefixes(".content/", ".uploads/"), ".content/");
+    }
+
+    @Test
+    void uploadVerifiedRejectsBytesThatDoNotMatchTheChecksum() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "drawing.pdf", "application/pdf",
+                "not the drawing".getBytes());
+
+        assertThrows(FileStorageService.ChecksumMismatchException.class,
+                () -> service.uploadVerified(file, "tenant-a/drawing.pdf", SHA256));
+
+        verify(minioClient, never()).composeObject(any(ComposeObjectArgs.class));
+        ArgumentCaptor<RemoveObjectArgs> removed = ArgumentCaptor.forClass(RemoveObjectArgs.class);
+        verify(minioClient).removeObject(removed.capture());
+        assertEquals(TENANT_BUCKET, removed.getValue().bucket());
+        assertTrue(removed.getValue().object().startsWith(".content/incoming/"), "staging object is removed");
+        // Only the staging object was ever written: no content under the hash, no link
+        assertEquals(Set.of(removed.getValue().bucket() + "/" + removed.getValue().object()), stored);
+    }
+
+    @Test
+    void uploadsCannotTargetReservedPrefixes() {
+        MockMultipartFile file = new MockMultipartFile("file", "x", "application/pdf", new byte[]{1});
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.uploadFile(file, ".content/sha256/" + SHA256));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.uploadVerified(file, "/.content/sha256/" + SHA256, SHA256));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.uploadFile(file, ".uploads/" + UUID.randomUUID() + "/session"));
+        assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    void linkExistingIgnoresContentInAnotherTenantsBucket() throws Exception {
+        stored.add(DEFAULT_BUCKET + "/.content/sha256/" + SHA256);
+
+        assertFalse(service.linkExisting("tenant-a/drawing.pdf", SHA256, null));
+
+        assertEquals(List.of(TENANT_BUCKET + "/.content/sha256/" + SHA256), statted);
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+    }
+
+    @Test
+    void linkExistingLinksContentInTheFilesOwnBucket() throws Exception {
+        stored.add(TENANT_BUCKET + "/.content/sha256/" + SHA256);
+
+        assertTrue(service.linkExisting("tenant-a/drawing.pdf", SHA256, null));
+
+        assertTrue(stored.contains(TENANT_BUCKET + "/tenant-a/drawing.pdf"));
+    }
+}
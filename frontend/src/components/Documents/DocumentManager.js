@@ -110,6 +110,9 @@ const mockDocuments = [
   }
 ];
 
+// History entries fetched per "Load more"
+const ACTIVITY_PAGE_SIZE = 50;
+
 const getFileIcon = (type) => {
   switch (type.toLowerCase()) {
     case 'pdf': return <PdfIcon color="error" />;
@@ -172,6 +175,9 @@ export default function DocumentManager() {
   const [selectedDocumentForDetails, setSelectedDocumentForDetails] = useState(null);
   const [documentHistory, setDocumentHistory] = useState([]);
   const [loadingHistory, setLoadingHistory] = useState(false);
+  const [activity, setActivity] = useState([]);
+  const [activityHasMore, setActivityHasMore] = useState(false);
+  const [loadingActivity, setLoadingActivity] = useState(false);
   const [versionDetailsOpen, setVersionDetailsOpen] = useState(false);
   const [selectedVersion, setSelectedVersion] = useState(null);
   const [editDialogOpen, setEditDialogOpen] = useState(false);
@@ -267,6 +273,32 @@ export default function DocumentManager() {
     fetchDocumentVersions();
   }, [selectedDocumentForDetails]);
 
+  // Activity log of the selected document, one page at a time ("Load more" fetches the next)
+  const loadActivity = async (documentId, before) => {
+    try {
+      setLoadingActivity(true);
+      const page = await documentService.getDocumentHistory(documentId, { before, size: ACTIVITY_PAGE_SIZE });
+      setActivity(previous => (before ? [...previous, ...page] : page));
+      setActivityHasMore(page.length === ACTIVITY_PAGE_SIZE);
+    } catch (error) {
+      console.error('Error fetching document history:', error);
+      if (!before) {
+        setActivity([]);
+      }
+      setActivityHasMore(false);
+    } finally {
+      setLoadingActivity(false);
+    }
+  };
+
+  useEffect(() => {
+    setActivity([]);
+    setActivityHasMore(false);
+    if (selectedDocumentForDetails) {
+      loadActivity(selectedDocumentForDetails.id);
+    }
+  }, [selectedDocumentForDetails]);
+
   const [uploadDialogOpen, setUploadDialogOpen] = useState(false);
   const [bomSelectionOpen, setBomSelectionOpen] = useState(false);
   const [anchorEl, setAnchorEl] = useState(null);
@@ -1826,6 +1858,45 @@ export default function DocumentManager() {
                     )}
                   </Paper>
                 </Grid>
+
+                {/* Document Activity */}
+                <Grid item xs={12}>
+                  <Paper sx={{ p: 2 }}>
+                    <Typography variant="h6" color="primary" sx={{ mb: 1 }}>
+                      Activity
+                    </Typography>
+                    {activity.length === 0 && !loadingActivity ? (
+                      <Typography variant="body2" color="textSecondary" sx={{ p: 2, textAlign: 'center' }}>
+                        No activity recorded
+                      </Typography>
+                    ) : (
+                      <List dense>
+                        {activity.map((entry) => (
+                          <ListItem key={entry.id} divider>
+                            <ListItemText
+                              primary={`${entry.action}${entry.newValue ? `: ${entry.oldValue ? `${entry.oldValue} → ` : ''}${entry.newValue}` : ''}`}
+                              secondary={`${entry.user || 'Unknown'} · ${entry.timestamp ? new Date(entry.timestamp).toLocaleString() : ''}${entry.comment ? ` · ${entry.comment}` : ''}`}
+                            />
+                          </ListItem>
+                        ))}
+                      </List>
+                    )}
+                    {loadingActivity ? (
+                      <Box sx={{ display: 'flex', justifyContent: 'center', p: 2 }}>
+                        <CircularProgress size={24} />
+                      </Box>
+                    ) : activityHasMore && (
+                      <Box sx={{ display: 'flex', justifyContent: 'center', mt: 1 }}>
+                        <Button
+                          size="small"
+                          onClick={() => loadActivity(selectedDocumentForDetails.id, activity[activity.length - 1].id)}
+                        >
+                          Load more
+                        </Button>
+                      </Box>
+                    )}
+                  </Paper>
+                </Grid>
               </Grid>
             </Box>
           )}
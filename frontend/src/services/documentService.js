@@ -119,10 +119,14 @@ class DocumentService {
     }
   }
 
-  async getDocumentHistory(id) {
+  // One page of history, newest first. Pass the id of the last entry shown as `before`
+  // to get the next page; a page shorter than `size` is the last one
+  async getDocumentHistory(id, { before, size = 50 } = {}) {
     try {
-      const response = await this.api.get(`/api/documents/${id}/history`);
-      return response.data;
+      const response = await this.api.get(`/api/documents/${id}/history`, {
+        params: { before, size },
+      });
+      return Array.isArray(response.data) ? response.data : [];
     } catch (error) {
       console.error(`Error fetching document history ${id}:`, error);
       throw error;
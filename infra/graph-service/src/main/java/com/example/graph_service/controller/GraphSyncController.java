@@ -13,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST API for synchronizing data from other microservices to Neo4j.
  * Called directly by BOM, Document, and Change services via Feign clients.
@@ -96,6 +98,22 @@ public class GraphSyncController {
         }
     }
 
+    /**
+     * Sync many documents at once
+     * Called at the end of a bulk ingest instead of one call per document
+     */
+    @PostMapping("/documents")
+    public ResponseEntity<String> syncDocuments(@RequestBody List<DocumentSyncRequest> requests) {
+        log.info("Syncing {} documents to graph", requests.size());
+        try {
+            graphSyncService.syncDocuments(requests);
+            return ResponseEntity.ok(requests.size() + " documents synced successfully");
+        } catch (Exception e) {
+            log.error("Error syncing {} documents", requests.size(), e);
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * Sync part-document link to Neo4j
      * Called when a part is linked to a document
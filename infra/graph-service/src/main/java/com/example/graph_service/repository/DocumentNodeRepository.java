@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for DocumentNode operations in Neo4j.
@@ -61,5 +62,28 @@ public interface DocumentNodeRepository extends Neo4jRepository<DocumentNode, St
         RETURN DISTINCT d2
         """)
     List<DocumentNode> findRelatedDocuments(@Param("documentId") String documentId);
-}
 
+    /**
+     * Create or update a batch of documents in one statement and link each to its creator
+     * (matched by username) if that user exists. Each row carries the DocumentNode
+     * properties plus {@code creator}.
+     */
+    @Query("""
+        UNWIND $rows AS row
+        MERGE (d:Document {id: row.id})
+        SET d.name = row.name, d.description = row.description, d.version = row.version,
+            d.status = row.status, d.fileType = row.fileType, d.fileSize = row.fileSize,
+            d.createTime = row.createTime
+        WITH d, row
+        OPTIONAL MATCH (u:User {username: row.creator})
+        WITH d, head(collect(u)) AS creator
+        FOREACH (user IN CASE WHEN creator IS NULL THEN [] ELSE [creator] END |
+            MERGE (d)-[:CREATED_BY]->(user))
+        WITH d, creator
+        OPTIONAL MATCH (d)-[old:CREATED_BY]->(previous)
+        WHERE creator IS NOT NULL AND previous <> creator
+        DELETE old
+        RETURN count(DISTINCT d)
+        """)
+    long upsertAll(@Param("rows") List<Map<String, Object>> rows);
+}
@@ -8,6 +8,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service for synchronizing data from microservices to Neo4j graph database.
  * Handles creation of nodes and relationships based on events from other services.
@@ -78,7 +83,7 @@ public class GraphSyncService {
         
         // Add to parent's children list
         if (parent.getChildren() == null) {
-            parent.setChildren(new java.util.ArrayList<>());
+            parent.setChildren(new ArrayList<>());
         }
         parent.getChildren().add(usage);
         
@@ -131,6 +136,31 @@ public class GraphSyncService {
         }
     }
 
+    /**
+     * Sync a batch of documents (bulk ingest) with a single UNWIND statement
+     */
+    @Transactional
+    public void syncDocuments(List<DocumentSyncRequest> requests) {
+        log.info("Syncing {} documents in bulk", requests.size());
+        List<Map<String, Object>> rows = new ArrayList<>(requests.size());
+        for (DocumentSyncRequest request : requests) {
+            // HashMap: absent fields are sent as nulls
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", request.getId());
+            row.put("name", request.getName());
+            row.put("description", request.getDescription());
+            row.put("version", request.getVersion());
+            row.put("status", request.getStatus());
+            row.put("fileType", request.getFileType());
+            row.put("fileSize", request.getFileSize());
+            row.put("createTime", request.getCreateTime());
+            row.put("creator", request.getCreator());
+            rows.add(row);
+        }
+        long synced = documentRepo.upsertAll(rows);
+        log.info("{} documents synced successfully", synced);
+    }
+
     /**
      * Sync part-document link
      */
@@ -146,7 +176,7 @@ public class GraphSyncService {
         
         // Add document to part's linked documents
         if (part.getLinkedDocuments() == null) {
-            part.setLinkedDocuments(new java.util.ArrayList<>());
+            part.setLinkedDocuments(new ArrayList<>());
         }
         part.getLinkedDocuments().add(doc);
         
@@ -213,7 +243,7 @@ public class GraphSyncService {
         
         // Add part to change's affected parts
         if (change.getAffectedParts() == null) {
-            change.setAffectedParts(new java.util.ArrayList<>());
+            change.setAffectedParts(new ArrayList<>());
         }
         change.getAffectedParts().add(part);
         
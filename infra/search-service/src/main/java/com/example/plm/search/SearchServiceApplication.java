@@ -2,10 +2,12 @@ package com.example.plm.search;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 
 @SpringBootApplication
+@EnableCaching
 @EnableFeignClients
 @EnableElasticsearchRepositories
 public class SearchServiceApplication {
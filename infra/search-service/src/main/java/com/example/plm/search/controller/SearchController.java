@@ -1,6 +1,7 @@
 package com.example.plm.search.controller;
 
 import com.example.plm.search.model.*;
+import com.example.plm.search.service.SuggestService;
 import com.example.plm.search.service.UnifiedSearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,15 +21,17 @@ import java.util.List;
 public class SearchController {
 
     private final UnifiedSearchService searchService;
+    private final SuggestService suggestService;
 
     /**
-     * Unified search across all entities
-     * GET /api/v1/search?q=query
+     * Unified search across all entities, optionally with facet counts
+     * GET /api/v1/search?q=query&facets=type,stage,status,creator,category
      */
     @GetMapping
-    public UnifiedSearchResponse search(@RequestParam(value = "q", required = false) String query) {
-        log.info("Unified search request: query='{}'", query);
-        return searchService.searchAll(query);
+    public UnifiedSearchResponse search(@RequestParam(value = "q", required = false) String query,
+                                        @RequestParam(value = "facets", required = false) List<String> facets) {
+        log.info("Unified search request: query='{}', facets={}", query, facets);
+        return searchService.searchAll(query, searchService.resolveFacets(facets));
     }
 
     /**
@@ -81,6 +84,20 @@ public class SearchController {
         return searchService.searchTasks(query);
     }
 
+    /**
+     * Type-ahead suggestions for the search box
+     * GET /api/v1/search/suggest?q=prefix&size=8
+     */
+    @GetMapping("/suggest")
+    public List<SuggestResult> suggest(@RequestParam(value = "q", required = false) String prefix,
+                                       @RequestParam(value = "size", defaultValue = "8") int size) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int limit = Math.max(1, Math.min(size, SuggestService.MAX_SIZE));
+        return suggestService.suggest(prefix.trim().toLowerCase(), limit);
+    }
+
     /**
      * Health check endpoint
      */
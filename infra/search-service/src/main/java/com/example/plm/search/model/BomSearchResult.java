@@ -1,5 +1,6 @@
 package com.example.plm.search.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,7 +14,8 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class BomSearchResult {
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BomSearchResult implements SearchHitResult {
     private String id;
     private String description;
     private String creator;
@@ -27,6 +29,7 @@ public class BomSearchResult {
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class BomItemInfo {
         private String partId;
         private String partTitle;
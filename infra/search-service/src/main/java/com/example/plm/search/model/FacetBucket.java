@@ -0,0 +1,16 @@
+package com.example.plm.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One value of a facet and the number of matching hits carrying it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+    private String value;
+    private long count;
+}
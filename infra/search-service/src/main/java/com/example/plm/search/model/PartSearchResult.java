@@ -1,5 +1,6 @@
 package com.example.plm.search.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,7 +13,8 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class PartSearchResult {
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PartSearchResult implements SearchHitResult {
     private String id;
     private String title;
     private String description;
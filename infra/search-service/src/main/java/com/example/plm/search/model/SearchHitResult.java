@@ -0,0 +1,13 @@
+package com.example.plm.search.model;
+
+/**
+ * Common contract for result DTOs bound directly from an Elasticsearch hit source.
+ * The hit metadata (document id and relevance score) lives outside the source
+ * and is copied on after deserialization.
+ */
+public interface SearchHitResult {
+
+    void setId(String id);
+
+    void setScore(Float score);
+}
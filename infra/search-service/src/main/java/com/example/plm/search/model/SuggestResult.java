@@ -0,0 +1,17 @@
+package com.example.plm.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Type-ahead suggestion DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResult {
+    private String id;
+    private String text;  // The matched suggest input (title or document number)
+    private String type;  // Entity type for frontend: DOCUMENT, PART, CHANGE or TASK
+}
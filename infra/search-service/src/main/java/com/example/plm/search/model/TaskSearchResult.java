@@ -1,5 +1,7 @@
 package com.example.plm.search.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,11 +14,14 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class TaskSearchResult {
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskSearchResult implements SearchHitResult {
     private String id;
+    @JsonAlias("name")  // indexed as 'name'
     private String taskName;
     private String description;
     private String status;
+    @JsonAlias("assignedTo")  // indexed as 'assignedTo'
     private String assignee;
     private LocalDateTime createTime;
     private Float score;
@@ -5,7 +5,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unified search response containing results from all indices
@@ -22,6 +24,7 @@ public class UnifiedSearchResponse {
     private List<PartSearchResult> parts = new ArrayList<>();
     private List<ChangeSearchResult> changes = new ArrayList<>();
     private List<TaskSearchResult> tasks = new ArrayList<>();
+    private Map<String, List<FacetBucket>> facets = new LinkedHashMap<>();  // Only the requested facets
     
     /**
      * Get all results combined (for simple display)
@@ -0,0 +1,101 @@
+package com.example.plm.search.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
+import co.elastic.clients.elasticsearch.core.search.Suggestion;
+import com.example.plm.search.model.SuggestResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type-ahead suggestions backed by the completion ("suggest") field that each
+ * owning service writes into its index. One size-0 request covers all indices,
+ * so a keystroke costs a single FST lookup instead of the five full-text queries
+ * of {@link UnifiedSearchService#searchAll(String)}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestService {
+
+    private static final List<String> SUGGEST_INDICES = List.of("documents", "parts", "changes", "tasks");
+    private static final String SUGGEST_FIELD = "suggest";
+    private static final String SUGGESTER_NAME = "entities";
+
+    public static final int MAX_SIZE = 20;
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    /**
+     * Suggest entities whose title (or document number) starts with the prefix.
+     * Hot prefixes are served from the in-process "suggestions" cache.
+     *
+     * @param prefix normalized (trimmed, lower-cased) prefix, never blank
+     */
+    @Cacheable(value = "suggestions", key = "#prefix + '|' + #size")
+    public List<SuggestResult> suggest(String prefix, int size) {
+        long startTime = System.currentTimeMillis();
+        try {
+            SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                .index(SUGGEST_INDICES)
+                .ignoreUnavailable(true)
+                .source(src -> src.fetch(false))
+                .suggest(sg -> sg.suggesters(SUGGESTER_NAME, fs -> fs
+                    .prefix(prefix)
+                    .completion(c -> c
+                        .field(SUGGEST_FIELD)
+                        .size(size)
+                        .skipDuplicates(true)
+                    )
+                )),
+                Void.class
+            );
+
+            List<SuggestResult> results = new ArrayList<>();
+            for (Suggestion<Void> suggestion : response.suggest().getOrDefault(SUGGESTER_NAME, List.of())) {
+                if (!suggestion.isCompletion()) {
+                    continue;
+                }
+                for (CompletionSuggestOption<Void> option : suggestion.completion().options()) {
+                    results.add(new SuggestResult(option.id(), option.text(), typeOf(option.index())));
+                }
+            }
+
+            log.debug("Suggested {} entries for prefix '{}' in {}ms", results.size(), prefix,
+                      System.currentTimeMillis() - startTime);
+            return results;
+
+        } catch (Exception e) {
+            log.error("Error fetching suggestions for prefix '{}'", prefix, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Map a (possibly versioned) index name back to the entity type
+     */
+    private String typeOf(String index) {
+        if (index == null) {
+            return null;
+        }
+        if (index.startsWith("documents")) {
+            return "DOCUMENT";
+        }
+        if (index.startsWith("parts")) {
+            return "PART";
+        }
+        if (index.startsWith("changes")) {
+            return "CHANGE";
+        }
+        if (index.startsWith("tasks")) {
+            return "TASK";
+        }
+        return index.toUpperCase();
+    }
+}
@@ -1,19 +1,26 @@
 package com.example.plm.search.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import com.example.plm.search.model.*;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unified search service that queries all Elasticsearch indices
@@ -23,36 +30,91 @@ import java.util.List;
 @Slf4j
 public class UnifiedSearchService {
 
+    /*
+     * Source filters: ES only ships back the fields the result DTOs display,
+     * and hits are bound straight onto those DTOs (no intermediate JsonNode tree).
+     */
+    private static final List<String> DOCUMENT_FIELDS = List.of(
+        "title", "description", "documentNumber", "masterId", "status", "stage",
+        "category", "contentType", "creator", "fileSize", "version", "isActive");
+    private static final List<String> BOM_FIELDS = List.of(
+        "description", "creator", "stage", "status",
+        "items.partId", "items.partTitle", "items.partDescription", "items.quantity", "items.unit");
+    private static final List<String> PART_FIELDS = List.of(
+        "title", "description", "stage", "status", "level", "creator");
+    private static final List<String> CHANGE_FIELDS = List.of(
+        "title", "description", "status", "stage", "changeClass", "creator", "changeReason");
+    private static final List<String> TASK_FIELDS = List.of(
+        "name", "description", "status", "assignedTo");
+
+    /** Facet on the entity type; counted from per-index hit totals rather than an aggregation */
+    public static final String TYPE_FACET = "type";
+    public static final List<String> SUPPORTED_FACETS = List.of(TYPE_FACET, "stage", "status", "creator", "category");
+
+    /*
+     * Keyword-mapped fields that can be aggregated per index. The boms and tasks
+     * indices use dynamic mappings (text fields), so they only contribute to the type facet.
+     */
+    private static final Map<String, List<String>> FACET_FIELDS = Map.of(
+        "documents", List.of("stage", "status", "creator", "category"),
+        "parts", List.of("stage", "status", "creator"),
+        "changes", List.of("stage", "status", "creator"));
+
+    private static final int FACET_SIZE = 20;
+
     private final ElasticsearchClient elasticsearchClient;
-    private final ObjectMapper objectMapper;
 
     /**
      * Search across all indices
      */
     public UnifiedSearchResponse searchAll(String queryString) {
+        return searchAll(queryString, List.of());
+    }
+
+    /**
+     * Search across all indices and compute the requested facet counts in the same requests.
+     * Empty-query views (the default landing lists) are cached briefly per facet selection.
+     *
+     * @param facets normalized facet names, see {@link #resolveFacets(Collection)}
+     */
+    @Cacheable(value = "facets", key = "#facets.toString()",
+               condition = "!#facets.isEmpty() && (#queryString == null || #queryString.isBlank())")
+    public UnifiedSearchResponse searchAll(String queryString, List<String> facets) {
         long startTime = System.currentTimeMillis();
-        
+
         UnifiedSearchResponse response = new UnifiedSearchResponse();
         response.setQuery(queryString);
 
         try {
             // Search all indices
-            List<DocumentSearchResult> documents = searchDocuments(queryString);
-            List<BomSearchResult> boms = searchBoms(queryString);
-            List<PartSearchResult> parts = searchParts(queryString);
-            List<ChangeSearchResult> changes = searchChanges(queryString);
-            List<TaskSearchResult> tasks = searchTasks(queryString);
-            
-            response.setDocuments(documents);
-            response.setBoms(boms);
-            response.setParts(parts);
-            response.setChanges(changes);
-            response.setTasks(tasks);
+            IndexHits<DocumentSearchResult> documents = documentHits(queryString, facets);
+            IndexHits<BomSearchResult> boms = bomHits(queryString, facets);
+            IndexHits<PartSearchResult> parts = partHits(queryString, facets);
+            IndexHits<ChangeSearchResult> changes = changeHits(queryString, facets);
+            IndexHits<TaskSearchResult> tasks = taskHits(queryString, facets);
+
+            response.setDocuments(documents.results());
+            response.setBoms(boms.results());
+            response.setParts(parts.results());
+            response.setChanges(changes.results());
+            response.setTasks(tasks.results());
 
             // Calculate total hits
-            long totalHits = documents.size() + boms.size() + parts.size() + changes.size() + tasks.size();
+            long totalHits = documents.results().size() + boms.results().size() + parts.results().size()
+                + changes.results().size() + tasks.results().size();
             response.setTotalHits(totalHits);
 
+            if (!facets.isEmpty()) {
+                FacetCounts counts = new FacetCounts(facets);
+                counts.addType("DOCUMENT", documents);
+                counts.addType("BOM", boms);
+                counts.addType("PART", parts);
+                counts.addType("CHANGE", changes);
+                counts.addType("TASK", tasks);
+                counts.addAggregations(documents, parts, changes);
+                response.setFacets(counts.toBuckets());
+            }
+
         } catch (Exception e) {
             log.error("Error performing unified search", e);
             throw new RuntimeException("Search failed: " + e.getMessage(), e);
@@ -64,94 +126,104 @@ public class UnifiedSearchService {
         return response;
     }
 
+    /**
+     * Normalize the facet query parameter: known names only, lower-cased, de-duplicated
+     * and in a stable order so equivalent selections share a cache entry.
+     */
+    public List<String> resolveFacets(Collection<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return List.of();
+        }
+        List<String> wanted = requested.stream()
+            .filter(f -> f != null && !f.isBlank())
+            .map(f -> f.trim().toLowerCase())
+            .toList();
+        return SUPPORTED_FACETS.stream().filter(wanted::contains).toList();
+    }
+
     /**
      * Search documents index
      */
     public List<DocumentSearchResult> searchDocuments(String queryString) {
+        return documentHits(queryString, List.of()).results();
+    }
+
+    /**
+     * Search BOMs index
+     */
+    public List<BomSearchResult> searchBoms(String queryString) {
+        return bomHits(queryString, List.of()).results();
+    }
+
+    /**
+     * Search Parts index
+     */
+    public List<PartSearchResult> searchParts(String queryString) {
+        return partHits(queryString, List.of()).results();
+    }
+
+    /**
+     * Search Changes index
+     */
+    public List<ChangeSearchResult> searchChanges(String queryString) {
+        return changeHits(queryString, List.of()).results();
+    }
+
+    /**
+     * Search Tasks index
+     */
+    public List<TaskSearchResult> searchTasks(String queryString) {
+        return taskHits(queryString, List.of()).results();
+    }
+
+    private IndexHits<DocumentSearchResult> documentHits(String queryString, List<String> facets) {
         try {
             Query query;
-            
+
             if (queryString == null || queryString.trim().isEmpty()) {
                 // Match all documents if no query
                 query = Query.of(q -> q.matchAll(ma -> ma));
             } else {
-                // Multi-match query across title and description
+                // Multi-match across metadata and the text extracted from the attached file
                 query = Query.of(q -> q
                     .multiMatch(mm -> mm
                         .query(queryString)
-                        .fields("title^2", "description", "documentNumber", "category", "creator")
+                        .fields("title^2", "description", "documentNumber", "category", "creator", "content")
                     )
                 );
             }
 
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index("documents")
-                .query(query)
-                .size(100)  // Max results per index
-            );
-
-            SearchResponse<JsonNode> searchResponse = elasticsearchClient.search(
-                searchRequest,
-                JsonNode.class
-            );
-
-            List<DocumentSearchResult> results = new ArrayList<>();
-            for (Hit<JsonNode> hit : searchResponse.hits().hits()) {
-                DocumentSearchResult result = mapToDocumentResult(hit);
-                results.add(result);
-            }
-
-            log.info("Found {} documents for query: '{}'", results.size(), queryString);
-            return results;
+            IndexHits<DocumentSearchResult> hits = search("documents", query, DOCUMENT_FIELDS, facets,
+                                                          DocumentSearchResult.class);
+            log.info("Found {} documents for query: '{}'", hits.results().size(), queryString);
+            return hits;
 
         } catch (Exception e) {
             log.error("Error searching documents", e);
-            return new ArrayList<>();
+            return IndexHits.empty();
         }
     }
 
-    /**
-     * Search BOMs index
-     */
-    public List<BomSearchResult> searchBoms(String queryString) {
+    private IndexHits<BomSearchResult> bomHits(String queryString, List<String> facets) {
         try {
-            Query query = buildQuery(queryString, "description^2", "creator", "stage", "status", 
+            Query query = buildQuery(queryString, "description^2", "creator", "stage", "status",
                                     "items.partTitle^1.5", "items.partDescription");
 
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index("boms")
-                .query(query)
-                .size(100)
-            );
-
-            SearchResponse<JsonNode> searchResponse = elasticsearchClient.search(
-                searchRequest,
-                JsonNode.class
-            );
-
-            List<BomSearchResult> results = new ArrayList<>();
-            for (Hit<JsonNode> hit : searchResponse.hits().hits()) {
-                BomSearchResult result = mapToBomResult(hit);
-                results.add(result);
-            }
-
-            log.info("Found {} BOMs for query: '{}'", results.size(), queryString);
-            return results;
+            IndexHits<BomSearchResult> hits = search("boms", query, BOM_FIELDS, facets, BomSearchResult.class);
+            log.info("Found {} BOMs for query: '{}'", hits.results().size(), queryString);
+            return hits;
 
         } catch (Exception e) {
             log.error("Error searching BOMs", e);
-            return new ArrayList<>();
+            return IndexHits.empty();
         }
     }
 
-    /**
-     * Search Parts index
-     */
-    public List<PartSearchResult> searchParts(String queryString) {
+    private IndexHits<PartSearchResult> partHits(String queryString, List<String> facets) {
         try {
             // Build main query
             Query mainQuery = buildQuery(queryString, "title^2", "description", "level", "creator", "stage", "status");
-            
+
             // Add filter to exclude deleted parts
             Query filterQuery = Query.of(q -> q
                 .bool(b -> b
@@ -165,95 +237,41 @@ public class UnifiedSearchService {
                 )
             );
 
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index("parts")
-                .query(filterQuery)
-                .size(100)
-            );
-
-            SearchResponse<JsonNode> searchResponse = elasticsearchClient.search(
-                searchRequest,
-                JsonNode.class
-            );
-
-            List<PartSearchResult> results = new ArrayList<>();
-            for (Hit<JsonNode> hit : searchResponse.hits().hits()) {
-                PartSearchResult result = mapToPartResult(hit);
-                results.add(result);
-            }
-
-            log.info("Found {} Parts for query: '{}'", results.size(), queryString);
-            return results;
+            IndexHits<PartSearchResult> hits = search("parts", filterQuery, PART_FIELDS, facets, PartSearchResult.class);
+            log.info("Found {} Parts for query: '{}'", hits.results().size(), queryString);
+            return hits;
 
         } catch (Exception e) {
             log.error("Error searching Parts", e);
-            return new ArrayList<>();
+            return IndexHits.empty();
         }
     }
 
-    /**
-     * Search Changes index
-     */
-    public List<ChangeSearchResult> searchChanges(String queryString) {
+    private IndexHits<ChangeSearchResult> changeHits(String queryString, List<String> facets) {
         try {
             Query query = buildQuery(queryString, "title^2", "description", "changeReason", "creator", "stage", "status");
 
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index("changes")
-                .query(query)
-                .size(100)
-            );
-
-            SearchResponse<JsonNode> searchResponse = elasticsearchClient.search(
-                searchRequest,
-                JsonNode.class
-            );
-
-            List<ChangeSearchResult> results = new ArrayList<>();
-            for (Hit<JsonNode> hit : searchResponse.hits().hits()) {
-                ChangeSearchResult result = mapToChangeResult(hit);
-                results.add(result);
-            }
-
-            log.info("Found {} Changes for query: '{}'", results.size(), queryString);
-            return results;
+            IndexHits<ChangeSearchResult> hits = search("changes", query, CHANGE_FIELDS, facets, ChangeSearchResult.class);
+            log.info("Found {} Changes for query: '{}'", hits.results().size(), queryString);
+            return hits;
 
         } catch (Exception e) {
             log.error("Error searching Changes", e);
-            return new ArrayList<>();
+            return IndexHits.empty();
         }
     }
 
-    /**
-     * Search Tasks index
-     */
-    public List<TaskSearchResult> searchTasks(String queryString) {
+    private IndexHits<TaskSearchResult> taskHits(String queryString, List<String> facets) {
         try {
             Query query = buildQuery(queryString, "name^2", "description", "status", "assignedTo");
 
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index("tasks")
-                .query(query)
-                .size(100)
-            );
-
-            SearchResponse<JsonNode> searchResponse = elasticsearchClient.search(
-                searchRequest,
-                JsonNode.class
-            );
-
-            List<TaskSearchResult> results = new ArrayList<>();
-            for (Hit<JsonNode> hit : searchResponse.hits().hits()) {
-                TaskSearchResult result = mapToTaskResult(hit);
-                results.add(result);
-            }
-
-            log.info("Found {} Tasks for query: '{}'", results.size(), queryString);
-            return results;
+            IndexHits<TaskSearchResult> hits = search("tasks", query, TASK_FIELDS, facets, TaskSearchResult.class);
+            log.info("Found {} Tasks for query: '{}'", hits.results().size(), queryString);
+            return hits;
 
         } catch (Exception e) {
             log.error("Error searching Tasks", e);
-            return new ArrayList<>();
+            return IndexHits.empty();
         }
     }
 
@@ -272,137 +290,100 @@ public class UnifiedSearchService {
     }
 
     /**
-     * Map Elasticsearch hit to DocumentSearchResult
+     * Run a source-filtered search, deserialize hits directly into the result type and
+     * attach a terms aggregation for every requested facet this index can answer.
      */
-    private DocumentSearchResult mapToDocumentResult(Hit<JsonNode> hit) {
-        JsonNode source = hit.source();
-        
-        DocumentSearchResult result = new DocumentSearchResult();
-        result.setId(hit.id());
-        result.setTitle(getStringField(source, "title"));
-        result.setDescription(getStringField(source, "description"));
-        result.setDocumentNumber(getStringField(source, "documentNumber"));
-        result.setMasterId(getStringField(source, "masterId"));
-        result.setStatus(getStringField(source, "status"));
-        result.setStage(getStringField(source, "stage"));
-        result.setCategory(getStringField(source, "category"));
-        result.setContentType(getStringField(source, "contentType"));
-        result.setCreator(getStringField(source, "creator"));
-        result.setFileSize(getLongField(source, "fileSize"));
-        result.setVersion(getStringField(source, "version"));
-        // Note: Dates would need custom parsing from JsonNode if needed
-        result.setIsActive(getBooleanField(source, "isActive"));
-        result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
-        result.setType("DOCUMENT");
-        
-        return result;
-    }
+    private <T extends SearchHitResult> IndexHits<T> search(String index, Query query, List<String> includes,
+                                                            List<String> facets, Class<T> resultType)
+            throws IOException {
+        Map<String, Aggregation> aggregations = new HashMap<>();
+        for (String field : FACET_FIELDS.getOrDefault(index, List.of())) {
+            if (facets.contains(field)) {
+                aggregations.put(field, Aggregation.of(a -> a.terms(t -> t.field(field).size(FACET_SIZE))));
+            }
+        }
 
-    // Helper methods to safely extract fields from JsonNode
-    private String getStringField(JsonNode node, String fieldName) {
-        return node.has(fieldName) && !node.get(fieldName).isNull() 
-            ? node.get(fieldName).asText() 
-            : null;
-    }
+        SearchRequest searchRequest = SearchRequest.of(s -> s
+            .index(index)
+            .query(query)
+            .source(src -> src.filter(f -> f.includes(includes)))
+            .aggregations(aggregations)
+            .size(100)  // Max results per index
+        );
 
-    private Long getLongField(JsonNode node, String fieldName) {
-        return node.has(fieldName) && !node.get(fieldName).isNull() 
-            ? node.get(fieldName).asLong() 
-            : null;
-    }
+        SearchResponse<T> searchResponse = elasticsearchClient.search(searchRequest, resultType);
 
-    private Boolean getBooleanField(JsonNode node, String fieldName) {
-        return node.has(fieldName) && !node.get(fieldName).isNull() 
-            ? node.get(fieldName).asBoolean() 
-            : null;
+        List<T> results = toResults(searchResponse);
+        long total = searchResponse.hits().total() != null ? searchResponse.hits().total().value() : results.size();
+        return new IndexHits<>(results, total, searchResponse.aggregations());
     }
 
     /**
-     * Map Elasticsearch hit to BomSearchResult
+     * The hits' sources with their id and score copied on; hits without a source are dropped
      */
-    private BomSearchResult mapToBomResult(Hit<JsonNode> hit) {
-        JsonNode source = hit.source();
-        
-        BomSearchResult result = new BomSearchResult();
-        result.setId(hit.id());
-        result.setDescription(getStringField(source, "description"));
-        result.setCreator(getStringField(source, "creator"));
-        result.setStage(getStringField(source, "stage"));
-        result.setStatus(getStringField(source, "status"));
-        result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
-        
-        // Map BOM items
-        if (source.has("items") && source.get("items").isArray()) {
-            List<BomSearchResult.BomItemInfo> items = new ArrayList<>();
-            for (JsonNode itemNode : source.get("items")) {
-                BomSearchResult.BomItemInfo item = new BomSearchResult.BomItemInfo();
-                item.setPartId(getStringField(itemNode, "partId"));
-                item.setPartTitle(getStringField(itemNode, "partTitle"));
-                item.setPartDescription(getStringField(itemNode, "partDescription"));
-                item.setQuantity(itemNode.has("quantity") ? itemNode.get("quantity").asInt() : null);
-                item.setUnit(getStringField(itemNode, "unit"));
-                items.add(item);
+    static <T extends SearchHitResult> List<T> toResults(SearchResponse<T> searchResponse) {
+        List<T> results = new ArrayList<>(searchResponse.hits().hits().size());
+        for (Hit<T> hit : searchResponse.hits().hits()) {
+            T result = hit.source();
+            if (result == null) {
+                continue;
             }
-            result.setItems(items);
+            result.setId(hit.id());
+            result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
+            results.add(result);
         }
-        
-        return result;
+        return results;
     }
 
     /**
-     * Map Elasticsearch hit to PartSearchResult
+     * Hits of one index plus the data needed for facets
      */
-    private PartSearchResult mapToPartResult(Hit<JsonNode> hit) {
-        JsonNode source = hit.source();
-        
-        PartSearchResult result = new PartSearchResult();
-        result.setId(hit.id());
-        result.setTitle(getStringField(source, "title"));
-        result.setDescription(getStringField(source, "description"));
-        result.setStage(getStringField(source, "stage"));
-        result.setStatus(getStringField(source, "status"));
-        result.setLevel(getStringField(source, "level"));
-        result.setCreator(getStringField(source, "creator"));
-        result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
-        
-        return result;
-    }
+    private record IndexHits<T>(List<T> results, long total, Map<String, Aggregate> aggregations) {
 
-    /**
-     * Map Elasticsearch hit to ChangeSearchResult
-     */
-    private ChangeSearchResult mapToChangeResult(Hit<JsonNode> hit) {
-        JsonNode source = hit.source();
-        
-        ChangeSearchResult result = new ChangeSearchResult();
-        result.setId(hit.id());
-        result.setTitle(getStringField(source, "title"));
-        result.setDescription(getStringField(source, "description"));
-        result.setStatus(getStringField(source, "status"));
-        result.setStage(getStringField(source, "stage"));
-        result.setChangeClass(getStringField(source, "changeClass"));
-        result.setCreator(getStringField(source, "creator"));
-        result.setChangeReason(getStringField(source, "changeReason"));
-        result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
-        
-        return result;
+        static <T> IndexHits<T> empty() {
+            return new IndexHits<>(new ArrayList<>(), 0, Map.of());
+        }
     }
 
     /**
-     * Map Elasticsearch hit to TaskSearchResult
+     * Accumulates facet counts across indices, keeping the requested facet order
      */
-    private TaskSearchResult mapToTaskResult(Hit<JsonNode> hit) {
-        JsonNode source = hit.source();
-        
-        TaskSearchResult result = new TaskSearchResult();
-        result.setId(hit.id());
-        result.setTaskName(getStringField(source, "name"));
-        result.setDescription(getStringField(source, "description"));
-        result.setStatus(getStringField(source, "status"));
-        result.setAssignee(getStringField(source, "assignedTo"));
-        result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
-        
-        return result;
+    private static final class FacetCounts {
+
+        private final Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+
+        FacetCounts(List<String> facets) {
+            facets.forEach(f -> counts.put(f, new HashMap<>()));
+        }
+
+        void addType(String type, IndexHits<?> hits) {
+            Map<String, Long> typeCounts = counts.get(TYPE_FACET);
+            if (typeCounts != null && hits.total() > 0) {
+                typeCounts.merge(type, hits.total(), Long::sum);
+            }
+        }
+
+        void addAggregations(IndexHits<?>... indices) {
+            for (IndexHits<?> hits : indices) {
+                hits.aggregations().forEach((facet, aggregate) -> {
+                    Map<String, Long> facetCounts = counts.get(facet);
+                    if (facetCounts == null || !aggregate.isSterms()) {
+                        return;
+                    }
+                    for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+                        facetCounts.merge(bucket.key().stringValue(), bucket.docCount(), Long::sum);
+                    }
+                });
+            }
+        }
+
+        Map<String, List<FacetBucket>> toBuckets() {
+            Map<String, List<FacetBucket>> buckets = new LinkedHashMap<>();
+            counts.forEach((facet, values) -> buckets.put(facet, values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(e -> new FacetBucket(e.getKey(), e.getValue()))
+                .toList()));
+            return buckets;
+        }
     }
 }
-
@@ -0,0 +1,163 @@
+package com.example.plm.search.service;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.example.plm.search.model.DocumentSearchResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.json.stream.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old and new way of turning a 100-hit search response into result DTOs.
+ *
+ * <ul>
+ *   <li>{@code jsonNodeTreeFullSource}: the old path. Every hit's whole source is read into a
+ *   JsonNode tree and copied field by field.</li>
+ *   <li>{@code jsonNodeTreeFilteredSource}: the old mapping on a source-filtered response,
+ *   which isolates the cost of the tree itself.</li>
+ *   <li>{@code typedFilteredSource}: the current path. The filtered source is bound straight
+ *   onto {@link DocumentSearchResult} and mapped by {@link UnifiedSearchService#toResults}.</li>
+ * </ul>
+ *
+ * Run with allocation figures:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SearchHitMappingBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchHitMappingBenchmark {
+
+    private static final int HITS = 100;
+
+    private final JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+    private final JsonpDeserializer<SearchResponse<JsonNode>> treeDeserializer =
+            SearchResponse.createSearchResponseDeserializer(JsonpDeserializer.of(JsonNode.class));
+    private final JsonpDeserializer<SearchResponse<DocumentSearchResult>> typedDeserializer =
+            SearchResponse.createSearchResponseDeserializer(JsonpDeserializer.of(DocumentSearchResult.class));
+
+    private String fullSourceResponse;
+    private String filteredSourceResponse;
+
+    @Setup
+    public void setUp() {
+        fullSourceResponse = response(true);
+        filteredSourceResponse = response(false);
+    }
+
+    @Benchmark
+    public List<DocumentSearchResult> jsonNodeTreeFullSource() {
+        return mapTree(parse(fullSourceResponse, treeDeserializer));
+    }
+
+    @Benchmark
+    public List<DocumentSearchResult> jsonNodeTreeFilteredSource() {
+        return mapTree(parse(filteredSourceResponse, treeDeserializer));
+    }
+
+    @Benchmark
+    public List<DocumentSearchResult> typedFilteredSource() {
+        return UnifiedSearchService.toResults(parse(filteredSourceResponse, typedDeserializer));
+    }
+
+    private <T> SearchResponse<T> parse(String json, JsonpDeserializer<SearchResponse<T>> deserializer) {
+        try (JsonParser parser = mapper.jsonProvider().createParser(new StringReader(json))) {
+            return deserializer.deserialize(parser, mapper);
+        }
+    }
+
+    // The mapping UnifiedSearchService used before hits were bound directly
+    private static List<DocumentSearchResult> mapTree(SearchResponse<JsonNode> response) {
+        List<DocumentSearchResult> results = new ArrayList<>(response.hits().hits().size());
+        for (Hit<JsonNode> hit : response.hits().hits()) {
+            JsonNode source = hit.source();
+            DocumentSearchResult result = new DocumentSearchResult();
+            result.setId(hit.id());
+            result.setTitle(text(source, "title"));
+            result.setDescription(text(source, "description"));
+            result.setDocumentNumber(text(source, "documentNumber"));
+            result.setMasterId(text(source, "masterId"));
+            result.setStatus(text(source, "status"));
+            result.setStage(text(source, "stage"));
+            result.setCategory(text(source, "category"));
+            result.setContentType(text(source, "contentType"));
+            result.setCreator(text(source, "creator"));
+            result.setFileSize(source.has("fileSize") && !source.get("fileSize").isNull() ? source.get("fileSize").asLong() : null);
+            result.setVersion(text(source, "version"));
+            result.setIsActive(source.has("isActive") && !source.get("isActive").isNull() ? source.get("isActive").asBoolean() : null);
+            result.setScore(hit.score() != null ? hit.score().floatValue() : 0f);
+            result.setType("DOCUMENT");
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.has(field) && !node.get(field).isNull() ? node.get(field).asText() : null;
+    }
+
+    /**
+     * A search response shaped like the documents index. The full source also carries the
+     * fields results don't display: timestamps, the suggester input and extracted text chunks.
+     */
+    private static String response(boolean fullSource) {
+        StringBuilder json = new StringBuilder(HITS * 4096);
+        json.append("{\"took\":3,\"timed_out\":false,")
+            .append("\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0},")
+            .append("\"hits\":{\"total\":{\"value\":").append(HITS).append(",\"relation\":\"eq\"},")
+            .append("\"max_score\":7.5,\"hits\":[");
+        for (int i = 0; i < HITS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"_index\":\"documents\",\"_id\":\"doc-").append(i).append("\",\"_score\":")
+                .append(7.5 - i * 0.01).append(",\"_source\":{")
+                .append("\"title\":\"Bracket assembly drawing ").append(i).append("\",")
+                .append("\"description\":\"Machined aluminium bracket for the rear housing, revision ").append(i % 7).append("\",")
+                .append("\"documentNumber\":\"DOC-").append(10000 + i).append("\",")
+                .append("\"masterId\":\"DOC-").append(10000 + i).append("\",")
+                .append("\"status\":\"RELEASED\",\"stage\":\"DETAILED_DESIGN\",\"category\":\"DRAWING\",")
+                .append("\"contentType\":\"application/pdf\",\"creator\":\"engineer").append(i % 13).append("\",")
+                .append("\"fileSize\":").append(100_000 + i * 37).append(",")
+                .append("\"version\":\"").append(i % 5).append("\",\"isActive\":true");
+            if (fullSource) {
+                json.append(",\"createTime\":\"2025-03-0").append(1 + i % 9).append("T10:15:30\",")
+                    .append("\"updateTime\":\"2025-04-0").append(1 + i % 9).append("T08:00:00\",")
+                    .append("\"contentFileKey\":\"sha256-").append("0123456789abcdef".repeat(4)).append("\",")
+                    .append("\"suggest\":{\"input\":[\"DOC-").append(10000 + i).append("\",\"Bracket assembly drawing ")
+                    .append(i).append("\"]},\"content\":[");
+                for (int chunk = 0; chunk < 3; chunk++) {
+                    if (chunk > 0) {
+                        json.append(',');
+                    }
+                    json.append('"').append("Tolerance per ISO 2768-m unless noted; deburr all edges. ".repeat(16)).append('"');
+                }
+                json.append(']');
+            }
+            json.append("}}");
+        }
+        json.append("]}}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.plm.common.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.reindex.ReindexRequest;
+import org.springframework.data.elasticsearch.core.reindex.ReindexResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Zero-downtime reindexing behind an index alias.
+ *
+ * The entity's {@code @Document(indexName)} is treated as an alias. A rebuild creates a new
+ * versioned index ({@code <alias>_v<timestamp>}) with the entity's mapping, fills it through the
+ * {@code _bulk} API from a streamed source, and then moves the alias in a single atomic
+ * {@code _aliases} call. Searches keep using the old index until the swap. A pre-alias concrete
+ * index with the alias name is removed in that same call.
+ *
+ * While a rebuild runs, the new index also carries the alias {@code <alias>_rebuild}. Every
+ * {@link BulkIndexBuffer} of the type, on any instance, sends its writes there too, so nothing
+ * written during the rebuild is lost with the old index. The source is only opened once all
+ * buffers have had time to notice the rebuild alias, and rows are copied with {@code create}:
+ * a document a live write already put into the new index is newer than the copied row and is
+ * kept. The one gap is a delete that reaches the new index before the copy of that document,
+ * which the copy undoes; the rebuilt types soft-delete instead.
+ *
+ * The alias is only swapped when every document made it into the new index. Otherwise the new
+ * index is dropped, the alias stays where it was and the rebuild fails.
+ *
+ * {@link #applyMapping} brings an existing index up to the entity's current mapping. Additive
+ * changes go through {@code _mapping}; changes Elasticsearch refuses in place (such as another
+ * analyzer on an existing field) are applied by copying the index with {@code _reindex}.
+ *
+ * Not a Spring bean: services construct it with their own {@link ElasticsearchOperations}.
+ */
+public class AliasReindexer {
+
+    private static final Logger log = LoggerFactory.getLogger(AliasReindexer.class);
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_CONCURRENCY = 2;
+
+    /** Alias of the index being rebuilt, next to the live alias */
+    public static final String REBUILD_ALIAS_SUFFIX = "_rebuild";
+    /** How stale a buffer's knowledge of a running rebuild may be */
+    public static final Duration REBUILD_CHECK_INTERVAL = Duration.ofSeconds(5);
+    private static final int HTTP_CONFLICT = 409;
+
+    private final ElasticsearchOperations operations;
+    private final int batchSize;
+    private final int concurrency;
+
+    public AliasReindexer(ElasticsearchOperations operations) {
+        this(operations, DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param batchSize   documents per {@code _bulk} request
+     * @param concurrency bulk requests in flight at the same time
+     */
+    public AliasReindexer(ElasticsearchOperations operations, int batchSize, int concurrency) {
+        this.operations = operations;
+        this.batchSize = Math.max(1, batchSize);
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Rebuild the alias of {@code documentClass} from the given source rows.
+     *
+     * @param documentClass Spring Data Elasticsearch document type; its index name is the alias
+     * @param source        opens the rows to index (e.g. a JPA cursor stream); called once the
+     *                      rebuild alias is visible to every writer, and the stream is closed after
+     * @param toDocument    maps a source row to the search document
+     * @param idOf          document id of a search document
+     * @return counts of indexed and failed documents plus the new index name
+     * @throws IllegalStateException if documents failed to index; the alias is left unchanged
+     */
+    public <S, T> Result reindex(Class<T> documentClass, Supplier<Stream<S>> source,
+                                 Function<S, T> toDocument, Function<T, String> idOf) {
+        long startTime = System.currentTimeMillis();
+        String alias = operations.getIndexCoordinatesFor(documentClass).getIndexName();
+        String newIndex = alias + "_v" + LocalDateTime.now().format(VERSION_FORMAT);
+
+        IndexOperations entityOps = operations.indexOps(documentClass);
+        IndexOperations newIndexOps = operations.indexOps(IndexCoordinates.of(newIndex));
+        Settings settings = entityOps.createSettings();
+        Document mapping = entityOps.createMapping();
+        newIndexOps.create(settings, mapping);
+        log.info("Reindex of '{}' started into new index '{}'", alias, newIndex);
+
+        AtomicInteger indexed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            startMirroring(alias, newIndex);
+            try (Stream<S> rows = source.get()) {
+                bulkLoad(newIndex, rows, toDocument, idOf, indexed, failed);
+            }
+            newIndexOps.refresh();
+            requireNoFailures(alias, failed.get());
+            swapAlias(alias, newIndex);
+        } catch (RuntimeException e) {
+            log.error("Reindex of '{}' failed, alias left unchanged; dropping '{}'", alias, newIndex, e);
+            newIndexOps.delete();
+            throw e;
+        }
+
+        long took = System.currentTimeMillis() - startTime;
+        log.info("Reindex of '{}' complete: {} indexed, {} failed in {}ms, alias now on '{}'",
+                 alias, indexed.get(), failed.get(), took, newIndex);
+        return new Result(newIndex, indexed.get(), failed.get(), took);
+    }
+
+    /**
+     * Make the index behind {@code documentClass} carry the entity's current mapping.
+     *
+     * New fields are added to the live index. If Elasticsearch rejects the mapping as a conflict
+     * with the existing one, the index is copied server-side with {@code _reindex} into a new
+     * versioned index with the new mapping and the alias is swapped. Every field is re-analyzed
+     * from {@code _source}, which keeps fields that are written separately from the entity.
+     * Writes made during the copy reach the new index through the rebuild alias, as in
+     * {@link #reindex}; the alias is only swapped if every document was copied.
+     *
+     * @return the copy's result, or null if no copy was needed
+     * @throws IllegalStateException if documents failed to copy; the alias is left unchanged
+     */
+    public <T> Result applyMapping(Class<T> documentClass) {
+        String alias = operations.getIndexCoordinatesFor(documentClass).getIndexName();
+        IndexOperations entityOps = operations.indexOps(documentClass);
+        if (!entityOps.exists()) {
+            return null;
+        }
+        try {
+            entityOps.putMapping();
+            return null;
+        } catch (RuntimeException e) {
+            log.info("Mapping of '{}' can't be changed in place ({}); copying into a new index", alias,
+                     e.getMessage());
+        }
+
+        long startTime = System.currentTimeMillis();
+        String newIndex = alias + "_v" + LocalDateTime.now().format(VERSION_FORMAT);
+        IndexOperations newIndexOps = operations.indexOps(IndexCoordinates.of(newIndex));
+        newIndexOps.create(entityOps.createSettings(), entityOps.createMapping());
+        ReindexResponse response;
+        try {
+            startMirroring(alias, newIndex);
+            // A document already in the new index came from a live write and is newer than the copy
+            response = operations.reindex(
+                ReindexRequest.builder(IndexCoordinates.of(alias), IndexCoordinates.of(newIndex))
+                    .withDestOpType(IndexQuery.OpType.CREATE)
+                    .withConflicts(ReindexRequest.Conflicts.PROCEED)
+                    .build());
+            newIndexOps.refresh();
+            requireNoFailures(alias, response.getFailures().size());
+            swapAlias(alias, newIndex);
+        } catch (RuntimeException e) {
+            log.error("Copy of '{}' failed, alias left unchanged; dropping '{}'", alias, newIndex, e);
+            newIndexOps.delete();
+            throw e;
+        }
+
+        int failed = response.getFailures().size();
+        int indexed = (int) (response.getCreated() + response.getUpdated());
+        long took = System.currentTimeMillis() - startTime;
+        log.info("Copy of '{}' complete: {} indexed, {} failed in {}ms, alias now on '{}'",
+                 alias, indexed, failed, took, newIndex);
+        return new Result(newIndex, indexed, failed, took);
+    }
+
+    private <S, T> void bulkLoad(String index, Stream<S> source, Function<S, T> toDocument,
+                                 Function<T, String> idOf, AtomicInteger indexed, AtomicInteger failed) {
+        IndexCoordinates coordinates = IndexCoordinates.of(index);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<Future<?>> pending = new ArrayList<>();
+        try {
+            Iterator<S> rows = source.iterator();
+            List<IndexQuery> batch = new ArrayList<>(batchSize);
+            while (rows.hasNext()) {
+                T document = toDocument.apply(rows.next());
+                batch.add(new IndexQueryBuilder().withId(idOf.apply(document)).withObject(document)
+                    .withOpType(IndexQuery.OpType.CREATE)
+                    .build());
+                if (batch.size() >= batchSize) {
+                    pending.add(submit(executor, inFlight, coordinates, batch, indexed, failed));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                pending.add(submit(executor, inFlight, coordinates, batch, indexed, failed));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reindex interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bulk indexing failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Hand a batch to the bulk pool, blocking the reader while {@code concurrency} batches are in flight
+     * so the source is never read further ahead than the cluster can absorb.
+     */
+    private Future<?> submit(ExecutorService executor, Semaphore inFlight, IndexCoordinates coordinates,
+                             List<IndexQuery> batch, AtomicInteger indexed, AtomicInteger failed)
+            throws InterruptedException {
+        inFlight.acquire();
+        return executor.submit(() -> {
+            try {
+                operations.bulkIndex(batch, coordinates);
+                indexed.addAndGet(batch.size());
+            } catch (BulkFailureException e) {
+                // A conflict means a live write got there first with a newer version of the document
+                long conflicts = e.getFailedDocuments().values().stream()
+                    .filter(failure -> failure.status() != null && failure.status() == HTTP_CONFLICT)
+                    .count();
+                int failures = e.getFailedDocuments().size() - (int) conflicts;
+                failed.addAndGet(failures);
+                indexed.addAndGet(batch.size() - failures);
+                if (failures > 0) {
+                    log.warn("Bulk request into '{}' had {} failures: {}", coordinates.getIndexName(), failures,
+                             e.getMessage());
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Put the rebuild alias on the new index, then wait until every buffer has had time to see it:
+     * from then on all writes also reach the new index.
+     */
+    private void startMirroring(String alias, String newIndex) {
+        operations.indexOps(IndexCoordinates.of(newIndex)).alias(new AliasActions(
+            new AliasAction.Add(AliasActionParameters.builder()
+                .withIndices(newIndex)
+                .withAliases(alias + REBUILD_ALIAS_SUFFIX)
+                .build())));
+        try {
+            Thread.sleep(REBUILD_CHECK_INTERVAL.multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reindex interrupted", e);
+        }
+    }
+
+    private void requireNoFailures(String alias, int failed) {
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " documents failed to index, keeping '" + alias
+                + "' on its current index");
+        }
+    }
+
+    /**
+     * Point the alias at the new index, detach it from every previous index and drop the rebuild
+     * alias in one request, then drop the previous versioned indices.
+     */
+    private void swapAlias(String alias, String newIndex) {
+        IndexOperations aliasOps = operations.indexOps(IndexCoordinates.of(alias));
+        Set<String> previous = currentIndices(aliasOps, alias);
+        boolean legacyConcreteIndex = previous.isEmpty() && aliasOps.exists();
+
+        List<AliasAction> actions = new ArrayList<>();
+        if (legacyConcreteIndex) {
+            // First migration: a real index still carries the alias name
+            actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder()
+                .withIndices(alias)
+                .build()));
+        } else if (!previous.isEmpty()) {
+            actions.add(new AliasAction.Remove(AliasActionParameters.builder()
+                .withIndices(previous.toArray(String[]::new))
+                .withAliases(alias)
+                .build()));
+        }
+        actions.add(new AliasAction.Add(AliasActionParameters.builder()
+            .withIndices(newIndex)
+            .withAliases(alias)
+            .build()));
+        actions.add(new AliasAction.Remove(AliasActionParameters.builder()
+            .withIndices(newIndex)
+            .withAliases(alias + REBUILD_ALIAS_SUFFIX)
+            .build()));
+
+        aliasOps.alias(new AliasActions(actions.toArray(AliasAction[]::new)));
+
+        for (String oldIndex : previous) {
+            try {
+                operations.indexOps(IndexCoordinates.of(oldIndex)).delete();
+            } catch (RuntimeException e) {
+                log.warn("Could not delete previous index '{}': {}", oldIndex, e.getMessage());
+            }
+        }
+    }
+
+    private Set<String> currentIndices(IndexOperations aliasOps, String alias) {
+        try {
+            return aliasOps.getAliases(alias).keySet();
+        } catch (RuntimeException e) {
+            // ES answers 404 when no index carries the alias yet
+            return Set.of();
+        }
+    }
+
+    /**
+     * Outcome of one rebuild
+     */
+    public record Result(String indexName, int indexed, int failed, long tookMillis) {
+    }
+}
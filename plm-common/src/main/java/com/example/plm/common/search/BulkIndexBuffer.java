@@ -0,0 +1,347 @@
+package com.example.plm.common.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Write-behind buffer for search index mutations.
+ *
+ * Index and delete operations are queued per document id, so repeated updates to the same
+ * entity within one flush window collapse into the last one. The queue is sent as a single
+ * {@code _bulk} request when it reaches {@code maxBatchSize} or every {@code flushInterval},
+ * whichever comes first, on a background thread — callers never wait for Elasticsearch.
+ *
+ * Documents are converted with Spring Data's {@link ElasticsearchConverter}, so the indexed
+ * source is the same as what the repository {@code save} produced. If a bulk request fails as
+ * a whole, its operations are re-queued (unless superseded); so are single operations that
+ * Elasticsearch rejected (429) or failed with a server error, and the buffer then waits for the
+ * next flush. The queue holds at most {@code maxPending} entries: beyond that new and failed
+ * operations are dropped and their ids logged, so the documents can be re-indexed.
+ *
+ * Fields filled in by a separate writer (e.g. text extracted from an attached file) can be
+ * declared as {@code preservedFields}: index operations then become upserts that rewrite every
+ * other mapped field, nulls included, and leave the preserved ones alone. Those fields are
+ * written with {@link #update}, which never creates a document: an update for a document that
+ * is gone (or not indexed yet) is dropped.
+ *
+ * Not a Spring bean: each service creates one per document type and closes it on shutdown,
+ * which flushes whatever is still queued.
+ *
+ * While {@link AliasReindexer} rebuilds the index, every operation is also sent to the index
+ * being built (through its {@code <index>_rebuild} alias, looked up at most every
+ * {@link AliasReindexer#REBUILD_CHECK_INTERVAL}), so writes made during the rebuild survive
+ * the swap.
+ */
+public class BulkIndexBuffer<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIndexBuffer.class);
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final int MAX_PENDING_FACTOR = 20;
+    // Pending-map key suffix for partial updates; NUL can't occur in a document id
+    private static final String PARTIAL_SUFFIX = "\u0000partial";
+
+    private final ElasticsearchClient client;
+    private final ElasticsearchConverter converter;
+    private final String indexName;
+    private final Function<T, String> idOf;
+    private final Set<String> preservedFields;
+    private final List<String> mappedFields;
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+    private final String rebuildAlias;
+    // Whether a rebuild is running, as of rebuildCheckedAt (System.nanoTime()); guarded by this
+    private boolean rebuilding;
+    private long rebuildCheckedAt;
+
+    // id -> latest pending operation, in arrival order; partial updates are queued
+    // under their own key so they don't replace the document's index or delete
+    private final Map<String, Operation<T>> pending = new LinkedHashMap<>();
+
+    public BulkIndexBuffer(ElasticsearchOperations operations, ElasticsearchClient client,
+                           Class<T> documentClass, Function<T, String> idOf) {
+        this(operations, client, documentClass, idOf, DEFAULT_MAX_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public BulkIndexBuffer(ElasticsearchOperations operations, ElasticsearchClient client,
+                           Class<T> documentClass, Function<T, String> idOf,
+                           int maxBatchSize, Duration flushInterval) {
+        this(operations, client, documentClass, idOf, maxBatchSize, flushInterval, Set.of());
+    }
+
+    public BulkIndexBuffer(ElasticsearchOperations operations, ElasticsearchClient client,
+                           Class<T> documentClass, Function<T, String> idOf,
+                           int maxBatchSize, Duration flushInterval, Set<String> preservedFields) {
+        this.client = client;
+        this.converter = operations.getElasticsearchConverter();
+        this.indexName = operations.getIndexCoordinatesFor(documentClass).getIndexName();
+        this.rebuildAlias = indexName + AliasReindexer.REBUILD_ALIAS_SUFFIX;
+        this.idOf = idOf;
+        this.preservedFields = Set.copyOf(preservedFields);
+        this.mappedFields = new ArrayList<>();
+        converter.getMappingContext().getRequiredPersistentEntity(documentClass).forEach(property -> {
+            if (!property.isIdProperty() && !this.preservedFields.contains(property.getFieldName())) {
+                mappedFields.add(property.getFieldName());
+            }
+        });
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxPending = this.maxBatchSize * MAX_PENDING_FACTOR;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bulk-index-" + indexName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue an index (create or replace) of the document
+     */
+    public void index(T document) {
+        String id = idOf.apply(document);
+        enqueue(id, new Operation<>(id, document, null));
+    }
+
+    /**
+     * Queue a partial update of some fields of the document with this id; meant for the
+     * {@code preservedFields}. Does nothing if the document doesn't exist.
+     */
+    public void update(String id, Map<String, Object> fields) {
+        enqueue(id + PARTIAL_SUFFIX, new Operation<>(id, null, new LinkedHashMap<>(fields)));
+    }
+
+    /**
+     * Queue a delete of the document with this id
+     */
+    public void delete(String id) {
+        enqueue(id, new Operation<>(id, null, null));
+    }
+
+    private void enqueue(String key, Operation<T> operation) {
+        boolean full;
+        synchronized (pending) {
+            if (pending.size() >= maxPending && !pending.containsKey(key)) {
+                // Elasticsearch has been failing for a while; don't grow without bound
+                log.warn("⚠️ Bulk buffer for '{}' is full, dropping operation for id (re-index it): {}",
+                         indexName, operation.id());
+                return;
+            }
+            if (operation.isDelete()) {
+                pending.remove(key + PARTIAL_SUFFIX);  // an upsert after the delete would resurrect it
+            }
+            pending.remove(key);  // re-insert so the latest write keeps its place at the end
+            pending.put(key, operation);
+            if (operation.document() != null) {
+                // A queued partial update must still follow the index that creates the document
+                Operation<T> partial = pending.remove(key + PARTIAL_SUFFIX);
+                if (partial != null) {
+                    pending.put(key + PARTIAL_SUFFIX, partial);
+                }
+            }
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: close() flushes what is left
+            }
+        }
+    }
+
+    /**
+     * Send everything queued so far in {@code maxBatchSize} chunks.
+     * Stops at the first failed request; its operations stay queued for the next flush.
+     */
+    public void flush() {
+        while (true) {
+            Map<String, Operation<T>> batch = drain();
+            if (batch.isEmpty() || !send(batch)) {
+                return;
+            }
+        }
+    }
+
+    private Map<String, Operation<T>> drain() {
+        synchronized (pending) {
+            Map<String, Operation<T>> batch = new LinkedHashMap<>();
+            var iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                var entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            return batch;
+        }
+    }
+
+    private boolean send(Map<String, Operation<T>> batch) {
+        List<BulkOperation> operations = new ArrayList<>(batch.size());
+        // Pending-map key of each bulk operation, in request (and so response item) order
+        List<String> keys = new ArrayList<>(batch.size());
+        boolean mirror = rebuilding();
+        batch.forEach((key, operation) -> {
+            operations.add(toBulkOperation(operation, indexName, null));
+            keys.add(key);
+            if (mirror) {
+                // require_alias: once the rebuild is over, the copy fails instead of creating an index
+                operations.add(toBulkOperation(operation, rebuildAlias, true));
+                keys.add(key);
+            }
+        });
+
+        try {
+            BulkResponse response = client.bulk(BulkRequest.of(b -> b.operations(operations)));
+            Map<String, Operation<T>> retry = new LinkedHashMap<>();
+            if (response.errors()) {
+                List<BulkResponseItem> items = response.items();
+                for (int i = 0; i < items.size(); i++) {
+                    BulkResponseItem item = items.get(i);
+                    // Deletes of documents that were never indexed and partial updates of
+                    // deleted documents (document_missing) are expected, not errors
+                    if (item.error() == null || item.status() == 404) {
+                        continue;
+                    }
+                    if (isRetryable(item.status())) {
+                        retry.put(keys.get(i), batch.get(keys.get(i)));
+                    } else {
+                        log.error("❌ Bulk {} of {} in '{}' failed: {}", item.operationType(), item.id(),
+                                  item.index(), item.error().reason());
+                    }
+                }
+            }
+            log.debug("Flushed {} operations to '{}' in {}ms", batch.size(), indexName, response.took());
+            if (!retry.isEmpty()) {
+                // Elasticsearch is overloaded or unwell: back off until the next flush
+                log.warn("⚠️ {} bulk operations on '{}' were rejected, re-queueing them", retry.size(), indexName);
+                requeue(retry);
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("❌ Bulk request to '{}' failed, re-queueing {} operations: {}", indexName, batch.size(),
+                      e.getMessage());
+            requeue(batch);
+            return false;
+        }
+    }
+
+    // 429 (es_rejected_execution_exception: the write queue is full) and server errors pass
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private BulkOperation toBulkOperation(Operation<T> operation, String target, Boolean requireAlias) {
+        String id = operation.id();
+        if (operation.isDelete()) {
+            // Deletes never create an index
+            return BulkOperation.of(op -> op.delete(d -> d.index(target).id(id)));
+        }
+        if (operation.fields() != null) {
+            Map<String, Object> fields = operation.fields();
+            return BulkOperation.of(op -> op.update(u -> u.index(target).id(id).requireAlias(requireAlias)
+                .action(a -> a.doc(fields))));
+        }
+        Map<String, Object> source = new LinkedHashMap<>(converter.mapObject(operation.document()));
+        if (!preservedFields.isEmpty()) {
+            // Merge instead of replace so the preserved fields survive; every other mapped
+            // field is sent (null when unset) so stale values are still cleared
+            mappedFields.forEach(field -> source.putIfAbsent(field, null));
+            return BulkOperation.of(op -> op.update(u -> u.index(target).id(id).requireAlias(requireAlias)
+                .action(a -> a.doc(source).docAsUpsert(true))));
+        }
+        return BulkOperation.of(op -> op.index(i -> i.index(target).id(id).requireAlias(requireAlias)
+            .document(source)));
+    }
+
+    /**
+     * Whether the index is being rebuilt, asking Elasticsearch at most every
+     * {@link AliasReindexer#REBUILD_CHECK_INTERVAL}; assumes not when it can't tell
+     */
+    private synchronized boolean rebuilding() {
+        long now = System.nanoTime();
+        if (rebuildCheckedAt == 0 || now - rebuildCheckedAt >= AliasReindexer.REBUILD_CHECK_INTERVAL.toNanos()) {
+            try {
+                rebuilding = client.indices().existsAlias(e -> e.name(rebuildAlias)).value();
+            } catch (Exception e) {
+                log.warn("⚠️ Could not check for a rebuild of '{}': {}", indexName, e.getMessage());
+                rebuilding = false;
+            }
+            rebuildCheckedAt = now;
+        }
+        return rebuilding;
+    }
+
+    private void requeue(Map<String, Operation<T>> batch) {
+        List<String> dropped = new ArrayList<>();
+        synchronized (pending) {
+            for (Map.Entry<String, Operation<T>> entry : batch.entrySet()) {
+                if (pending.size() >= maxPending && !pending.containsKey(entry.getKey())) {
+                    dropped.add(entry.getValue().id());
+                    continue;
+                }
+                // Newer writes for the same id win over the failed ones
+                pending.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!dropped.isEmpty()) {
+            log.warn("⚠️ Bulk buffer for '{}' is full, dropping operations for ids (re-index them): {}",
+                     indexName, dropped);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("❌ Bulk flush to '{}' failed: {}", indexName, e.getMessage());
+        }
+    }
+
+    /**
+     * Stop the timer and flush what is still queued
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * A queued index of {@code document}, a partial update with {@code fields}, or a delete
+     * when both are null
+     */
+    private record Operation<T>(String id, T document, Map<String, Object> fields) {
+
+        boolean isDelete() {
+            return document == null && fields == null;
+        }
+    }
+}
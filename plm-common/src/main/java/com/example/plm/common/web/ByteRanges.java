@@ -0,0 +1,250 @@
+package com.example.plm.common.web;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * HTTP byte-range responses ({@code Range} / {@code If-Range}) over a ranged source.
+ *
+ * Unlike Spring's {@code ResourceRegion} support, ranges are never served by skipping
+ * through a full stream: every range is opened at its offset through a {@link RangeOpener},
+ * which backends implement with ranged object reads or positional file reads.
+ * Multi-range requests are answered as {@code multipart/byteranges}, opening one range at
+ * a time while the body is written, with an exact Content-Length.
+ *
+ * Overlapping and adjacent ranges are coalesced before serving, so a request can never
+ * ask for more bytes than the file holds.
+ */
+public final class ByteRanges {
+
+    /**
+     * Opens a stream over {@code length} bytes of the file starting at {@code offset}
+     */
+    @FunctionalInterface
+    public interface RangeOpener {
+        InputStream open(long offset, long length) throws IOException;
+    }
+
+    /**
+     * A satisfiable byte range, both ends inclusive
+     */
+    public record Span(long start, long end) {
+
+        public long length() {
+            return end - start + 1;
+        }
+
+        public String contentRange(long total) {
+            return "bytes " + start + "-" + end + "/" + total;
+        }
+    }
+
+    private ByteRanges() {
+    }
+
+    /**
+     * Build a 206 (or 416) response for the request's {@code Range} header.
+     *
+     * @param range        the {@code Range} header, may be null
+     * @param ifRange      the {@code If-Range} header, may be null
+     * @param etag         current strong ETag of the file, may be null
+     * @param lastModified current modification time of the file, may be null
+     * @param total        file size in bytes
+     * @param contentType  content type of the file
+     * @param headers      headers to send with the response (disposition, validators, ...)
+     * @param opener       opens a range of the file
+     * @return the partial response, or null when the full file should be sent instead
+     *         (no or malformed {@code Range}, or {@code If-Range} no longer matches)
+     */
+    public static ResponseEntity<Resource> partial(String range, String ifRange, String etag, Instant lastModified,
+                                                   long total, MediaType contentType, HttpHeaders headers,
+                                                   RangeOpener opener) throws IOException {
+        List<Span> spans = resolve(range, ifRange, etag, lastModified, total);
+        return spans == null ? null : partial(spans, total, contentType, headers, opener);
+    }
+
+    /**
+     * Ranges to serve for the request's {@code Range} header, merged and sorted.
+     *
+     * @return null when the full file should be sent instead (no or malformed {@code Range},
+     *         or {@code If-Range} no longer matches); empty when nothing is satisfiable
+     */
+    public static List<Span> resolve(String range, String ifRange, String etag, Instant lastModified, long total) {
+        if (range == null || range.isBlank() || !ifRangeMatches(ifRange, etag, lastModified)) {
+            return null;
+        }
+        try {
+            return coalesce(HttpRange.parseRanges(range), total);
+        } catch (IllegalArgumentException e) {
+            // Unparseable Range headers are ignored (RFC 9110 14.2)
+            return null;
+        }
+    }
+
+    /**
+     * 206 response for resolved ranges, or 416 when there are none
+     */
+    public static ResponseEntity<Resource> partial(List<Span> spans, long total, MediaType contentType,
+                                                   HttpHeaders headers, RangeOpener opener) throws IOException {
+        if (spans.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .headers(headers)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + total)
+                    .build();
+        }
+
+        if (spans.size() == 1) {
+            Span span = spans.get(0);
+            InputStream stream = opener.open(span.start(), span.length());
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .header(HttpHeaders.CONTENT_RANGE, span.contentRange(total))
+                    .contentType(contentType)
+                    .contentLength(span.length())
+                    .body(new InputStreamResource(stream));
+        }
+
+        return multipart(spans, total, contentType, headers, opener);
+    }
+
+    /**
+     * Whether a {@code Range} header should be honored: true without {@code If-Range},
+     * otherwise only if it still names the current strong ETag or modification time.
+     */
+    public static boolean ifRangeMatches(String ifRange, String etag, Instant lastModified) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // Weak validators never match for ranges
+            return etag != null && !etag.startsWith("W/") && etag.equals(value);
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return since.getEpochSecond() == lastModified.getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolve ranges against the file size, drop unsatisfiable ones and merge overlapping
+     * or adjacent ones. An empty result means the request is not satisfiable.
+     */
+    private static List<Span> coalesce(List<HttpRange> ranges, long total) {
+        List<Span> spans = new ArrayList<>(ranges.size());
+        for (HttpRange range : ranges) {
+            long start;
+            long end;
+            try {
+                start = range.getRangeStart(total);
+                end = range.getRangeEnd(total);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (start < total && start <= end) {
+                spans.add(new Span(start, end));
+            }
+        }
+        if (spans.size() <= 1) {
+            return spans;
+        }
+
+        spans.sort(Comparator.comparingLong(Span::start));
+        List<Span> merged = new ArrayList<>(spans.size());
+        Span current = spans.get(0);
+        for (Span next : spans.subList(1, spans.size())) {
+            if (next.start() <= current.end() + 1) {
+                current = new Span(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static ResponseEntity<Resource> multipart(List<Span> spans, long total, MediaType contentType,
+                                                      HttpHeaders headers, RangeOpener opener) {
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+
+        // Part headers are small, so they are built up front; the ranges themselves are
+        // opened one at a time as the body is read
+        List<byte[]> partHeaders = new ArrayList<>(spans.size());
+        long contentLength = 0;
+        for (Span span : spans) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + span.contentRange(total) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + span.length();
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+
+        List<Supplier<InputStream>> parts = new ArrayList<>(spans.size() * 2 + 1);
+        for (int i = 0; i < spans.size(); i++) {
+            byte[] partHeader = partHeaders.get(i);
+            Span span = spans.get(i);
+            parts.add(() -> new ByteArrayInputStream(partHeader));
+            parts.add(() -> {
+                try {
+                    return opener.open(span.start(), span.length());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        parts.add(() -> new ByteArrayInputStream(end));
+
+        // SequenceInputStream pulls the next element only when the previous one is exhausted
+        // and closes each one, so at most one range is open at a time
+        Iterator<Supplier<InputStream>> iterator = parts.iterator();
+        InputStream body = new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return iterator.next().get();
+            }
+        });
+
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .headers(headers)
+                .contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                .contentLength(contentLength)
+                .body(new InputStreamResource(body));
+    }
+}
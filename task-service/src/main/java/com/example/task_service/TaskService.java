@@ -1,10 +1,13 @@
 package com.example.task_service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,6 +27,12 @@ import com.example.task_service.model.neo4j.TaskNode;
 import com.example.task_service.repository.FileMetadataRepository;
 import com.example.task_service.repository.TaskSignoffRepository;
 import com.example.task_service.repository.neo4j.TaskNodeRepository;
+import com.example.plm.common.search.AliasReindexer;
+import com.example.plm.common.search.BulkIndexBuffer;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class TaskService {
@@ -55,6 +64,42 @@ public class TaskService {
     @Autowired(required = false)
     private TaskNodeRepository taskNodeRepository;
 
+    @Autowired(required = false)
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired(required = false)
+    private ElasticsearchClient elasticsearchClient;
+
+    @Value("${plm.search.bulk.max-batch-size:500}")
+    private int bulkMaxBatchSize;
+
+    @Value("${plm.search.bulk.flush-interval:1s}")
+    private Duration bulkFlushInterval;
+
+    // Write-behind _bulk buffer for the tasks index; null when Elasticsearch is not available
+    private BulkIndexBuffer<TaskDocument> taskIndexBuffer;
+
+    @PostConstruct
+    void initSearchIndexBuffer() {
+        if (taskSearchRepository != null && elasticsearchOperations != null && elasticsearchClient != null) {
+            try {
+                // Existing indexes pick up mapping changes, copied into a new index when ES refuses them in place
+                new AliasReindexer(elasticsearchOperations).applyMapping(TaskDocument.class);
+            } catch (Exception e) {
+                System.err.println("⚠️ Could not update tasks index mapping: " + e.getMessage());
+            }
+            taskIndexBuffer = new BulkIndexBuffer<>(elasticsearchOperations, elasticsearchClient,
+                TaskDocument.class, doc -> String.valueOf(doc.getId()), bulkMaxBatchSize, bulkFlushInterval);
+        }
+    }
+
+    @PreDestroy
+    void flushSearchIndexBuffer() {
+        if (taskIndexBuffer != null) {
+            taskIndexBuffer.close();
+        }
+    }
+
     public Task addTask(Task task, List<MultipartFile> files) {
         // Prefer assignedTo if provided (from orchestrator); otherwise, try to resolve via user-service
         if (task.getAssignedTo() == null || task.getAssignedTo().isBlank()) {
@@ -99,9 +144,9 @@ public class TaskService {
             }
         }
         // Sync with Elasticsearch (if available)
-        if (taskSearchRepository != null) {
+        if (taskIndexBuffer != null) {
             try {
-                taskSearchRepository.save(new TaskDocument(
+                taskIndexBuffer.index(new TaskDocument(
                     savedTask.getId(), savedTask.getName(), savedTask.getDescription(), savedTask.getUserId()
                 ));
             } catch (Exception e) {
@@ -149,12 +194,12 @@ public class TaskService {
         Task updatedTask = taskRepository.save(existing);
         
         // Re-index to Elasticsearch (if available)
-        if (taskSearchRepository != null) {
+        if (taskIndexBuffer != null) {
             try {
-                taskSearchRepository.save(new TaskDocument(
+                taskIndexBuffer.index(new TaskDocument(
                     updatedTask.getId(), updatedTask.getName(), updatedTask.getDescription(), updatedTask.getUserId()
                 ));
-                System.out.println("✅ Task " + updatedTask.getId() + " re-indexed to Elasticsearch");
+                System.out.println("✅ Task " + updatedTask.getId() + " queued for re-indexing in Elasticsearch");
             } catch (Exception e) {
                 System.err.println("⚠ Warning: Failed to re-index task in Elasticsearch: " + e.getMessage());
             }
@@ -167,10 +212,10 @@ public class TaskService {
         taskRepository.deleteById(id);
         
         // Delete from Elasticsearch (if available)
-        if (taskSearchRepository != null) {
+        if (taskIndexBuffer != null) {
             try {
-                taskSearchRepository.deleteById(String.valueOf(id));
-                System.out.println("✅ Task " + id + " deleted from Elasticsearch");
+                taskIndexBuffer.delete(String.valueOf(id));
+                System.out.println("✅ Task " + id + " queued for deletion from Elasticsearch");
             } catch (Exception e) {
                 System.err.println("⚠ Warning: Failed to delete task from Elasticsearch: " + e.getMessage());
             }
@@ -1,7 +1,9 @@
 package com.example.task_service.elasticsearch;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 @Document(indexName = "tasks")  // Define the index name for Elasticsearch
 public class TaskDocument {
@@ -13,12 +15,16 @@ public class TaskDocument {
     private Long userId;
     private boolean completed;
 
+    // Type-ahead input for the search-service suggest endpoint, kept in step with title
+    @CompletionField(analyzer = "standard", searchAnalyzer = "standard", maxInputLength = 100)
+    private Completion suggest;
+
     // Default constructor
     public TaskDocument() {}
 
     public TaskDocument(Long id, String title, String description, Long userId) {
         this.id = id;
-        this.title = title;
+        setTitle(title);
         this.description = description;
         this.userId = userId;
     }
@@ -38,6 +44,7 @@ public class TaskDocument {
 
     public void setTitle(String title) {
         this.title = title;
+        this.suggest = title != null ? new Completion(new String[]{title}) : null;
     }
 
     public String getDescription() {
@@ -63,4 +70,12 @@ public class TaskDocument {
     public void setCompleted(boolean completed) {
         this.completed = completed;
     }
+
+    public Completion getSuggest() {
+        return suggest;
+    }
+
+    public void setSuggest(Completion suggest) {
+        this.suggest = suggest;
+    }
 }